@@ -0,0 +1,147 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Every public FitnessAnalyticsService method on its own, through the List
+// overloads callers use, over synthetic sessions of the given size. With
+// parallel=true the service runs in aggregation.parallel mode with a
+// threshold of 0, so every size goes through the fork/join pool; comparing
+// the two modes per size is what aggregation.parallel-threshold is based on.
+// Run with -prof gc for allocation rates, e.g.
+// -Djmh.args="AnalyticsBenchmark -p rows=1000000 -prof gc"
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    int rows;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    List<ActivitySession> sessions;
+
+    FitnessAnalyticsService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sessions = SyntheticSessions.sessions(rows);
+        FitnessAnalyticsProperties properties = new FitnessAnalyticsProperties();
+        properties.getAggregation().setParallel(parallel);
+        properties.getAggregation().setParallelThreshold(0);
+        service = new FitnessAnalyticsService(properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public SessionAggregate aggregate() {
+        return service.aggregate(sessions);
+    }
+
+    @Benchmark
+    public Integer totalCalories() {
+        return service.getTotalCalories(sessions);
+    }
+
+    @Benchmark
+    public Double averageCalories() {
+        return service.getAverageCaloriesBurned(sessions);
+    }
+
+    @Benchmark
+    public Map<String, Integer> caloriesByWorkoutType() {
+        return service.getTotalCaloriesByWoType(sessions);
+    }
+
+    @Benchmark
+    public List<String> topWorkoutTypes() {
+        return service.getTopWoTypes(sessions);
+    }
+
+    @Benchmark
+    public Double totalDuration() {
+        return service.calculateTotalWoDuration(sessions);
+    }
+
+    @Benchmark
+    public Double averageDuration() {
+        return service.getAverageWoDuration(sessions);
+    }
+
+    @Benchmark
+    public Map<String, Double> averageDurationByWorkoutType() {
+        return service.getAveWoDurationByType(sessions);
+    }
+
+    @Benchmark
+    public Map<String, Long> mostFrequentWorkout() {
+        return service.getMostFrequentWo(sessions);
+    }
+
+    @Benchmark
+    public Map<Integer, Long> workoutFrequency() {
+        return service.getWorkOutFrequency(sessions);
+    }
+
+    @Benchmark
+    public Map<String, Double> maxTotalDurationWorkoutType() {
+        return service.getWorkoutTypeWithMaxTotalDuration(sessions);
+    }
+
+    @Benchmark
+    public Map<String, Double> longestSession() {
+        return service.getLongestWoSession(sessions);
+    }
+
+    @Benchmark
+    public Map<String, Double> waterIntakeByWorkoutType() {
+        return service.getTotalWaterIntakeByWoType(sessions);
+    }
+
+    @Benchmark
+    public Map<String, Double> caloriesByGender() {
+        return service.getTotalCaloriesByGender(sessions);
+    }
+
+    @Benchmark
+    public Map<Double, Double> fatPercentageByExperience() {
+        return service.getAverageFatPercentageByExperience(sessions);
+    }
+
+    @Benchmark
+    public Map<String, Double> bmiByWorkoutType() {
+        return service.getAverageBMIbyWoType(sessions);
+    }
+
+    @Benchmark
+    public Long highCalorieSessions() {
+        return service.getCaloriesBurned(sessions);
+    }
+
+    @Benchmark
+    public Map<Double, Long> sessionsByExperience() {
+        return service.getExperienceLevelPerSession(sessions);
+    }
+
+    @Benchmark
+    public Map<Double, ActivitySession> longestSessionByExperience() {
+        return service.getMaxDurationPerExpLevel(sessions);
+    }
+}
@@ -0,0 +1,88 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.ColumnKernels;
+import com.byusluer.fitnessanalyticsapp1.aggregation.ColumnStats;
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.service.StreamAnalyticsReference;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Single-column reductions: the original stream implementations against the
+// scalar and Vector API ColumnKernels over the columnar table.
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class ColumnKernelBenchmark {
+
+    @Param({"1000000", "10000000"})
+    int rows;
+
+    @Param({"CALORIES_BURNED", "SESSION_DURATION_HOURS"})
+    Metric metric;
+
+    List<ActivitySession> sessions;
+    SessionTable table;
+    ColumnKernels scalar;
+    ColumnKernels vector;
+    private final StreamAnalyticsReference reference = new StreamAnalyticsReference();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sessions = SyntheticSessions.sessions(rows);
+        table = SessionTable.of(sessions);
+        scalar = ColumnKernels.scalar();
+        vector = ColumnKernels.vectorizedIfAvailable();
+        if (vector == scalar) {
+            throw new IllegalStateException("jdk.incubator.vector is not available");
+        }
+    }
+
+    // getTotalCalories or calculateTotalWoDuration
+    @Benchmark
+    public Object streamSum() {
+        return metric == Metric.CALORIES_BURNED
+                ? reference.getTotalCalories(sessions) : reference.calculateTotalWoDuration(sessions);
+    }
+
+    @Benchmark
+    public ColumnStats scalarStats() {
+        return scalar.stats(table, metric);
+    }
+
+    @Benchmark
+    public ColumnStats vectorStats() {
+        return vector.stats(table, metric);
+    }
+
+    // getCaloriesBurned; the duration threshold is just a filter of similar
+    // selectivity
+    @Benchmark
+    public long streamCountAbove() {
+        return metric == Metric.CALORIES_BURNED ? reference.getCaloriesBurned(sessions)
+                : sessions.stream().filter(s -> s.getSessionDurationHours() != null
+                        && s.getSessionDurationHours() > 1.0).count();
+    }
+
+    @Benchmark
+    public long scalarCountAbove() {
+        return scalar.countGreaterThan(table, metric, threshold());
+    }
+
+    @Benchmark
+    public long vectorCountAbove() {
+        return vector.countGreaterThan(table, metric, threshold());
+    }
+
+    private double threshold() {
+        return metric == Metric.CALORIES_BURNED ? SessionAggregate.HIGH_CALORIE_THRESHOLD : 1.0;
+    }
+}
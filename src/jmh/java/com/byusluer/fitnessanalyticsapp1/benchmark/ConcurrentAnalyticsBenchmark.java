@@ -0,0 +1,11 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import org.openjdk.jmh.annotations.Threads;
+
+// The AnalyticsBenchmark methods called from one thread per core against the
+// same session list, as concurrent requests would. Throughput is the total
+// over all threads; compare it with AnalyticsBenchmark for the scaling.
+
+@Threads(Threads.MAX)
+public class ConcurrentAnalyticsBenchmark extends AnalyticsBenchmark {
+}
@@ -0,0 +1,58 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.csv.LoadResult;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// CsvLoaderService on a synthetic file of the given size, with one parser
+// thread or one per core. Run with -prof gc for allocation rates, e.g.
+// -Djmh.args="CsvLoaderBenchmark -p rows=1000000 -prof gc"
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class CsvLoaderBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int rows;
+
+    @Param({"sequential", "parallel"})
+    String mode;
+
+    Path file;
+    int threads;
+
+    private final CsvLoaderService loader = new CsvLoaderService();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = SyntheticSessions.writeCsv(rows);
+        threads = mode.equals("parallel") ? Runtime.getRuntime().availableProcessors() : 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public LoadResult<List<ActivitySession>> loadSessions() {
+        return loader.loadSessions(file, threads);
+    }
+
+    @Benchmark
+    public LoadResult<SessionTable> loadTable() {
+        return loader.loadTable(file, threads);
+    }
+}
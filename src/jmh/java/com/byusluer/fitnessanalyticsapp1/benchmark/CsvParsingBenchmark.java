@@ -0,0 +1,80 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.csv.LegacyCsvLoader;
+import com.byusluer.fitnessanalyticsapp1.csv.SessionCsvParser;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Original split/regex/Optional loader against the byte-level SessionCsvParser
+// on an in-memory copy of fitness_data.csv scaled to the requested row count.
+// Run with -prof gc to compare allocation rates.
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CsvParsingBenchmark {
+
+    @Param({"1000000"})
+    int rows;
+
+    byte[] csv;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] source;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("fitness_data.csv")) {
+            source = in.readAllBytes();
+        }
+        int headerEnd = indexOf(source, (byte) '\n', 0) + 1;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows * 80);
+        out.write(source, 0, headerEnd);
+        int written = 0;
+        while (written < rows) {
+            for (int start = headerEnd; start < source.length && written < rows; written++) {
+                int end = indexOf(source, (byte) '\n', start);
+                end = end < 0 ? source.length : end + 1;
+                out.write(source, start, end - start);
+                start = end;
+            }
+        }
+        csv = out.toByteArray();
+    }
+
+    @Benchmark
+    public List<ActivitySession> legacyLoader() {
+        return new LegacyCsvLoader().load(new ByteArrayInputStream(csv));
+    }
+
+    @Benchmark
+    public List<ActivitySession> streamingParserToSessions() throws IOException {
+        List<ActivitySession> sessions = new ArrayList<>();
+        new SessionCsvParser().read(new ByteArrayInputStream(csv), row -> sessions.add(row.toSession()));
+        return sessions;
+    }
+
+    @Benchmark
+    public SessionTable streamingParserToTable() throws IOException {
+        SessionTable.Builder builder = new SessionTable.Builder();
+        new SessionCsvParser().read(new ByteArrayInputStream(csv), row -> row.appendTo(builder));
+        return builder.build();
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == value) return i;
+        }
+        return -1;
+    }
+}
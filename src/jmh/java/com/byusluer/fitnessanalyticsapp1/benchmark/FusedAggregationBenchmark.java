@@ -0,0 +1,144 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.service.StreamAnalyticsReference;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// All 17 analytics of the startup report: one stream per metric (the original
+// implementation) against one fused pass plus views. The "passes" counter shows
+// how many times the session list was traversed for one report.
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FusedAggregationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"100000", "1000000"})
+        int rows;
+
+        PassCountingList sessions;
+
+        @Setup
+        public void setup() {
+            List<ActivitySession> source = new CsvLoaderService().loadSessionsFromCsv("fitness_data.csv");
+            List<ActivitySession> scaled = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                scaled.add(source.get(i % source.size()));
+            }
+            sessions = new PassCountingList(scaled);
+        }
+    }
+
+    // Traversals of the session list in the last report. JMH sums EVENTS counters
+    // over the measurement iterations, so compare the two benchmarks by ratio.
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Passes {
+        public long passes;
+    }
+
+    private final FitnessAnalyticsService service = new FitnessAnalyticsService();
+    private final StreamAnalyticsReference reference = new StreamAnalyticsReference();
+
+    @Benchmark
+    public void streamPerMetric(Data data, Passes passes, Blackhole bh) {
+        long before = data.sessions.passes;
+        List<ActivitySession> sessions = data.sessions;
+        bh.consume(reference.getTotalCalories(sessions));
+        bh.consume(reference.getAverageCaloriesBurned(sessions));
+        bh.consume(reference.getTotalCaloriesByWoType(sessions));
+        bh.consume(reference.getTopWoTypes(sessions));
+        bh.consume(reference.calculateTotalWoDuration(sessions));
+        bh.consume(reference.getAverageWoDuration(sessions));
+        bh.consume(reference.getAveWoDurationByType(sessions));
+        bh.consume(reference.getMostFrequentWo(sessions));
+        bh.consume(reference.getWorkOutFrequency(sessions));
+        bh.consume(reference.getWorkoutTypeWithMaxTotalDuration(sessions));
+        bh.consume(reference.getLongestWoSession(sessions));
+        bh.consume(reference.getTotalWaterIntakeByWoType(sessions));
+        bh.consume(reference.getTotalCaloriesByGender(sessions));
+        bh.consume(reference.getAverageFatPercentageByExperience(sessions));
+        bh.consume(reference.getAverageBMIbyWoType(sessions));
+        bh.consume(reference.getCaloriesBurned(sessions));
+        bh.consume(reference.getExperienceLevelPerSession(sessions));
+        bh.consume(reference.getMaxDurationPerExpLevel(sessions));
+        passes.passes = data.sessions.passes - before;
+    }
+
+    @Benchmark
+    public void fusedSinglePass(Data data, Passes passes, Blackhole bh) {
+        long before = data.sessions.passes;
+        SessionAggregate aggregate = service.aggregate(data.sessions);
+        bh.consume(service.getTotalCalories(aggregate));
+        bh.consume(service.getAverageCaloriesBurned(aggregate));
+        bh.consume(service.getTotalCaloriesByWoType(aggregate));
+        bh.consume(service.getTopWoTypes(aggregate));
+        bh.consume(service.calculateTotalWoDuration(aggregate));
+        bh.consume(service.getAverageWoDuration(aggregate));
+        bh.consume(service.getAveWoDurationByType(aggregate));
+        bh.consume(service.getMostFrequentWo(aggregate));
+        bh.consume(service.getWorkOutFrequency(aggregate));
+        bh.consume(service.getWorkoutTypeWithMaxTotalDuration(aggregate));
+        bh.consume(service.getLongestWoSession(aggregate));
+        bh.consume(service.getTotalWaterIntakeByWoType(aggregate));
+        bh.consume(service.getTotalCaloriesByGender(aggregate));
+        bh.consume(service.getAverageFatPercentageByExperience(aggregate));
+        bh.consume(service.getAverageBMIbyWoType(aggregate));
+        bh.consume(service.getCaloriesBurned(aggregate));
+        bh.consume(service.getExperienceLevelPerSession(aggregate));
+        bh.consume(service.getMaxDurationPerExpLevel(aggregate));
+        passes.passes = data.sessions.passes - before;
+    }
+
+    // Counts every full traversal (stream or iterator) of the wrapped list.
+
+    static final class PassCountingList extends AbstractList<ActivitySession> {
+
+        private final List<ActivitySession> delegate;
+        long passes;
+
+        PassCountingList(List<ActivitySession> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ActivitySession get(int index) {
+            return delegate.get(index);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public Iterator<ActivitySession> iterator() {
+            passes++;
+            return delegate.iterator();
+        }
+
+        @Override
+        public Stream<ActivitySession> stream() {
+            passes++;
+            return delegate.stream();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.ingest.IngestBatch;
+import com.byusluer.fitnessanalyticsapp1.ingest.IngestionService;
+import com.byusluer.fitnessanalyticsapp1.ingest.QueueFullException;
+import com.byusluer.fitnessanalyticsapp1.ingest.SessionsIngestedEvent;
+import com.byusluer.fitnessanalyticsapp1.metrics.IngestionMetrics;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.DatasetService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.service.SnapshotService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Local load generator for the ingestion endpoint's service: every thread
+// submits CSV batches as fast as the queue takes them, waiting up to
+// blockTimeout for room, so the score approaches the rate the worker appends
+// at; "rejected" counts submits that still found the queue full. After each
+// iteration the queue is drained, the queue depth and end-to-end latency from
+// the meters the application publishes are printed, and the dataset is
+// reloaded so iterations start from the same size.
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Threads(4)
+@State(Scope.Benchmark)
+public class IngestionBenchmark {
+
+    @Param({"100", "1000"})
+    int batchRows;
+
+    @Param({"100000"})
+    int queueCapacity;
+
+    @Param({"100"})
+    long blockTimeoutMillis;
+
+    DatasetService datasets;
+    IngestionService ingestion;
+    SimpleMeterRegistry registry;
+    IngestBatch batch;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long accepted;
+        public long rejected;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        FitnessAnalyticsProperties properties = new FitnessAnalyticsProperties();
+        properties.getIngest().setQueueCapacity(queueCapacity);
+        properties.getIngest().setBlockTimeout(Duration.ofMillis(blockTimeoutMillis));
+        CsvLoaderService loader = new CsvLoaderService();
+        IngestionMetrics[] metrics = new IngestionMetrics[1];
+        datasets = new DatasetService(loader, new SnapshotService(loader, properties), new FitnessAnalyticsService(),
+                properties, event -> { });
+        ingestion = new IngestionService(datasets, event -> {
+            if (event instanceof SessionsIngestedEvent ingested) {
+                metrics[0].onSessionsIngested(ingested);
+            }
+        }, properties);
+        registry = new SimpleMeterRegistry();
+        metrics[0] = new IngestionMetrics(registry, ingestion, properties);
+        datasets.current();
+        ingestion.start();
+
+        Path csv = SyntheticSessions.writeCsv(batchRows);
+        try {
+            batch = IngestBatch.ofCsv(Files.readAllBytes(csv));
+        } finally {
+            Files.delete(csv);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void drain() throws Exception {
+        double depth = ingestion.queuedRecords();
+        ingestion.awaitIdle(Duration.ofMinutes(1));
+        Timer latency = registry.get("fitness.ingest.latency").timer();
+        System.out.printf("%n  queue depth %.0f, %d sessions in %d appends, latency mean %.1f ms max %.1f ms%n",
+                depth, ingestion.ingestedSessions(), ingestion.batches(), latency.mean(TimeUnit.MILLISECONDS),
+                latency.max(TimeUnit.MILLISECONDS));
+        datasets.reload();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ingestion.stop();
+    }
+
+    @Benchmark
+    public int submit(Outcomes outcomes) {
+        try {
+            int records = ingestion.submit(batch).records();
+            outcomes.accepted++;
+            return records;
+        } catch (QueueFullException e) {
+            outcomes.rejected++;
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.ColumnKernels;
+import com.byusluer.fitnessanalyticsapp1.aggregation.ColumnStats;
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.table.OffHeapSessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Full aggregation and a single-column scan over the heap SessionTable and
+// its off-heap copy. Run with -prof gc to compare allocation per operation.
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "--enable-preview"})
+@State(Scope.Benchmark)
+public class OffHeapBenchmark {
+
+    @Param({"1000000"})
+    int rows;
+
+    SessionTable heap;
+    OffHeapSessionTable offHeap;
+    private final FitnessAnalyticsService analytics = new FitnessAnalyticsService();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        heap = SessionTable.of(SyntheticSessions.sessions(rows));
+        offHeap = OffHeapSessionTable.of(heap);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        offHeap.close();
+    }
+
+    @Benchmark
+    public SessionAggregate heapAggregate() {
+        return analytics.aggregate(heap);
+    }
+
+    @Benchmark
+    public SessionAggregate offHeapAggregate() {
+        return analytics.aggregate(offHeap);
+    }
+
+    @Benchmark
+    public ColumnStats heapCalories() {
+        return ColumnKernels.scalar().stats(heap, Metric.CALORIES_BURNED);
+    }
+
+    @Benchmark
+    public ColumnStats offHeapCalories() {
+        return offHeap.stats(Metric.CALORIES_BURNED);
+    }
+}
@@ -0,0 +1,67 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.ParallelAggregator;
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Sequential single-pass aggregation against the fork/join ParallelAggregator
+// (one worker per core) for sessions and for the columnar table.
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class ParallelAggregationBenchmark {
+
+    @Param({"1000000", "10000000"})
+    int rows;
+
+    @Param({"16384"})
+    int leafSize;
+
+    List<ActivitySession> sessions;
+    SessionTable table;
+    ForkJoinPool pool;
+    ParallelAggregator parallel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sessions = SyntheticSessions.sessions(rows);
+        table = SessionTable.of(sessions);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        parallel = new ParallelAggregator(pool, leafSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public SessionAggregate sequentialSessions() {
+        return SessionAggregate.of(sessions);
+    }
+
+    @Benchmark
+    public SessionAggregate parallelSessions() {
+        return parallel.aggregate(sessions);
+    }
+
+    @Benchmark
+    public SessionAggregate sequentialTable() {
+        return SessionAggregate.of(table);
+    }
+
+    @Benchmark
+    public SessionAggregate parallelTable() {
+        return parallel.aggregate(table);
+    }
+}
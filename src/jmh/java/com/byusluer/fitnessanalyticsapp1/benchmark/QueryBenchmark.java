@@ -0,0 +1,104 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.cube.Dimension;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.query.Condition;
+import com.byusluer.fitnessanalyticsapp1.query.QueryExecutor;
+import com.byusluer.fitnessanalyticsapp1.query.QueryParser;
+import com.byusluer.fitnessanalyticsapp1.query.QueryResult;
+import com.byusluer.fitnessanalyticsapp1.query.SessionQuery;
+import com.byusluer.fitnessanalyticsapp1.query.ZoneMap;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// "avgBpm > 160 and sessionDurationHours > 1.5 and gender = Female", counted
+// and grouped by workout type: hand-written streams, the Condition tree
+// interpreted per session, and the compiled query over the columnar table.
+// The sorted variants order the rows by age so the zone map can skip blocks.
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    private static final Condition CONDITION =
+            QueryParser.parseCondition("avgBpm > 160 and sessionDurationHours > 1.5 and gender = Female");
+    private static final Condition OLDER = QueryParser.parseCondition("age >= 55");
+
+    @Param({"1000000"})
+    int rows;
+
+    List<ActivitySession> sessions;
+    SessionTable table;
+    ZoneMap zones;
+    SessionTable sortedTable;
+    ZoneMap sortedZones;
+    SessionQuery byWorkoutType;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sessions = SyntheticSessions.sessions(rows);
+        table = SessionTable.of(sessions);
+        zones = ZoneMap.of(table);
+        sortedTable = SessionTable.of(sessions.stream()
+                .sorted(Comparator.comparing(ActivitySession::getAge, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList());
+        sortedZones = ZoneMap.of(sortedTable);
+        byWorkoutType = new SessionQuery(CONDITION, List.of(Dimension.WORKOUT_TYPE),
+                QueryParser.parseSelections(List.of("count", "avg(caloriesBurned)")));
+    }
+
+    @Benchmark
+    public long streamCount() {
+        return sessions.stream()
+                .filter(s -> s.getAvgBpm() != null && s.getAvgBpm() > 160
+                        && s.getSessionDurationHours() != null && s.getSessionDurationHours() > 1.5
+                        && "Female".equalsIgnoreCase(s.getGender()))
+                .count();
+    }
+
+    @Benchmark
+    public long interpretedCount() {
+        return sessions.stream().filter(CONDITION::matches).count();
+    }
+
+    @Benchmark
+    public long compiledCount() {
+        return QueryExecutor.execute(table, zones, SessionQuery.count(CONDITION)).matchedSessions();
+    }
+
+    @Benchmark
+    public Map<String, Double> streamGroupBy() {
+        return sessions.stream()
+                .filter(s -> s.getAvgBpm() != null && s.getAvgBpm() > 160
+                        && s.getSessionDurationHours() != null && s.getSessionDurationHours() > 1.5
+                        && "Female".equalsIgnoreCase(s.getGender())
+                        && s.getWorkoutType() != null && s.getCaloriesBurned() != null)
+                .collect(Collectors.groupingBy(ActivitySession::getWorkoutType,
+                        Collectors.averagingInt(ActivitySession::getCaloriesBurned)));
+    }
+
+    @Benchmark
+    public QueryResult compiledGroupBy() {
+        return QueryExecutor.execute(table, zones, byWorkoutType);
+    }
+
+    @Benchmark
+    public long streamSortedRange() {
+        return sessions.stream().filter(s -> s.getAge() != null && s.getAge() >= 55).count();
+    }
+
+    @Benchmark
+    public long compiledSortedRange() {
+        return QueryExecutor.execute(sortedTable, sortedZones, SessionQuery.count(OLDER)).matchedSessions();
+    }
+}
@@ -0,0 +1,54 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.TableSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Startup cost of an unchanged dataset: parsing the CSV file against checking
+// its checksum and reading the binary snapshot.
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({"1000000"})
+    int rows;
+
+    Path csv;
+    Path snapshot;
+
+    private final CsvLoaderService loader = new CsvLoaderService();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        csv = SyntheticSessions.writeCsv(rows);
+        snapshot = csv.resolveSibling(csv.getFileName() + ".snapshot");
+        TableSnapshot.write(loader.loadTableFromPath(csv), TableSnapshot.Source.of(csv), snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public SessionTable parseCsv() {
+        return loader.loadTableFromPath(csv);
+    }
+
+    @Benchmark
+    public SessionTable readSnapshot() throws IOException {
+        return TableSnapshot.read(snapshot, TableSnapshot.Source.of(csv));
+    }
+}
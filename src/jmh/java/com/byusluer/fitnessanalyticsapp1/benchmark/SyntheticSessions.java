@@ -0,0 +1,95 @@
+package com.byusluer.fitnessanalyticsapp1.benchmark;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Seeded generator for sessions with the value ranges and number formats of
+// fitness_data.csv, so benchmarks can scale the schema far past the bundled
+// 1800 rows. The same seed and row count always give the same data.
+
+final class SyntheticSessions {
+
+    static final String HEADER = "Age,Gender,Weight (kg),Height (m),Max_BPM,Avg_BPM,Resting_BPM,"
+            + "Session_Duration (hours),Calories_Burned,Workout_Type,Fat_Percentage,Water_Intake (liters),"
+            + "Workout_Frequency (days/week),Experience_Level,BMI";
+
+    private static final String[] GENDERS = {"Male", "Female"};
+    private static final String[] WORKOUT_TYPES = {"Yoga", "HIIT", "Cardio", "Strength"};
+    private static final long SEED = 20240601L;
+
+    private SyntheticSessions() {
+    }
+
+    static List<ActivitySession> sessions(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<ActivitySession> sessions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            sessions.add(next(random));
+        }
+        return sessions;
+    }
+
+    static Path writeCsv(int rows) throws IOException {
+        Path file = Files.createTempFile("fitness-" + rows + "-", ".csv");
+        SplittableRandom random = new SplittableRandom(SEED);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.write("\r\n");
+            StringBuilder line = new StringBuilder(96);
+            for (int i = 0; i < rows; i++) {
+                ActivitySession s = next(random);
+                line.setLength(0);
+                line.append((double) s.getAge()).append(',')
+                        .append(s.getGender()).append(',')
+                        .append(s.getWeightKg()).append(',')
+                        .append(s.getHeightM()).append(',')
+                        .append(s.getMaxBpm()).append(',')
+                        .append((double) s.getAvgBpm()).append(',')
+                        .append((double) s.getRestingBpm()).append(',')
+                        .append(s.getSessionDurationHours()).append(',')
+                        .append((double) s.getCaloriesBurned()).append(',')
+                        .append(s.getWorkoutType()).append(',')
+                        .append(s.getFatPercentage()).append(',')
+                        .append(s.getWaterIntakeLiters()).append(',')
+                        .append((double) s.getWorkoutFrequencyPerWeek()).append(',')
+                        .append(s.getExperienceLevel()).append(',')
+                        .append(s.getBmi()).append("\r\n");
+                out.append(line);
+            }
+        }
+        return file;
+    }
+
+    private static ActivitySession next(SplittableRandom random) {
+        return ActivitySession.builder()
+                .age(random.nextInt(18, 60))
+                .gender(GENDERS[random.nextInt(GENDERS.length)])
+                .weightKg(round(random.nextDouble(40, 130), 1))
+                .heightM(round(random.nextDouble(1.5, 2.0), 2))
+                .maxBpm(random.nextInt(160, 200))
+                .avgBpm(random.nextInt(120, 170))
+                .restingBpm(random.nextInt(50, 75))
+                .sessionDurationHours(round(random.nextDouble(0.5, 2.0), 2))
+                .caloriesBurned(random.nextInt(300, 1800))
+                .workoutType(WORKOUT_TYPES[random.nextInt(WORKOUT_TYPES.length)])
+                .fatPercentage(round(random.nextDouble(10, 35), 1))
+                .waterIntakeLiters(round(random.nextDouble(1.5, 3.7), 1))
+                .workoutFrequencyPerWeek(random.nextInt(2, 6))
+                .experienceLevel((double) random.nextInt(1, 4))
+                .bmi(round(random.nextDouble(12, 50), 2))
+                .build();
+    }
+
+    private static double round(double value, int decimals) {
+        double scale = decimals == 1 ? 10 : 100;
+        return Math.round(value * scale) / scale;
+    }
+}
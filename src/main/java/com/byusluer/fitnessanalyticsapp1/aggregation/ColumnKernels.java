@@ -0,0 +1,31 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+
+// Whole-column reductions over a SessionTable that skip null cells through
+// the column's validity bitmap. They answer single-metric questions (total
+// calories, total duration, sessions over a threshold) without building a
+// full SessionAggregate.
+//
+// Integer columns are summed exactly. Double column sums are compensated:
+// the scalar kernels give exactly the MetricStats result, the vector kernels
+// keep one compensated sum per lane and may differ from it in the last bits.
+
+public interface ColumnKernels {
+
+    ColumnStats stats(SessionTable table, Metric metric);
+
+    // Non-null values strictly greater than threshold
+    long countGreaterThan(SessionTable table, Metric metric, double threshold);
+
+    static ColumnKernels scalar() {
+        return ScalarColumnKernels.INSTANCE;
+    }
+
+    // Vector API kernels when the JVM was started with
+    // --add-modules jdk.incubator.vector, the scalar ones otherwise
+    static ColumnKernels vectorizedIfAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                ? VectorColumnKernels.INSTANCE : ScalarColumnKernels.INSTANCE;
+    }
+}
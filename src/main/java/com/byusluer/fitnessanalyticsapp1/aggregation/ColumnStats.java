@@ -0,0 +1,13 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+// Sum / count / min / max of the non-null values of one column. min and max
+// are +/-infinity when count is 0. longSum is the exact sum of an integral
+// column (0 for double columns); sum is the same total as a double, which
+// loses precision past 2^53.
+
+public record ColumnStats(long count, double sum, long longSum, double min, double max) {
+
+    public double average() {
+        return count == 0 ? 0.0 : sum / count;
+    }
+}
@@ -0,0 +1,74 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+
+// All metric accumulators of a single group (one workout type, one gender, ...).
+
+public final class GroupStats {
+
+    private long sessions;
+    private final MetricStats[] metrics = new MetricStats[Metric.VALUES.length];
+
+    public GroupStats() {
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i] = new MetricStats();
+        }
+    }
+
+    public void add(ActivitySession session) {
+        sessions++;
+        add(Metric.AGE, session.getAge());
+        add(Metric.WEIGHT_KG, session.getWeightKg());
+        add(Metric.HEIGHT_M, session.getHeightM());
+        add(Metric.MAX_BPM, session.getMaxBpm());
+        add(Metric.AVG_BPM, session.getAvgBpm());
+        add(Metric.RESTING_BPM, session.getRestingBpm());
+        add(Metric.SESSION_DURATION_HOURS, session.getSessionDurationHours());
+        add(Metric.CALORIES_BURNED, session.getCaloriesBurned());
+        add(Metric.FAT_PERCENTAGE, session.getFatPercentage());
+        add(Metric.WATER_INTAKE_LITERS, session.getWaterIntakeLiters());
+        add(Metric.WORKOUT_FREQUENCY_PER_WEEK, session.getWorkoutFrequencyPerWeek());
+        add(Metric.EXPERIENCE_LEVEL, session.getExperienceLevel());
+        add(Metric.BMI, session.getBmi());
+    }
+
+    public void add(SessionTable table, int row) {
+        sessions++;
+        for (Metric metric : Metric.VALUES) {
+            if (table.isPresent(metric, row)) {
+                metrics[metric.ordinal()].add(table.getDouble(metric, row));
+            }
+        }
+    }
+
+    private void add(Metric metric, Number value) {
+        if (value != null) {
+            metrics[metric.ordinal()].add(value.doubleValue());
+        }
+    }
+
+    public long sessions() {
+        return sessions;
+    }
+
+    public MetricStats metric(Metric metric) {
+        return metrics[metric.ordinal()];
+    }
+
+    public void merge(GroupStats other) {
+        sessions += other.sessions;
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i].merge(other.metrics[i]);
+        }
+    }
+
+    public GroupStats copy() {
+        GroupStats copy = new GroupStats();
+        copy.sessions = sessions;
+        for (int i = 0; i < metrics.length; i++) {
+            copy.metrics[i] = metrics[i].copy();
+        }
+        return copy;
+    }
+}
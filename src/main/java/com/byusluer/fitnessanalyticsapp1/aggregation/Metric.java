@@ -0,0 +1,44 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+
+import java.util.function.Function;
+
+// Numeric columns of ActivitySession that are accumulated per group.
+
+public enum Metric {
+
+    AGE(ActivitySession::getAge, true),
+    WEIGHT_KG(ActivitySession::getWeightKg, false),
+    HEIGHT_M(ActivitySession::getHeightM, false),
+    MAX_BPM(ActivitySession::getMaxBpm, true),
+    AVG_BPM(ActivitySession::getAvgBpm, true),
+    RESTING_BPM(ActivitySession::getRestingBpm, true),
+    SESSION_DURATION_HOURS(ActivitySession::getSessionDurationHours, false),
+    CALORIES_BURNED(ActivitySession::getCaloriesBurned, true),
+    FAT_PERCENTAGE(ActivitySession::getFatPercentage, false),
+    WATER_INTAKE_LITERS(ActivitySession::getWaterIntakeLiters, false),
+    WORKOUT_FREQUENCY_PER_WEEK(ActivitySession::getWorkoutFrequencyPerWeek, true),
+    EXPERIENCE_LEVEL(ActivitySession::getExperienceLevel, false),
+    BMI(ActivitySession::getBmi, false);
+
+    public static final Metric[] VALUES = values();
+
+    private final Function<ActivitySession, ? extends Number> getter;
+    private final boolean integral;
+
+    Metric(Function<ActivitySession, ? extends Number> getter, boolean integral) {
+        this.getter = getter;
+        this.integral = integral;
+    }
+
+    // Integer fields of ActivitySession; the others are Double.
+
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    public Number read(ActivitySession session) {
+        return getter.apply(session);
+    }
+}
@@ -0,0 +1,109 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.sketch.FixedHistogram;
+import com.byusluer.fitnessanalyticsapp1.sketch.KllSketch;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Quantile sketch and fixed-bucket histogram of the distribution metrics
+// (average and max BPM, duration, calories) inside one group. Filled in the
+// aggregation pass and mergeable like GroupStats.
+
+public final class MetricDistributions {
+
+    public static final List<Metric> METRICS = List.of(
+            Metric.AVG_BPM, Metric.MAX_BPM, Metric.SESSION_DURATION_HOURS, Metric.CALORIES_BURNED);
+
+    // Histogram start, bucket width and bucket count, in METRICS order
+    private static final double[][] LAYOUTS = {
+            {40, 5, 36},     // 40-220 bpm
+            {40, 5, 36},     // 40-220 bpm
+            {0, 0.25, 16},   // 0-4 hours
+            {0, 100, 30}     // 0-3000 kcal
+    };
+
+    private static final int[] SLOTS = new int[Metric.VALUES.length];
+
+    static {
+        Arrays.fill(SLOTS, -1);
+        for (int i = 0; i < METRICS.size(); i++) {
+            SLOTS[METRICS.get(i).ordinal()] = i;
+        }
+    }
+
+    private final KllSketch[] sketches = new KllSketch[METRICS.size()];
+    private final FixedHistogram[] histograms = new FixedHistogram[METRICS.size()];
+
+    public MetricDistributions() {
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i] = new KllSketch();
+            histograms[i] = new FixedHistogram(LAYOUTS[i][0], LAYOUTS[i][1], (int) LAYOUTS[i][2]);
+        }
+    }
+
+    public static boolean tracks(Metric metric) {
+        return SLOTS[metric.ordinal()] >= 0;
+    }
+
+    public void add(ActivitySession session) {
+        add(0, session.getAvgBpm());
+        add(1, session.getMaxBpm());
+        add(2, session.getSessionDurationHours());
+        add(3, session.getCaloriesBurned());
+    }
+
+    public void add(SessionTable table, int row) {
+        for (int i = 0; i < sketches.length; i++) {
+            Metric metric = METRICS.get(i);
+            if (table.isPresent(metric, row)) {
+                add(i, table.getDouble(metric, row));
+            }
+        }
+    }
+
+    private void add(int slot, Number value) {
+        if (value != null) {
+            add(slot, value.doubleValue());
+        }
+    }
+
+    private void add(int slot, double value) {
+        sketches[slot].add(value);
+        histograms[slot].add(value);
+    }
+
+    public KllSketch sketch(Metric metric) {
+        return sketches[slot(metric)];
+    }
+
+    public FixedHistogram histogram(Metric metric) {
+        return histograms[slot(metric)];
+    }
+
+    public void merge(MetricDistributions other) {
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i].merge(other.sketches[i]);
+            histograms[i].merge(other.histograms[i]);
+        }
+    }
+
+    public MetricDistributions copy() {
+        MetricDistributions copy = new MetricDistributions();
+        for (int i = 0; i < sketches.length; i++) {
+            copy.sketches[i] = sketches[i].copy();
+            copy.histograms[i] = histograms[i].copy();
+        }
+        return copy;
+    }
+
+    private static int slot(Metric metric) {
+        int slot = SLOTS[metric.ordinal()];
+        if (slot < 0) {
+            throw new IllegalArgumentException("No distribution is kept for " + metric + "; use one of " + METRICS);
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,89 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+// Running sum / count / min / max of one metric inside one group.
+// The double sum uses the same compensated (Kahan) summation as
+// DoubleStream.sum() and Collectors.summingDouble/averagingDouble, so the
+// results are bit-for-bit identical to the stream based calculations.
+
+public final class MetricStats {
+
+    private double sum;
+    private double compensation;
+    private double simpleSum;
+    private long longSum;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        addCompensated(value);
+        simpleSum += value;
+        longSum += (long) value;
+        count++;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    // Folds other into this the way the Collectors combiners do: add the other
+    // sum, then subtract its compensation. The result depends on the order of
+    // the merges, so parallel callers must merge in a fixed order.
+
+    public void merge(MetricStats other) {
+        addCompensated(other.sum);
+        addCompensated(-other.compensation);
+        simpleSum += other.simpleSum;
+        longSum += other.longSum;
+        count += other.count;
+        if (other.min < min) min = other.min;
+        if (other.max > max) max = other.max;
+    }
+
+    private void addCompensated(double value) {
+        double tmp = value - compensation;
+        double velvel = sum + tmp;
+        compensation = (velvel - sum) - tmp;
+        sum = velvel;
+    }
+
+    public double sum() {
+        double tmp = sum - compensation;
+        if (Double.isNaN(tmp) && Double.isInfinite(simpleSum)) {
+            return simpleSum;
+        }
+        return tmp;
+    }
+
+    // Exact sum for integer columns (calories, bpm, age, ...)
+
+    public long longSum() {
+        return longSum;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double average() {
+        return count == 0 ? 0.0 : sum() / count;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public MetricStats copy() {
+        MetricStats copy = new MetricStats();
+        copy.sum = sum;
+        copy.compensation = compensation;
+        copy.simpleSum = simpleSum;
+        copy.longSum = longSum;
+        copy.count = count;
+        copy.min = min;
+        copy.max = max;
+        return copy;
+    }
+}
@@ -0,0 +1,180 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import java.util.Arrays;
+
+// Maps primitive int or double keys to dense indexes 0, 1, 2, ... in
+// first-appearance order, without boxing. Small non-negative integral keys
+// (experience level 1-3, weekly frequency 1-7) are looked up in a direct
+// array; anything else goes through an open-addressing table with linear
+// probing. Double keys are compared by bit pattern, like Double.equals.
+
+public final class NumericKeyIndex {
+
+    public static final int DENSE_KEYS = 64;
+
+    private final boolean doubleKeys;
+    private final int[] dense = new int[DENSE_KEYS]; // index + 1, 0 = absent
+    private int[] table = new int[16];               // index + 1, 0 = empty
+    private long[] keys = new long[8];               // key bits by index
+    private int size;
+
+    private NumericKeyIndex(boolean doubleKeys) {
+        this.doubleKeys = doubleKeys;
+    }
+
+    public static NumericKeyIndex forDoubles() {
+        return new NumericKeyIndex(true);
+    }
+
+    public static NumericKeyIndex forInts() {
+        return new NumericKeyIndex(false);
+    }
+
+    public int add(double key) {
+        return addBits(Double.doubleToLongBits(key));
+    }
+
+    public int add(int key) {
+        return addBits(key);
+    }
+
+    // Integral indexes also take long keys, e.g. packed composite keys
+    public int add(long key) {
+        return addBits(key);
+    }
+
+    // -1 when absent
+    public int indexOf(double key) {
+        return indexOfBits(Double.doubleToLongBits(key));
+    }
+
+    public int indexOf(int key) {
+        return indexOfBits(key);
+    }
+
+    public int indexOf(long key) {
+        return indexOfBits(key);
+    }
+
+    public double doubleKey(int index) {
+        return Double.longBitsToDouble(keys[index]);
+    }
+
+    public int intKey(int index) {
+        return (int) keys[index];
+    }
+
+    public long longKey(int index) {
+        return keys[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean hasDoubleKeys() {
+        return doubleKeys;
+    }
+
+    public NumericKeyIndex copy() {
+        NumericKeyIndex copy = new NumericKeyIndex(doubleKeys);
+        System.arraycopy(dense, 0, copy.dense, 0, DENSE_KEYS);
+        copy.table = table.clone();
+        copy.keys = keys.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    // Index of the key with these bits (doubleToLongBits or the int value),
+    // adding it if absent
+    int addBits(long bits) {
+        int denseKey = denseKey(bits);
+        if (denseKey >= 0) {
+            int index = dense[denseKey] - 1;
+            if (index < 0) {
+                index = append(bits);
+                dense[denseKey] = index + 1;
+            }
+            return index;
+        }
+        int mask = table.length - 1;
+        for (int slot = hash(bits) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                int index = append(bits);
+                table[slot] = index + 1;
+                if (2 * (size + 1) > table.length) {
+                    rehash();
+                }
+                return index;
+            }
+            if (keys[entry - 1] == bits) {
+                return entry - 1;
+            }
+        }
+    }
+
+    int indexOfBits(long bits) {
+        int denseKey = denseKey(bits);
+        if (denseKey >= 0) {
+            return dense[denseKey] - 1;
+        }
+        int mask = table.length - 1;
+        for (int slot = hash(bits) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (keys[entry - 1] == bits) {
+                return entry - 1;
+            }
+        }
+    }
+
+    long bits(int index) {
+        return keys[index];
+    }
+
+    // Slot in the direct array, or -1 when the key is not a small
+    // non-negative integer (for doubles: exactly 0.0, 1.0, 2.0, ...)
+    private int denseKey(long bits) {
+        if (doubleKeys) {
+            double key = Double.longBitsToDouble(bits);
+            int integral = (int) key;
+            return integral >= 0 && integral < DENSE_KEYS && Double.doubleToLongBits(integral) == bits
+                    ? integral : -1;
+        }
+        return bits >= 0 && bits < DENSE_KEYS ? (int) bits : -1;
+    }
+
+    private int append(long bits) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size] = bits;
+        return size++;
+    }
+
+    // Sparse keys only; dense ones never enter the table
+    private void rehash() {
+        int[] old = table;
+        table = new int[old.length * 2];
+        int mask = table.length - 1;
+        for (int entry : old) {
+            if (entry != 0) {
+                int slot = hash(keys[entry - 1]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = entry;
+            }
+        }
+    }
+
+    private static int hash(long bits) {
+        bits ^= bits >>> 33;
+        bits *= 0xff51afd7ed558ccdL;
+        bits ^= bits >>> 33;
+        return (int) bits;
+    }
+}
@@ -0,0 +1,112 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// Read-only Map view over a NumericKeyIndex and per-index values. Keys are
+// boxed and values computed only when read; indexes whose value is null are
+// not part of the map. Iteration follows first-appearance order. The view is
+// live: it reflects later additions to the underlying aggregate, so anything
+// handed out past the aggregate should be a snapshot().
+
+public final class NumericKeyMap<K, V> extends AbstractMap<K, V> {
+
+    private final NumericKeyIndex index;
+    private final IntFunction<V> valueAt;
+
+    NumericKeyMap(NumericKeyIndex index, IntFunction<V> valueAt) {
+        this.index = index;
+        this.valueAt = valueAt;
+    }
+
+    // Same keys, values transformed on read; a null result drops the key
+    public <R> NumericKeyMap<K, R> mapValues(Function<? super V, ? extends R> mapper) {
+        return new NumericKeyMap<>(index, i -> {
+            V value = valueAt.apply(i);
+            return value == null ? null : mapper.apply(value);
+        });
+    }
+
+    // The current entries, in iteration order, in a map that later additions
+    // to the aggregate don't change
+    public Map<K, V> snapshot() {
+        Map<K, V> copy = new LinkedHashMap<>();
+        for (int i = 0; i < index.size(); i++) {
+            V value = valueAt.apply(i);
+            if (value != null) copy.put(key(i), value);
+        }
+        return copy;
+    }
+
+    @Override
+    public V get(Object key) {
+        int i = indexOf(key);
+        return i < 0 ? null : valueAt.apply(i);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        int i = from;
+                        while (i < index.size() && valueAt.apply(i) == null) i++;
+                        return i;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < index.size();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int i = next;
+                        next = advance(i + 1);
+                        return new SimpleImmutableEntry<>(key(i), valueAt.apply(i));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (int i = 0; i < index.size(); i++) {
+                    if (valueAt.apply(i) != null) size++;
+                }
+                return size;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(int i) {
+        return (K) (index.hasDoubleKeys() ? (Object) index.doubleKey(i) : (Object) index.intKey(i));
+    }
+
+    private int indexOf(Object key) {
+        if (index.hasDoubleKeys()) {
+            return key instanceof Double d ? index.indexOf(d) : -1;
+        }
+        return key instanceof Integer n ? index.indexOf(n) : -1;
+    }
+}
@@ -0,0 +1,75 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Builds a SessionAggregate on a fork/join pool. The input is halved until a
+// range has at most leafSize rows; every leaf aggregates its range into its
+// own primitive accumulators, and on the way back up every right half is
+// merged into its left half.
+//
+// The split points depend only on the input size and leafSize, never on the
+// pool or on scheduling, so the floating-point sums are the same on every run
+// and for any number of threads. They can differ in the last bits from the
+// sequential aggregate, which adds the same values in a different order.
+
+public final class ParallelAggregator {
+
+    private final ForkJoinPool pool;
+    private final int leafSize;
+
+    public ParallelAggregator(ForkJoinPool pool, int leafSize) {
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("leafSize must be positive: " + leafSize);
+        }
+        this.pool = pool;
+        this.leafSize = leafSize;
+    }
+
+    // sessions should be RandomAccess; every leaf works on a subList view.
+
+    public SessionAggregate aggregate(List<ActivitySession> sessions) {
+        return pool.invoke(new RangeTask(0, sessions.size(),
+                (from, to) -> SessionAggregate.of(sessions.subList(from, to))));
+    }
+
+    public SessionAggregate aggregate(SessionTable table) {
+        return pool.invoke(new RangeTask(0, table.size(), (from, to) -> SessionAggregate.of(table, from, to)));
+    }
+
+    @FunctionalInterface
+    private interface RangeAggregation {
+        SessionAggregate apply(int from, int to);
+    }
+
+    private final class RangeTask extends RecursiveTask<SessionAggregate> {
+
+        private final int from;
+        private final int to;
+        private final RangeAggregation leaf;
+
+        RangeTask(int from, int to, RangeAggregation leaf) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected SessionAggregate compute() {
+            if (to - from <= leafSize) {
+                return leaf.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask left = new RangeTask(from, middle, leaf);
+            left.fork();
+            SessionAggregate right = new RangeTask(middle, to, leaf).compute();
+            SessionAggregate result = left.join();
+            result.merge(right);
+            return result;
+        }
+    }
+}
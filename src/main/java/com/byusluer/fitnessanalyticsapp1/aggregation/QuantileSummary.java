@@ -0,0 +1,15 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import com.byusluer.fitnessanalyticsapp1.sketch.KllSketch;
+
+// Percentiles of one metric in one group. rankError is the typical
+// normalized rank error of p50/p90/p99 (0 when they are exact).
+
+public record QuantileSummary(long count, double min, double p50, double p90, double p99, double max,
+                              double rankError) {
+
+    public static QuantileSummary of(KllSketch sketch) {
+        return new QuantileSummary(sketch.count(), sketch.min(), sketch.quantile(0.5), sketch.quantile(0.9),
+                sketch.quantile(0.99), sketch.max(), sketch.normalizedRankError());
+    }
+}
@@ -0,0 +1,59 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+
+// Row-at-a-time kernels; also the tail loop of the vector kernels.
+
+final class ScalarColumnKernels implements ColumnKernels {
+
+    static final ScalarColumnKernels INSTANCE = new ScalarColumnKernels();
+
+    private ScalarColumnKernels() {
+    }
+
+    @Override
+    public ColumnStats stats(SessionTable table, Metric metric) {
+        return stats(table, metric, 0, table.size());
+    }
+
+    @Override
+    public long countGreaterThan(SessionTable table, Metric metric, double threshold) {
+        return countGreaterThan(table, metric, threshold, 0, table.size());
+    }
+
+    // Rows [from, to)
+    static ColumnStats stats(SessionTable table, Metric metric, int from, int to) {
+        MetricStats stats = new MetricStats();
+        long[] valid = table.validity(metric);
+        if (metric.isIntegral()) {
+            int[] values = table.intColumn(metric);
+            for (int row = from; row < to; row++) {
+                if ((valid[row >>> 6] & (1L << row)) != 0) stats.add(values[row]);
+            }
+        } else {
+            double[] values = table.doubleColumn(metric);
+            for (int row = from; row < to; row++) {
+                if ((valid[row >>> 6] & (1L << row)) != 0) stats.add(values[row]);
+            }
+        }
+        return new ColumnStats(stats.count(), metric.isIntegral() ? stats.longSum() : stats.sum(),
+                metric.isIntegral() ? stats.longSum() : 0, stats.min(), stats.max());
+    }
+
+    static long countGreaterThan(SessionTable table, Metric metric, double threshold, int from, int to) {
+        long[] valid = table.validity(metric);
+        long count = 0;
+        if (metric.isIntegral()) {
+            int[] values = table.intColumn(metric);
+            for (int row = from; row < to; row++) {
+                if ((valid[row >>> 6] & (1L << row)) != 0 && values[row] > threshold) count++;
+            }
+        } else {
+            double[] values = table.doubleColumn(metric);
+            for (int row = from; row < to; row++) {
+                if ((valid[row >>> 6] & (1L << row)) != 0 && values[row] > threshold) count++;
+            }
+        }
+        return count;
+    }
+}
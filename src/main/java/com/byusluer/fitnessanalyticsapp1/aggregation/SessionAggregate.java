@@ -0,0 +1,373 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.StringDictionary;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+// Result of a single pass over the sessions. Every FitnessAnalyticsService
+// metric is a view over the groups collected here. Workout type and experience
+// level groups also keep MetricDistributions for quantiles and histograms.
+// Experience level and weekly frequency groups are keyed by primitives in a
+// NumericKeyIndex; their Map getters are read-only views.
+
+@Getter
+public final class SessionAggregate {
+
+    public static final int HIGH_CALORIE_THRESHOLD = 500;
+
+    private final GroupStats overall;
+    private final Map<String, GroupStats> byWorkoutType = new HashMap<>();
+    private final Map<String, GroupStats> byGender = new HashMap<>();
+    private final Map<String, MetricDistributions> distributionsByWorkoutType = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final NumericGroups levels;
+    @Getter(AccessLevel.NONE)
+    private final NumericGroups frequencies;
+
+    private ActivitySession longestSession;
+    private long highCalorieSessions;
+
+    public SessionAggregate() {
+        this(new GroupStats(), new NumericGroups(NumericKeyIndex.forDoubles(), true),
+                new NumericGroups(NumericKeyIndex.forInts(), false));
+    }
+
+    private SessionAggregate(GroupStats overall, NumericGroups levels, NumericGroups frequencies) {
+        this.overall = overall;
+        this.levels = levels;
+        this.frequencies = frequencies;
+    }
+
+    public NumericKeyMap<Double, GroupStats> getByExperienceLevel() {
+        return new NumericKeyMap<>(levels.index, i -> levels.groups[i]);
+    }
+
+    public NumericKeyMap<Integer, GroupStats> getByWorkoutFrequency() {
+        return new NumericKeyMap<>(frequencies.index, i -> frequencies.groups[i]);
+    }
+
+    public NumericKeyMap<Double, MetricDistributions> getDistributionsByExperienceLevel() {
+        return new NumericKeyMap<>(levels.index, i -> levels.distributions[i]);
+    }
+
+    public NumericKeyMap<Double, ActivitySession> getLongestSessionByExperienceLevel() {
+        return new NumericKeyMap<>(levels.index, i -> levels.longest[i]);
+    }
+
+    public static SessionAggregate of(Collection<ActivitySession> sessions) {
+        SessionAggregate aggregate = new SessionAggregate();
+        for (ActivitySession session : sessions) {
+            aggregate.add(session);
+        }
+        return aggregate;
+    }
+
+    // Same result as of(table.toSessions()), without materializing rows: groups
+    // are dense arrays indexed by dictionary code and the loop does not allocate
+    // once every group has been seen.
+
+    public static SessionAggregate of(SessionTable table) {
+        return of(table, 0, table.size());
+    }
+
+    // Aggregate of the rows [from, to) of the table.
+
+    public static SessionAggregate of(SessionTable table, int from, int to) {
+        return of(table, from, to, null);
+    }
+
+    // Aggregate of the rows the filter accepts, read straight from the columns
+
+    public static SessionAggregate of(SessionTable table, IntPredicate rows) {
+        return of(table, 0, table.size(), rows);
+    }
+
+    private static SessionAggregate of(SessionTable table, int from, int to, IntPredicate rows) {
+        SessionAggregate aggregate = new SessionAggregate();
+        GroupStats[] types = new GroupStats[table.workoutTypes().size()];
+        MetricDistributions[] typeDistributions = new MetricDistributions[types.length];
+        GroupStats[] genders = new GroupStats[table.genders().size()];
+        NumericGroups levels = aggregate.levels;
+        NumericGroups frequencies = aggregate.frequencies;
+        int[] longestLevelRows = new int[0];
+        int longestRow = -1;
+
+        int[] calories = table.intColumn(Metric.CALORIES_BURNED);
+        double[] durations = table.doubleColumn(Metric.SESSION_DURATION_HOURS);
+        double[] experienceLevels = table.doubleColumn(Metric.EXPERIENCE_LEVEL);
+        int[] weeklyFrequencies = table.intColumn(Metric.WORKOUT_FREQUENCY_PER_WEEK);
+
+        for (int row = from; row < to; row++) {
+            if (rows != null && !rows.test(row)) {
+                continue;
+            }
+            aggregate.overall.add(table, row);
+
+            int type = table.workoutTypeCode(row);
+            int gender = table.genderCode(row);
+            boolean hasDuration = table.isPresent(Metric.SESSION_DURATION_HOURS, row);
+
+            if (type != StringDictionary.NULL_CODE) {
+                if (types[type] == null) {
+                    types[type] = new GroupStats();
+                    typeDistributions[type] = new MetricDistributions();
+                }
+                types[type].add(table, row);
+                typeDistributions[type].add(table, row);
+                if (hasDuration && (longestRow < 0
+                        || Double.compare(durations[row], durations[longestRow]) > 0)) {
+                    longestRow = row;
+                }
+            }
+            if (gender != StringDictionary.NULL_CODE) {
+                if (genders[gender] == null) genders[gender] = new GroupStats();
+                genders[gender].add(table, row);
+            }
+            if (table.isPresent(Metric.EXPERIENCE_LEVEL, row)) {
+                int level = levels.add(experienceLevels[row]);
+                levels.groups[level].add(table, row);
+                levels.distributions[level].add(table, row);
+                if (level == longestLevelRows.length) {
+                    longestLevelRows = Arrays.copyOf(longestLevelRows, level + 1);
+                    longestLevelRows[level] = -1;
+                }
+                if (hasDuration) {
+                    int current = longestLevelRows[level];
+                    if (current < 0 || Double.compare(durations[row], durations[current]) > 0) {
+                        longestLevelRows[level] = row;
+                    }
+                }
+            }
+            if (table.isPresent(Metric.WORKOUT_FREQUENCY_PER_WEEK, row)) {
+                frequencies.groups[frequencies.add(weeklyFrequencies[row])].add(table, row);
+            }
+            if (table.isPresent(Metric.CALORIES_BURNED, row) && calories[row] > HIGH_CALORIE_THRESHOLD) {
+                aggregate.highCalorieSessions++;
+            }
+        }
+
+        // Codes are assigned in first-appearance order, so the maps are filled
+        // in the same order as the row-at-a-time path.
+        for (int code = 0; code < types.length; code++) {
+            if (types[code] != null) {
+                String type = table.workoutTypes().decode(code);
+                aggregate.byWorkoutType.put(type, types[code]);
+                aggregate.distributionsByWorkoutType.put(type, typeDistributions[code]);
+            }
+        }
+        for (int code = 0; code < genders.length; code++) {
+            if (genders[code] != null) aggregate.byGender.put(table.genders().decode(code), genders[code]);
+        }
+        for (int i = 0; i < longestLevelRows.length; i++) {
+            if (longestLevelRows[i] >= 0) {
+                levels.longest[i] = table.toSession(longestLevelRows[i]);
+            }
+        }
+        if (longestRow >= 0) {
+            aggregate.longestSession = table.toSession(longestRow);
+        }
+        return aggregate;
+    }
+
+    // Independent copy, O(groups). Sessions are shared, not cloned.
+
+    public SessionAggregate copy() {
+        SessionAggregate copy = new SessionAggregate(overall.copy(), levels.copy(), frequencies.copy());
+        copyGroups(byWorkoutType, copy.byWorkoutType);
+        copyGroups(byGender, copy.byGender);
+        distributionsByWorkoutType.forEach((key, d) -> copy.distributionsByWorkoutType.put(key, d.copy()));
+        copy.longestSession = longestSession;
+        copy.highCalorieSessions = highCalorieSessions;
+        return copy;
+    }
+
+    // Folds an aggregate of the sessions that come after this one's into this,
+    // so that the result is the aggregate of both ranges in order: keys new to
+    // this are inserted after the existing ones and ties keep this side's
+    // session. Groups of other may be adopted, so other must not be used
+    // afterwards.
+
+    public void merge(SessionAggregate other) {
+        overall.merge(other.overall);
+        mergeGroups(other.byWorkoutType, byWorkoutType);
+        mergeGroups(other.byGender, byGender);
+        mergeDistributions(other.distributionsByWorkoutType, distributionsByWorkoutType);
+        levels.merge(other.levels);
+        frequencies.merge(other.frequencies);
+        if (other.longestSession != null && (longestSession == null || Double.compare(
+                other.longestSession.getSessionDurationHours(), longestSession.getSessionDurationHours()) > 0)) {
+            longestSession = other.longestSession;
+        }
+        highCalorieSessions += other.highCalorieSessions;
+    }
+
+    private static <K> void mergeGroups(Map<K, GroupStats> from, Map<K, GroupStats> to) {
+        from.forEach((key, stats) -> {
+            GroupStats current = to.putIfAbsent(key, stats);
+            if (current != null) {
+                current.merge(stats);
+            }
+        });
+    }
+
+    private static <K> void mergeDistributions(Map<K, MetricDistributions> from, Map<K, MetricDistributions> to) {
+        from.forEach((key, distributions) -> {
+            MetricDistributions current = to.putIfAbsent(key, distributions);
+            if (current != null) {
+                current.merge(distributions);
+            }
+        });
+    }
+
+    private static <K> void copyGroups(Map<K, GroupStats> from, Map<K, GroupStats> to) {
+        from.forEach((key, stats) -> to.put(key, stats.copy()));
+    }
+
+    public void add(ActivitySession session) {
+        overall.add(session);
+
+        String workoutType = session.getWorkoutType();
+        String gender = session.getGender();
+        Double experienceLevel = session.getExperienceLevel();
+        Integer frequency = session.getWorkoutFrequencyPerWeek();
+        Double duration = session.getSessionDurationHours();
+        Integer calories = session.getCaloriesBurned();
+
+        if (workoutType != null) {
+            byWorkoutType.computeIfAbsent(workoutType, k -> new GroupStats()).add(session);
+            distributionsByWorkoutType.computeIfAbsent(workoutType, k -> new MetricDistributions()).add(session);
+        }
+        if (gender != null) {
+            byGender.computeIfAbsent(gender, k -> new GroupStats()).add(session);
+        }
+        int level = -1;
+        if (experienceLevel != null) {
+            level = levels.add(experienceLevel);
+            levels.groups[level].add(session);
+            levels.distributions[level].add(session);
+        }
+        if (frequency != null) {
+            frequencies.groups[frequencies.add(frequency)].add(session);
+        }
+
+        // Ties keep the first session, like Stream.max / Collectors.maxBy
+        if (duration != null) {
+            if (workoutType != null && (longestSession == null
+                    || Double.compare(duration, longestSession.getSessionDurationHours()) > 0)) {
+                longestSession = session;
+            }
+            if (level >= 0) {
+                levels.offerLongest(level, session);
+            }
+        }
+
+        if (calories != null && calories > HIGH_CALORIE_THRESHOLD) {
+            highCalorieSessions++;
+        }
+    }
+
+    // Groups keyed by experience level or weekly frequency, parallel arrays
+    // indexed by the NumericKeyIndex. Distributions and longest sessions are
+    // only kept for experience levels.
+
+    private static final class NumericGroups {
+
+        final NumericKeyIndex index;
+        GroupStats[] groups = new GroupStats[8];
+        MetricDistributions[] distributions;
+        ActivitySession[] longest;
+
+        NumericGroups(NumericKeyIndex index, boolean withDistributions) {
+            this.index = index;
+            if (withDistributions) {
+                distributions = new MetricDistributions[8];
+                longest = new ActivitySession[8];
+            }
+        }
+
+        int add(double key) {
+            return slot(index.add(key));
+        }
+
+        int add(int key) {
+            return slot(index.add(key));
+        }
+
+        // Ties keep the current session
+        void offerLongest(int i, ActivitySession session) {
+            ActivitySession current = longest[i];
+            if (current == null || Double.compare(session.getSessionDurationHours(),
+                    current.getSessionDurationHours()) > 0) {
+                longest[i] = session;
+            }
+        }
+
+        NumericGroups copy() {
+            NumericGroups copy = new NumericGroups(index.copy(), distributions != null);
+            copy.groups = new GroupStats[groups.length];
+            for (int i = 0; i < index.size(); i++) {
+                copy.groups[i] = groups[i].copy();
+            }
+            if (distributions != null) {
+                copy.distributions = new MetricDistributions[distributions.length];
+                for (int i = 0; i < index.size(); i++) {
+                    copy.distributions[i] = distributions[i].copy();
+                }
+                copy.longest = longest.clone();
+            }
+            return copy;
+        }
+
+        // Keys new to this are appended in other's order; other's groups are adopted
+        void merge(NumericGroups other) {
+            for (int j = 0; j < other.index.size(); j++) {
+                int before = index.size();
+                int i = index.addBits(other.index.bits(j));
+                if (i == before) {
+                    grow(i);
+                    groups[i] = other.groups[j];
+                    if (distributions != null) {
+                        distributions[i] = other.distributions[j];
+                        longest[i] = other.longest[j];
+                    }
+                    continue;
+                }
+                groups[i].merge(other.groups[j]);
+                if (distributions != null) {
+                    distributions[i].merge(other.distributions[j]);
+                    if (other.longest[j] != null) {
+                        offerLongest(i, other.longest[j]);
+                    }
+                }
+            }
+        }
+
+        // Creates the groups of index i when it is new
+        private int slot(int i) {
+            grow(i);
+            if (groups[i] == null) {
+                groups[i] = new GroupStats();
+                if (distributions != null) distributions[i] = new MetricDistributions();
+            }
+            return i;
+        }
+
+        private void grow(int i) {
+            if (i == groups.length) {
+                groups = Arrays.copyOf(groups, i * 2);
+                if (distributions != null) {
+                    distributions = Arrays.copyOf(distributions, i * 2);
+                    longest = Arrays.copyOf(longest, i * 2);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD kernels on the preferred vector shape. The null mask of a vector
+// comes straight from the validity bitmap: lane counts are powers of two of
+// at most 64, so the lanes of a vector always sit in one bitmap word. The
+// rows after the last full vector go through the scalar loop.
+//
+// Only loaded when jdk.incubator.vector is present; see
+// ColumnKernels.vectorizedIfAvailable.
+
+final class VectorColumnKernels implements ColumnKernels {
+
+    static final VectorColumnKernels INSTANCE = new VectorColumnKernels();
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorColumnKernels() {
+    }
+
+    @Override
+    public ColumnStats stats(SessionTable table, Metric metric) {
+        return metric.isIntegral() ? intStats(table, metric) : doubleStats(table, metric);
+    }
+
+    @Override
+    public long countGreaterThan(SessionTable table, Metric metric, double threshold) {
+        long[] valid = table.validity(metric);
+        int size = table.size();
+        long count = 0;
+        int row = 0;
+        if (metric.isIntegral()) {
+            // For ints, v > threshold is v > floor(threshold)
+            if (Double.isNaN(threshold) || threshold >= Integer.MAX_VALUE) return 0;
+            if (threshold < Integer.MIN_VALUE) return stats(table, metric).count();
+            int bound = (int) Math.floor(threshold);
+            int[] values = table.intColumn(metric);
+            for (int upper = INTS.loopBound(size); row < upper; row += INTS.length()) {
+                VectorMask<Integer> present = VectorMask.fromLong(INTS, valid[row >>> 6] >>> (row & 63));
+                count += IntVector.fromArray(INTS, values, row).compare(VectorOperators.GT, bound)
+                        .and(present).trueCount();
+            }
+        } else {
+            double[] values = table.doubleColumn(metric);
+            for (int upper = DOUBLES.loopBound(size); row < upper; row += DOUBLES.length()) {
+                VectorMask<Double> present = VectorMask.fromLong(DOUBLES, valid[row >>> 6] >>> (row & 63));
+                count += DoubleVector.fromArray(DOUBLES, values, row).compare(VectorOperators.GT, threshold)
+                        .and(present).trueCount();
+            }
+        }
+        return count + ScalarColumnKernels.countGreaterThan(table, metric, threshold, row, size);
+    }
+
+    // Sums are widened to long lanes so they cannot overflow
+    private static ColumnStats intStats(SessionTable table, Metric metric) {
+        int[] values = table.intColumn(metric);
+        long[] valid = table.validity(metric);
+        int size = table.size();
+        IntVector zero = IntVector.zero(INTS);
+        IntVector min = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        IntVector max = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        LongVector sum = LongVector.zero(LONGS);
+        long count = 0;
+
+        int row = 0;
+        for (int upper = INTS.loopBound(size); row < upper; row += INTS.length()) {
+            VectorMask<Integer> present = VectorMask.fromLong(INTS, valid[row >>> 6] >>> (row & 63));
+            IntVector v = IntVector.fromArray(INTS, values, row);
+            IntVector masked = zero.blend(v, present);
+            sum = sum.add((LongVector) masked.convertShape(VectorOperators.I2L, LONGS, 0))
+                    .add((LongVector) masked.convertShape(VectorOperators.I2L, LONGS, 1));
+            min = min.lanewise(VectorOperators.MIN, v, present);
+            max = max.lanewise(VectorOperators.MAX, v, present);
+            count += present.trueCount();
+        }
+
+        ColumnStats tail = ScalarColumnKernels.stats(table, metric, row, size);
+        count += tail.count();
+        if (count == 0) {
+            return tail;
+        }
+        long longSum = sum.reduceLanes(VectorOperators.ADD) + tail.longSum();
+        return new ColumnStats(count, longSum, longSum,
+                Math.min(min.reduceLanes(VectorOperators.MIN), tail.min()),
+                Math.max(max.reduceLanes(VectorOperators.MAX), tail.max()));
+    }
+
+    // One Kahan sum per lane; the lanes are then combined the way
+    // MetricStats.merge combines partial sums.
+    private static ColumnStats doubleStats(SessionTable table, Metric metric) {
+        double[] values = table.doubleColumn(metric);
+        long[] valid = table.validity(metric);
+        int size = table.size();
+        DoubleVector zero = DoubleVector.zero(DOUBLES);
+        DoubleVector sum = zero;
+        DoubleVector compensation = zero;
+        DoubleVector min = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        DoubleVector max = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        long count = 0;
+
+        int row = 0;
+        for (int upper = DOUBLES.loopBound(size); row < upper; row += DOUBLES.length()) {
+            VectorMask<Double> present = VectorMask.fromLong(DOUBLES, valid[row >>> 6] >>> (row & 63));
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, values, row);
+            DoubleVector y = zero.blend(v, present).sub(compensation);
+            DoubleVector t = sum.add(y);
+            compensation = t.sub(sum).sub(y);
+            sum = t;
+            min = min.lanewise(VectorOperators.MIN, v, present);
+            max = max.lanewise(VectorOperators.MAX, v, present);
+            count += present.trueCount();
+        }
+
+        CompensatedSum total = new CompensatedSum();
+        for (int lane = 0; lane < DOUBLES.length(); lane++) {
+            total.add(sum.lane(lane));
+            total.add(-compensation.lane(lane));
+        }
+        double minValue = min.reduceLanes(VectorOperators.MIN);
+        double maxValue = max.reduceLanes(VectorOperators.MAX);
+        for (; row < size; row++) {
+            if ((valid[row >>> 6] & (1L << row)) != 0) {
+                double value = values[row];
+                total.add(value);
+                if (value < minValue) minValue = value;
+                if (value > maxValue) maxValue = value;
+                count++;
+            }
+        }
+        return new ColumnStats(count, total.value(), 0, minValue, maxValue);
+    }
+
+    private static final class CompensatedSum {
+
+        private double sum;
+        private double compensation;
+
+        void add(double value) {
+            double y = value - compensation;
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+        }
+
+        double value() {
+            return sum - compensation;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.byusluer.fitnessanalyticsapp1.cache;
+
+import lombok.Value;
+
+@Value
+public class CacheStats {
+
+    long hits;
+    long misses;
+    long evictions;
+    int size;
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
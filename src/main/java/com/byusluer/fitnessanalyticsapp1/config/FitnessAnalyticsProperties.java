@@ -0,0 +1,141 @@
+package com.byusluer.fitnessanalyticsapp1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "fitness.analytics")
+public class FitnessAnalyticsProperties {
+
+    private Loader loader = new Loader();
+    private Cache cache = new Cache();
+    private Aggregation aggregation = new Aggregation();
+    private Snapshot snapshot = new Snapshot();
+    private Sketch sketch = new Sketch();
+    private Metrics metrics = new Metrics();
+    private Watch watch = new Watch();
+    private Ingest ingest = new Ingest();
+
+    @Data
+    public static class Loader {
+
+        // CSV file on disk to load at startup instead of the bundled classpath resource
+        private Path path;
+
+        // Parser threads for file loads
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        // Target size of the memory-mapped chunks a file is split into
+        private long chunkSizeBytes = 64L * 1024 * 1024;
+    }
+
+    @Data
+    public static class Cache {
+
+        // Query results kept by the REST API before least-recently-used eviction
+        private int maxEntries = 1000;
+
+        // How long a cached query result stays valid
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Aggregation {
+
+        // Aggregate large inputs on a fork/join pool instead of the calling thread
+        private boolean parallel = false;
+
+        // Inputs with fewer rows than this are always aggregated sequentially
+        private int parallelThreshold = 100_000;
+
+        // Rows per fork/join leaf. Fixed rather than derived from the thread
+        // count so that results do not depend on the machine.
+        private int leafSize = 16_384;
+
+        // Worker threads of the aggregation fork/join pool
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        // Use the Vector API for single-column reductions over a SessionTable
+        // when the JVM runs with --add-modules jdk.incubator.vector
+        private boolean vectorKernels = true;
+    }
+
+    @Data
+    public static class Snapshot {
+
+        // Keep a binary snapshot of a loaded CSV file and load from it while
+        // the file is unchanged
+        private boolean enabled = true;
+
+        // Where snapshots are written; next to the CSV file when not set
+        private Path directory;
+    }
+
+    @Data
+    public static class Sketch {
+
+        // Keys tracked exactly by each heavy-hitter summary; bounds the top-K
+        // memory regardless of how many distinct keys the stream has
+        private int capacity = 64;
+
+        // Count-Min overcount as a fraction of all counted sessions
+        private double epsilon = 0.001;
+
+        // Probability that a Count-Min estimate exceeds the epsilon bound
+        private double delta = 0.01;
+    }
+
+    @Data
+    public static class Metrics {
+
+        // Time every FitnessAnalyticsService call and publish it to Micrometer
+        private boolean enabled = true;
+
+        // Also record the bytes the calling thread allocated during each call
+        private boolean allocationTracking = true;
+
+        // Publish histogram buckets with the timers so percentiles can be
+        // aggregated across instances
+        private boolean percentileHistograms = true;
+    }
+
+    @Data
+    public static class Watch {
+
+        // Reload the dataset whenever a CSV file in the directory is created
+        // or changed
+        private boolean enabled = false;
+
+        // Directory to watch; the directory of loader.path when not set
+        private Path directory;
+
+        // File names that trigger a reload
+        private String glob = "*.csv";
+
+        // Quiet period after the last change of a file before it is loaded,
+        // so a file that is still being written is not parsed half-way
+        private Duration debounce = Duration.ofMillis(500);
+    }
+
+    @Data
+    public static class Ingest {
+
+        // Records that may wait for the ingestion worker; further batches are
+        // refused until it catches up
+        private int queueCapacity = 100_000;
+
+        // How long a batch may wait for queue space before it is refused;
+        // zero refuses it at once
+        private Duration blockTimeout = Duration.ZERO;
+
+        // Most records the worker folds into the dataset at once
+        private int batchRecords = 10_000;
+
+        // How long the worker waits for more records once it has some, so
+        // small batches arriving close together are folded together
+        private Duration linger = Duration.ofMillis(50);
+    }
+}
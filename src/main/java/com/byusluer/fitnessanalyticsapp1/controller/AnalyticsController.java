@@ -0,0 +1,215 @@
+package com.byusluer.fitnessanalyticsapp1.controller;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.aggregation.QuantileSummary;
+import com.byusluer.fitnessanalyticsapp1.cache.CacheStats;
+import com.byusluer.fitnessanalyticsapp1.cube.CubeCell;
+import com.byusluer.fitnessanalyticsapp1.cube.Dimension;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.model.AnalyticsFilter;
+import com.byusluer.fitnessanalyticsapp1.model.CubeQuery;
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+import com.byusluer.fitnessanalyticsapp1.query.QueryParser;
+import com.byusluer.fitnessanalyticsapp1.query.QueryResult;
+import com.byusluer.fitnessanalyticsapp1.query.SessionQuery;
+import com.byusluer.fitnessanalyticsapp1.report.AnalyticsReport;
+import com.byusluer.fitnessanalyticsapp1.report.ReportRenderer;
+import com.byusluer.fitnessanalyticsapp1.service.AnalyticsQueryService;
+import com.byusluer.fitnessanalyticsapp1.service.DatasetService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.sketch.FixedHistogram;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+// Every FitnessAnalyticsService metric over the current dataset. All metric
+// endpoints accept the optional filters workoutType, gender, minAge and maxAge.
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsQueryService queries;
+    private final FitnessAnalyticsService analytics;
+    private final DatasetService datasetService;
+
+    @GetMapping("/total-calories")
+    public Integer totalCalories(AnalyticsFilter filter) {
+        return queries.query("total-calories", filter, analytics::getTotalCalories);
+    }
+
+    @GetMapping("/average-calories")
+    public Double averageCalories(AnalyticsFilter filter) {
+        return queries.query("average-calories", filter, analytics::getAverageCaloriesBurned);
+    }
+
+    @GetMapping("/calories-by-workout-type")
+    public Map<String, Integer> caloriesByWorkoutType(AnalyticsFilter filter) {
+        return queries.query("calories-by-workout-type", filter, analytics::getTotalCaloriesByWoType);
+    }
+
+    @GetMapping("/top-workout-types")
+    public List<String> topWorkoutTypes(AnalyticsFilter filter) {
+        return queries.query("top-workout-types", filter, analytics::getTopWoTypes);
+    }
+
+    @GetMapping("/total-duration")
+    public Double totalDuration(AnalyticsFilter filter) {
+        return queries.query("total-duration", filter, analytics::calculateTotalWoDuration);
+    }
+
+    @GetMapping("/average-duration")
+    public Double averageDuration(AnalyticsFilter filter) {
+        return queries.query("average-duration", filter, analytics::getAverageWoDuration);
+    }
+
+    @GetMapping("/average-duration-by-workout-type")
+    public Map<String, Double> averageDurationByWorkoutType(AnalyticsFilter filter) {
+        return queries.query("average-duration-by-workout-type", filter, analytics::getAveWoDurationByType);
+    }
+
+    @GetMapping("/most-frequent-workout")
+    public Map<String, Long> mostFrequentWorkout(AnalyticsFilter filter) {
+        return queries.query("most-frequent-workout", filter, analytics::getMostFrequentWo);
+    }
+
+    @GetMapping("/workout-frequency")
+    public Map<Integer, Long> workoutFrequency(AnalyticsFilter filter) {
+        return queries.query("workout-frequency", filter, analytics::getWorkOutFrequency);
+    }
+
+    @GetMapping("/max-total-duration-workout-type")
+    public Map<String, Double> maxTotalDurationWorkoutType(AnalyticsFilter filter) {
+        return queries.query("max-total-duration-workout-type", filter, analytics::getWorkoutTypeWithMaxTotalDuration);
+    }
+
+    @GetMapping("/longest-session")
+    public Map<String, Double> longestSession(AnalyticsFilter filter) {
+        return queries.query("longest-session", filter, analytics::getLongestWoSession);
+    }
+
+    @GetMapping("/water-intake-by-workout-type")
+    public Map<String, Double> waterIntakeByWorkoutType(AnalyticsFilter filter) {
+        return queries.query("water-intake-by-workout-type", filter, analytics::getTotalWaterIntakeByWoType);
+    }
+
+    @GetMapping("/calories-by-gender")
+    public Map<String, Double> caloriesByGender(AnalyticsFilter filter) {
+        return queries.query("calories-by-gender", filter, analytics::getTotalCaloriesByGender);
+    }
+
+    @GetMapping("/fat-percentage-by-experience")
+    public Map<Double, Double> fatPercentageByExperience(AnalyticsFilter filter) {
+        return queries.query("fat-percentage-by-experience", filter, analytics::getAverageFatPercentageByExperience);
+    }
+
+    @GetMapping("/bmi-by-workout-type")
+    public Map<String, Double> bmiByWorkoutType(AnalyticsFilter filter) {
+        return queries.query("bmi-by-workout-type", filter, analytics::getAverageBMIbyWoType);
+    }
+
+    @GetMapping("/high-calorie-sessions")
+    public Long highCalorieSessions(AnalyticsFilter filter) {
+        return queries.query("high-calorie-sessions", filter, analytics::getCaloriesBurned);
+    }
+
+    @GetMapping("/sessions-by-experience")
+    public Map<Double, Long> sessionsByExperience(AnalyticsFilter filter) {
+        return queries.query("sessions-by-experience", filter, analytics::getExperienceLevelPerSession);
+    }
+
+    @GetMapping("/longest-session-by-experience")
+    public Map<Double, ActivitySession> longestSessionByExperience(AnalyticsFilter filter) {
+        return queries.query("longest-session-by-experience", filter, analytics::getMaxDurationPerExpLevel);
+    }
+
+    // Distributions of AVG_BPM, MAX_BPM, SESSION_DURATION_HOURS or CALORIES_BURNED
+
+    @GetMapping("/quantiles-by-workout-type")
+    public Map<String, QuantileSummary> quantilesByWorkoutType(@RequestParam Metric metric, AnalyticsFilter filter) {
+        return queries.query("quantiles-by-workout-type:" + metric, filter,
+                aggregate -> analytics.getQuantilesByWoType(aggregate, metric));
+    }
+
+    @GetMapping("/quantiles-by-experience")
+    public Map<Double, QuantileSummary> quantilesByExperience(@RequestParam Metric metric, AnalyticsFilter filter) {
+        return queries.query("quantiles-by-experience:" + metric, filter,
+                aggregate -> analytics.getQuantilesByExperience(aggregate, metric));
+    }
+
+    @GetMapping("/histogram-by-workout-type")
+    public Map<String, List<FixedHistogram.Bucket>> histogramByWorkoutType(@RequestParam Metric metric,
+                                                                           AnalyticsFilter filter) {
+        return queries.query("histogram-by-workout-type:" + metric, filter,
+                aggregate -> analytics.getHistogramByWoType(aggregate, metric));
+    }
+
+    @GetMapping("/histogram-by-experience")
+    public Map<Double, List<FixedHistogram.Bucket>> histogramByExperience(@RequestParam Metric metric,
+                                                                          AnalyticsFilter filter) {
+        return queries.query("histogram-by-experience:" + metric, filter,
+                aggregate -> analytics.getHistogramByExperience(aggregate, metric));
+    }
+
+    // Any combination of dimensions from the precomputed cube, e.g.
+    // /cube?metric=CALORIES_BURNED&groupBy=WORKOUT_TYPE,GENDER&ageBand=30-39
+
+    @GetMapping("/cube")
+    public List<CubeCell> cube(@RequestParam Metric metric, CubeQuery query) {
+        return query.apply(datasetService.current().getCube()).cells(metric);
+    }
+
+    // Filter, group and aggregate in one request, e.g.
+    // /query?where=avgBpm > 160 and gender = Female&groupBy=WORKOUT_TYPE&select=count,avg(caloriesBurned)
+    // (see QueryParser for the syntax)
+
+    @GetMapping("/query")
+    public QueryResult query(@RequestParam(required = false) String where,
+                             @RequestParam(required = false) List<Dimension> groupBy,
+                             @RequestParam(defaultValue = "count") List<String> select) {
+        return queries.query(new SessionQuery(QueryParser.parseCondition(where), groupBy,
+                QueryParser.parseSelections(select)));
+    }
+
+    // The full report of the current dataset as text or JSON
+
+    @GetMapping("/report")
+    public ResponseEntity<String> report(@RequestParam(defaultValue = "TEXT") ReportRenderer.Format format) {
+        AnalyticsReport report = AnalyticsReport.of(analytics, datasetService.current().getAggregate());
+        MediaType type = format == ReportRenderer.Format.JSON
+                ? MediaType.APPLICATION_JSON
+                : new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+        return ResponseEntity.ok().contentType(type).body(ReportRenderer.render(report, format));
+    }
+
+    @GetMapping("/cache")
+    public CacheStats cacheStats() {
+        return queries.cacheStats();
+    }
+
+    @PostMapping("/reload")
+    public Map<String, Object> reload() {
+        Dataset dataset = datasetService.reload();
+        return Map.of("version", dataset.getVersion(), "sessions", dataset.getTable().size(),
+                "reloadMillis", dataset.getReloadTime().toMillis());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
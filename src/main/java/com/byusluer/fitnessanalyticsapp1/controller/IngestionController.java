@@ -0,0 +1,64 @@
+package com.byusluer.fitnessanalyticsapp1.controller;
+
+import com.byusluer.fitnessanalyticsapp1.ingest.IngestBatch;
+import com.byusluer.fitnessanalyticsapp1.ingest.IngestReceipt;
+import com.byusluer.fitnessanalyticsapp1.ingest.IngestionService;
+import com.byusluer.fitnessanalyticsapp1.ingest.QueueFullException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Streams new sessions into the running dataset. A batch is answered with
+// 202 once it is queued and becomes visible to the analytics endpoints a
+// moment later; 429 means the queue is full and the batch should be resent.
+
+@RestController
+@RequestMapping("/api/sessions")
+@RequiredArgsConstructor
+public class IngestionController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final IngestionService ingestion;
+    private final ObjectMapper mapper;
+
+    // Lines in the fitness_data.csv layout, with or without its header line
+
+    @PostMapping(consumes = {TEXT_CSV_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public IngestReceipt ingestCsv(@RequestBody byte[] body) {
+        return ingestion.submit(IngestBatch.ofCsv(body));
+    }
+
+    // One JSON object per line with the ActivitySession property names
+
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public IngestReceipt ingestNdjson(@RequestBody byte[] body) {
+        return ingestion.submit(IngestBatch.ofNdjson(body, mapper));
+    }
+
+    @ExceptionHandler(QueueFullException.class)
+    public ResponseEntity<Map<String, String>> queueFull(QueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
@@ -0,0 +1,26 @@
+package com.byusluer.fitnessanalyticsapp1.csv;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Map;
+
+// What one CSV load did. rowsRead counts every line including the header,
+// like the "Total rows in file" log line always has.
+
+@Value
+@Builder
+public class LoadReport {
+
+    String source;
+    long rowsRead;
+    long rowsAccepted;
+    Map<SkipReason, Long> rowsSkipped;
+    long bytesProcessed;
+    Duration parseTime;
+
+    public long getRowsSkippedTotal() {
+        return rowsSkipped.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,12 @@
+package com.byusluer.fitnessanalyticsapp1.csv;
+
+import lombok.Value;
+
+// Loaded data (List<ActivitySession> or SessionTable) together with its report.
+
+@Value
+public class LoadResult<T> {
+
+    T data;
+    LoadReport report;
+}
@@ -0,0 +1,108 @@
+package com.byusluer.fitnessanalyticsapp1.csv;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.table.OffHeapSessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+
+// Reusable holder for one parsed CSV line. The parser overwrites it for every
+// line, so sinks must copy what they need (toSession / appendTo) before returning.
+
+public final class ParsedRow {
+
+    private final double[] values = new double[Metric.VALUES.length];
+    private long presentBits;
+    private String gender;
+    private String workoutType;
+
+    void reset() {
+        presentBits = 0;
+        gender = null;
+        workoutType = null;
+    }
+
+    void set(Metric metric, double value) {
+        values[metric.ordinal()] = metric.isIntegral() ? (int) value : value;
+        presentBits |= 1L << metric.ordinal();
+    }
+
+    void setGender(String gender) {
+        this.gender = gender;
+    }
+
+    void setWorkoutType(String workoutType) {
+        this.workoutType = workoutType;
+    }
+
+    public boolean isPresent(Metric metric) {
+        return (presentBits & (1L << metric.ordinal())) != 0;
+    }
+
+    public double get(Metric metric) {
+        return values[metric.ordinal()];
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public String getWorkoutType() {
+        return workoutType;
+    }
+
+    public ActivitySession toSession() {
+        return ActivitySession.builder()
+                .age(boxedInt(Metric.AGE))
+                .gender(gender)
+                .weightKg(boxedDouble(Metric.WEIGHT_KG))
+                .heightM(boxedDouble(Metric.HEIGHT_M))
+                .maxBpm(boxedInt(Metric.MAX_BPM))
+                .avgBpm(boxedInt(Metric.AVG_BPM))
+                .restingBpm(boxedInt(Metric.RESTING_BPM))
+                .sessionDurationHours(boxedDouble(Metric.SESSION_DURATION_HOURS))
+                .caloriesBurned(boxedInt(Metric.CALORIES_BURNED))
+                .workoutType(workoutType)
+                .fatPercentage(boxedDouble(Metric.FAT_PERCENTAGE))
+                .waterIntakeLiters(boxedDouble(Metric.WATER_INTAKE_LITERS))
+                .workoutFrequencyPerWeek(boxedInt(Metric.WORKOUT_FREQUENCY_PER_WEEK))
+                .experienceLevel(boxedDouble(Metric.EXPERIENCE_LEVEL))
+                .bmi(boxedDouble(Metric.BMI))
+                .build();
+    }
+
+    public void appendTo(SessionTable.Builder builder) {
+        builder.setGender(gender).setWorkoutType(workoutType);
+        for (Metric metric : Metric.VALUES) {
+            if (isPresent(metric)) {
+                if (metric.isIntegral()) {
+                    builder.setInt(metric, (int) values[metric.ordinal()]);
+                } else {
+                    builder.setDouble(metric, values[metric.ordinal()]);
+                }
+            }
+        }
+        builder.commitRow();
+    }
+
+    public void appendTo(OffHeapSessionTable.Builder builder) {
+        builder.setGender(gender).setWorkoutType(workoutType);
+        for (Metric metric : Metric.VALUES) {
+            if (isPresent(metric)) {
+                if (metric.isIntegral()) {
+                    builder.setInt(metric, (int) values[metric.ordinal()]);
+                } else {
+                    builder.setDouble(metric, values[metric.ordinal()]);
+                }
+            }
+        }
+        builder.commitRow();
+    }
+
+    private Integer boxedInt(Metric metric) {
+        return isPresent(metric) ? (int) values[metric.ordinal()] : null;
+    }
+
+    private Double boxedDouble(Metric metric) {
+        return isPresent(metric) ? values[metric.ordinal()] : null;
+    }
+}
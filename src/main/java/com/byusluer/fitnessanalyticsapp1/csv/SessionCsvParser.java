@@ -0,0 +1,345 @@
+package com.byusluer.fitnessanalyticsapp1.csv;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Streaming parser for the fitness_data.csv layout that works directly on the
+// UTF-8 bytes. Numbers are parsed in place (no String, regex or Optional per
+// cell) and the text columns are interned, so a steady-state parse only
+// allocates what the sink keeps.
+//
+// The rules are the ones CsvLoaderService always had:
+//  - lines end with \n, \r or \r\n; the first line is the header
+//  - a line needs at least 14 non-trailing-empty columns, like line.split(",")
+//  - numeric cells keep only [0-9.-] and become null when that is not a number;
+//    integer columns truncate the parsed double
+//  - workout type drops escaped and real \t \n \r, is trimmed and defaults to "Other"
+//
+// Instances are not thread-safe; use one parser per thread.
+
+@Slf4j
+public final class SessionCsvParser {
+
+    public static final int MIN_COLUMNS = 14;
+    public static final int MAX_COLUMNS = 15;
+
+    private static final int GENDER_COLUMN = 1;
+    private static final int WORKOUT_TYPE_COLUMN = 9;
+
+    // CSV column -> metric, null for the text columns
+    private static final Metric[] COLUMNS = {
+            Metric.AGE, null, Metric.WEIGHT_KG, Metric.HEIGHT_M,
+            Metric.MAX_BPM, Metric.AVG_BPM, Metric.RESTING_BPM,
+            Metric.SESSION_DURATION_HOURS, Metric.CALORIES_BURNED, null,
+            Metric.FAT_PERCENTAGE, Metric.WATER_INTAKE_LITERS,
+            Metric.WORKOUT_FREQUENCY_PER_WEEK, Metric.EXPERIENCE_LEVEL, Metric.BMI
+    };
+
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final ParsedRow row = new ParsedRow();
+    private final StringCache strings = new StringCache();
+    private byte[] buffer = new byte[64 * 1024];
+    private byte[] scratch = new byte[64];
+    private double number;
+
+    // Counters of the last read(...) call
+    private long lineCount;
+    private long acceptedCount;
+    private long byteCount;
+    private final long[] skippedCounts = new long[SkipReason.values().length];
+
+    @FunctionalInterface
+    interface ByteSource {
+        int read(byte[] target, int offset, int length) throws IOException;
+    }
+
+    public void read(InputStream in, Consumer<ParsedRow> sink) throws IOException {
+        read(in::read, true, sink);
+    }
+
+    // Reads the remaining bytes of the buffer; skipHeader is false for chunks
+    // that do not start at the beginning of the file.
+
+    public void read(ByteBuffer bytes, boolean skipHeader, Consumer<ParsedRow> sink) throws IOException {
+        read((target, offset, length) -> {
+            if (!bytes.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, bytes.remaining());
+            bytes.get(target, offset, n);
+            return n;
+        }, skipHeader, sink);
+    }
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    public long getSkippedCount() {
+        long total = 0;
+        for (long count : skippedCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getSkippedCount(SkipReason reason) {
+        return skippedCounts[reason.ordinal()];
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    void read(ByteSource source, boolean skipHeader, Consumer<ParsedRow> sink) throws IOException {
+        lineCount = 0;
+        acceptedCount = 0;
+        byteCount = 0;
+        Arrays.fill(skippedCounts, 0);
+
+        byte[] buf = buffer;
+        int lineStart = 0;
+        int pos = 0;
+        int limit = 0;
+        boolean eof = false;
+        boolean skipLineFeed = false;
+        boolean header = skipHeader;
+
+        while (true) {
+            if (pos == limit) {
+                if (eof) {
+                    break;
+                }
+                // Keep the partial line, make room and refill
+                if (lineStart > 0) {
+                    System.arraycopy(buf, lineStart, buf, 0, limit - lineStart);
+                    limit -= lineStart;
+                    pos -= lineStart;
+                    lineStart = 0;
+                } else if (limit == buf.length) {
+                    buf = buffer = Arrays.copyOf(buf, buf.length * 2);
+                }
+                int n = source.read(buf, limit, buf.length - limit);
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    limit += n;
+                    byteCount += n;
+                }
+                continue;
+            }
+
+            byte c = buf[pos];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    lineStart = ++pos;
+                    continue;
+                }
+            }
+            if (c == '\n' || c == '\r') {
+                header = handleLine(buf, lineStart, pos, header, sink);
+                skipLineFeed = c == '\r';
+                lineStart = ++pos;
+            } else {
+                pos++;
+            }
+        }
+
+        if (lineStart < limit) {
+            handleLine(buf, lineStart, limit, header, sink);
+        }
+    }
+
+    private boolean handleLine(byte[] buf, int start, int end, boolean header, Consumer<ParsedRow> sink) {
+        lineCount++;
+        if (header) {
+            return false;
+        }
+        SkipReason skipReason = parseLine(buf, start, end);
+        if (skipReason == null) {
+            acceptedCount++;
+            sink.accept(row);
+        } else {
+            skippedCounts[skipReason.ordinal()]++;
+            log.warn("Skipping malformed line ({}): {}", skipReason.getDescription(),
+                    new String(buf, start, end - start, StandardCharsets.UTF_8));
+        }
+        return false;
+    }
+
+    // Parses one line into the shared row. Returns why the line is malformed,
+    // or null when the row is valid.
+
+    SkipReason parseLine(byte[] buf, int start, int end) {
+        row.reset();
+        int column = 0;
+        int lastNonEmpty = -1;
+        int fieldStart = start;
+
+        for (int i = start; i <= end; i++) {
+            if (i < end && buf[i] != ',') {
+                continue;
+            }
+            if (i > fieldStart) {
+                lastNonEmpty = column;
+            }
+            if (column < MAX_COLUMNS) {
+                parseField(column, buf, fieldStart, i);
+            } else if (i > fieldStart) {
+                return SkipReason.TOO_MANY_COLUMNS;
+            }
+            column++;
+            fieldStart = i + 1;
+        }
+
+        // split(",") drops trailing empty fields, so they don't count as columns
+        return lastNonEmpty + 1 >= MIN_COLUMNS ? null : SkipReason.NOT_ENOUGH_COLUMNS;
+    }
+
+    private void parseField(int column, byte[] buf, int start, int end) {
+        if (column == GENDER_COLUMN) {
+            row.setGender(strings.intern(buf, start, end - start));
+        } else if (column == WORKOUT_TYPE_COLUMN) {
+            row.setWorkoutType(cleanWorkoutType(buf, start, end));
+        } else if (parseNumber(buf, start, end)) {
+            row.set(COLUMNS[column], number);
+        }
+    }
+
+    // Equivalent of value.replaceAll("[^0-9.\\-]", "") followed by
+    // Double.parseDouble, without building the sanitized String. Returns false
+    // (null value) when nothing is left or the rest is not a number. Short
+    // values take the exact fast path (at most 2^53 mantissa, 22 decimals);
+    // anything longer falls back to Double.parseDouble for identical rounding.
+
+    boolean parseNumber(byte[] buf, int start, int end) {
+        long mantissa = 0;
+        int decimals = 0;
+        int kept = 0;
+        boolean negative = false;
+        boolean seenDot = false;
+        boolean seenDigit = false;
+        boolean exact = true;
+
+        for (int i = start; i < end; i++) {
+            byte c = buf[i];
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                kept++;
+                if (mantissa < (1L << 53) / 10) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (seenDot) decimals++;
+                } else {
+                    exact = false;
+                }
+            } else if (c == '.') {
+                if (seenDot) return false;
+                seenDot = true;
+                kept++;
+            } else if (c == '-') {
+                if (kept > 0) return false;
+                negative = true;
+                kept++;
+            }
+        }
+
+        if (!seenDigit) {
+            return false;
+        }
+        if (!exact || decimals >= POWERS_OF_TEN.length) {
+            return parseSlow(buf, start, end);
+        }
+        double value = decimals == 0 ? mantissa : mantissa / POWERS_OF_TEN[decimals];
+        number = negative ? -value : value;
+        return true;
+    }
+
+    private boolean parseSlow(byte[] buf, int start, int end) {
+        StringBuilder sanitized = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            byte c = buf[i];
+            if ((c >= '0' && c <= '9') || c == '.' || c == '-') {
+                sanitized.append((char) c);
+            }
+        }
+        try {
+            number = Double.parseDouble(sanitized.toString());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String cleanWorkoutType(byte[] buf, int start, int end) {
+        if (scratch.length < end - start) {
+            scratch = new byte[end - start];
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            byte c = buf[i];
+            if (c == '\\' && i + 1 < end && (buf[i + 1] == 't' || buf[i + 1] == 'n' || buf[i + 1] == 'r')) {
+                i++; // escaped \t \n \r
+            } else if (c != '\t' && c != '\n' && c != '\r') {
+                scratch[length++] = c;
+            }
+        }
+        int from = 0;
+        while (from < length && (scratch[from] & 0xFF) <= ' ') from++;
+        while (length > from && (scratch[length - 1] & 0xFF) <= ' ') length--;
+        return from == length ? "Other" : strings.intern(scratch, from, length - from);
+    }
+
+    // Small open-addressing cache from raw bytes to String. Once full, new
+    // values are decoded without being cached.
+
+    private static final class StringCache {
+
+        private static final int SLOTS = 512;
+        private static final int MAX_ENTRIES = SLOTS / 2;
+
+        private final byte[][] keys = new byte[SLOTS][];
+        private final String[] values = new String[SLOTS];
+        private int size;
+
+        String intern(byte[] buf, int offset, int length) {
+            int hash = 1;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + buf[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+            while (keys[slot] != null) {
+                if (Arrays.equals(keys[slot], 0, keys[slot].length, buf, offset, offset + length)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & (SLOTS - 1);
+            }
+            String value = new String(buf, offset, length, StandardCharsets.UTF_8);
+            if (size < MAX_ENTRIES) {
+                keys[slot] = Arrays.copyOfRange(buf, offset, offset + length);
+                values[slot] = value;
+                size++;
+            }
+            return value;
+        }
+    }
+}
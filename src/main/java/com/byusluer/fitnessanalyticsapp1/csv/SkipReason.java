@@ -0,0 +1,19 @@
+package com.byusluer.fitnessanalyticsapp1.csv;
+
+// Why a CSV line was not turned into a session.
+
+public enum SkipReason {
+
+    NOT_ENOUGH_COLUMNS("not enough columns"),
+    TOO_MANY_COLUMNS("too many columns");
+
+    private final String description;
+
+    SkipReason(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
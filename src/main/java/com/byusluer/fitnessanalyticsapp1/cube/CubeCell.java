@@ -0,0 +1,11 @@
+package com.byusluer.fitnessanalyticsapp1.cube;
+
+import java.util.Map;
+
+// One cell of a cube for one metric. coordinates holds the member of every
+// remaining dimension (null for sessions without a value); min, max and
+// average are null when no session of the cell has the metric.
+
+public record CubeCell(Map<Dimension, Object> coordinates, long sessions, long count, double sum,
+                       Double min, Double max, Double average) {
+}
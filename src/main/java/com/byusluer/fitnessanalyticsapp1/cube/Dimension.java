@@ -0,0 +1,41 @@
+package com.byusluer.fitnessanalyticsapp1.cube;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Categorical axes of the SessionCube. Age is bucketed into fixed-width
+// bands; the other dimensions use the values as they are.
+
+public enum Dimension {
+
+    WORKOUT_TYPE,
+    GENDER,
+    EXPERIENCE_LEVEL,
+    AGE_BAND;
+
+    public static final Dimension[] VALUES = values();
+
+    public static final int AGE_BAND_WIDTH = 10;
+    public static final int AGE_BANDS = 10;
+
+    // "0-9", "10-19", ..., "90+"
+    private static final List<String> AGE_BAND_LABELS;
+
+    static {
+        List<String> labels = new ArrayList<>(AGE_BANDS);
+        for (int band = 0; band < AGE_BANDS; band++) {
+            int from = band * AGE_BAND_WIDTH;
+            labels.add(band == AGE_BANDS - 1 ? from + "+" : from + "-" + (from + AGE_BAND_WIDTH - 1));
+        }
+        AGE_BAND_LABELS = Collections.unmodifiableList(labels);
+    }
+
+    public static int ageBand(int age) {
+        return Math.max(0, Math.min(AGE_BANDS - 1, age / AGE_BAND_WIDTH));
+    }
+
+    public static List<String> ageBandLabels() {
+        return AGE_BAND_LABELS;
+    }
+}
@@ -0,0 +1,409 @@
+package com.byusluer.fitnessanalyticsapp1.cube;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.aggregation.NumericKeyIndex;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.StringDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// OLAP-style cube of the sessions over workout type, gender, experience level
+// and age band. Every cell keeps the session count and sum / count / min / max
+// of each Metric in dense arrays, so any grouping or filter over the
+// dimensions is answered in O(cells) from a single pass over the table:
+//
+//  - rollup(dims) aggregates away the other dimensions
+//  - dice(dim, members) keeps only some members of a dimension
+//  - slice(dim, member) fixes a dimension to one member and drops it
+//
+// Member 0 of every dimension is the unknown (null) value, so rolling a
+// dimension up still counts the sessions that lack it. Sums are plain
+// doubles: exact for the integer columns, but the low bits of double columns
+// can differ from the compensated sums of SessionAggregate. Cubes are
+// immutable; every operation returns a new one.
+
+public final class SessionCube {
+
+    private static final int METRICS = Metric.VALUES.length;
+
+    private final List<Dimension> dimensions;
+    private final List<List<Object>> members;
+    private final int[] strides;
+
+    private final long[] sessions;
+    private final double[] sums;
+    private final long[] counts;
+    private final double[] mins;
+    private final double[] maxs;
+
+    private SessionCube(List<Dimension> dimensions, List<List<Object>> members, int[] strides, Accumulator data) {
+        this.dimensions = dimensions;
+        this.members = members;
+        this.strides = strides;
+        this.sessions = data.sessions;
+        this.sums = data.sums;
+        this.counts = data.counts;
+        this.mins = data.mins;
+        this.maxs = data.maxs;
+    }
+
+    // Row-major layout: the last dimension varies fastest
+    private static SessionCube empty(List<Dimension> dimensions, List<List<Object>> members) {
+        int[] strides = new int[dimensions.size()];
+        int cells = 1;
+        for (int d = dimensions.size() - 1; d >= 0; d--) {
+            strides[d] = cells;
+            cells *= members.get(d).size();
+        }
+        return new SessionCube(List.copyOf(dimensions), List.copyOf(members), strides, new Accumulator(cells));
+    }
+
+    // Experience levels are only known once they appear, so they get the
+    // largest stride: a new level appends a block of cells instead of
+    // reshaping the ones already filled.
+
+    public static SessionCube of(SessionTable table) {
+        int types = table.workoutTypes().size() + 1;
+        int genders = table.genders().size() + 1;
+        int bands = Dimension.AGE_BANDS + 1;
+        int levelStride = bands * genders * types;
+
+        NumericKeyIndex levels = NumericKeyIndex.forDoubles();
+        int capacity = 4;
+        Accumulator accumulator = new Accumulator(levelStride * capacity);
+        double[] experienceLevels = table.doubleColumn(Metric.EXPERIENCE_LEVEL);
+        int[] ages = table.intColumn(Metric.AGE);
+
+        for (int row = 0; row < table.size(); row++) {
+            int type = table.workoutTypeCode(row);
+            int gender = table.genderCode(row);
+            int band = table.isPresent(Metric.AGE, row) ? Dimension.ageBand(ages[row]) + 1 : 0;
+            int level = table.isPresent(Metric.EXPERIENCE_LEVEL, row) ? levels.add(experienceLevels[row]) + 1 : 0;
+            if (level == capacity) {
+                capacity *= 2;
+                accumulator.grow(levelStride * capacity);
+            }
+
+            int cell = level * levelStride
+                    + band * genders * types
+                    + (gender == StringDictionary.NULL_CODE ? 0 : gender + 1) * types
+                    + (type == StringDictionary.NULL_CODE ? 0 : type + 1);
+            accumulator.sessions[cell]++;
+            int base = cell * METRICS;
+            for (int m = 0; m < METRICS; m++) {
+                Metric metric = Metric.VALUES[m];
+                if (table.isPresent(metric, row)) {
+                    accumulator.add(base + m, table.getDouble(metric, row));
+                }
+            }
+        }
+
+        List<Object> typeMembers = new ArrayList<>(types);
+        typeMembers.add(null);
+        for (int code = 0; code < types - 1; code++) typeMembers.add(table.workoutTypes().decode(code));
+        List<Object> genderMembers = new ArrayList<>(genders);
+        genderMembers.add(null);
+        for (int code = 0; code < genders - 1; code++) genderMembers.add(table.genders().decode(code));
+        List<Object> levelMembers = new ArrayList<>(levels.size() + 1);
+        levelMembers.add(null);
+        for (int i = 0; i < levels.size(); i++) levelMembers.add(levels.doubleKey(i));
+        List<Object> bandMembers = new ArrayList<>(bands);
+        bandMembers.add(null);
+        bandMembers.addAll(Dimension.ageBandLabels());
+
+        accumulator.grow(levelStride * levelMembers.size());
+        return new SessionCube(List.of(Dimension.VALUES),
+                List.of(unmodifiable(typeMembers), unmodifiable(genderMembers), unmodifiable(levelMembers),
+                        unmodifiable(bandMembers)),
+                new int[]{1, types, levelStride, genders * types}, accumulator);
+    }
+
+    // Cube over the sessions of both cubes, laid out as of() lays out the
+    // concatenated tables: members keep this cube's order and the other
+    // cube's new members follow. Costs O(cells) however many sessions are
+    // behind them. Only full cubes (every dimension, as of() builds them)
+    // can be merged.
+
+    public SessionCube merge(SessionCube other) {
+        List<Dimension> full = List.of(Dimension.VALUES);
+        if (!dimensions.equals(full) || !other.dimensions.equals(full)) {
+            throw new IllegalArgumentException("Only cubes over all dimensions can be merged");
+        }
+        List<List<Object>> targetMembers = new ArrayList<>(dimensions.size());
+        for (int d = 0; d < dimensions.size(); d++) {
+            List<Object> union = new ArrayList<>(members.get(d));
+            for (Object member : other.members.get(d)) {
+                if (!union.contains(member)) union.add(member);
+            }
+            targetMembers.add(unmodifiable(union));
+        }
+        int types = targetMembers.get(0).size();
+        int genders = targetMembers.get(1).size();
+        int levelStride = targetMembers.get(3).size() * genders * types;
+        SessionCube target = new SessionCube(full, List.copyOf(targetMembers),
+                new int[]{1, types, levelStride, genders * types},
+                new Accumulator(levelStride * targetMembers.get(2).size()));
+
+        project(target, mappingInto(target));
+        other.project(target, other.mappingInto(target));
+        return target;
+    }
+
+    private static List<Object> unmodifiable(List<Object> members) {
+        return Collections.unmodifiableList(members);
+    }
+
+    public List<Dimension> dimensions() {
+        return dimensions;
+    }
+
+    // Members of a dimension in cube order; the first one is null
+    public List<Object> members(Dimension dimension) {
+        return members.get(position(dimension));
+    }
+
+    public int cellCount() {
+        return sessions.length;
+    }
+
+    // Cube over the given dimensions only, the others aggregated away.
+    // rollup() with no dimension is the grand total.
+
+    public SessionCube rollup(Dimension... keep) {
+        Set<Dimension> kept = EnumSet.noneOf(Dimension.class);
+        for (Dimension dimension : keep) {
+            position(dimension);
+            kept.add(dimension);
+        }
+        List<Dimension> targetDimensions = new ArrayList<>();
+        List<List<Object>> targetMembers = new ArrayList<>();
+        for (int d = 0; d < dimensions.size(); d++) {
+            if (kept.contains(dimensions.get(d))) {
+                targetDimensions.add(dimensions.get(d));
+                targetMembers.add(members.get(d));
+            }
+        }
+        SessionCube target = empty(targetDimensions, targetMembers);
+
+        int[][] mapping = new int[dimensions.size()][];
+        for (int d = 0; d < dimensions.size(); d++) {
+            int t = targetDimensions.indexOf(dimensions.get(d));
+            mapping[d] = new int[members.get(d).size()];
+            for (int member = 0; member < mapping[d].length; member++) {
+                mapping[d][member] = t < 0 ? 0 : member * target.strides[t];
+            }
+        }
+        project(target, mapping);
+        return target;
+    }
+
+    // Same dimensions, with only the given members of one dimension left.
+    // String members also match case-insensitively, and numerically for
+    // experience levels ("2" selects 2.0).
+
+    public SessionCube dice(Dimension dimension, Collection<?> selected) {
+        int position = position(dimension);
+        List<Object> current = members.get(position);
+        List<Object> kept = new ArrayList<>();
+        int[] keptIndex = new int[current.size()];
+        Arrays.fill(keptIndex, -1);
+        for (Object member : selected) {
+            int index = memberIndex(dimension, member);
+            if (keptIndex[index] < 0) {
+                keptIndex[index] = kept.size();
+                kept.add(current.get(index));
+            }
+        }
+
+        List<List<Object>> targetMembers = new ArrayList<>(members);
+        targetMembers.set(position, unmodifiable(kept));
+        SessionCube target = empty(dimensions, targetMembers);
+
+        int[][] mapping = new int[dimensions.size()][];
+        for (int d = 0; d < dimensions.size(); d++) {
+            mapping[d] = new int[members.get(d).size()];
+            for (int member = 0; member < mapping[d].length; member++) {
+                int targetMember = d == position ? keptIndex[member] : member;
+                mapping[d][member] = targetMember < 0 ? -1 : targetMember * target.strides[d];
+            }
+        }
+        project(target, mapping);
+        return target;
+    }
+
+    public SessionCube slice(Dimension dimension, Object member) {
+        SessionCube diced = dice(dimension, Collections.singletonList(member));
+        return diced.rollup(dimensions.stream().filter(d -> d != dimension).toArray(Dimension[]::new));
+    }
+
+    // Non-empty cells in cube order
+
+    public List<CubeCell> cells(Metric metric) {
+        List<CubeCell> result = new ArrayList<>();
+        for (int cell = 0; cell < sessions.length; cell++) {
+            if (sessions[cell] > 0) {
+                result.add(cell(cell, metric));
+            }
+        }
+        return result;
+    }
+
+    public CubeCell total(Metric metric) {
+        return rollup().cell(0, metric);
+    }
+
+    private CubeCell cell(int cell, Metric metric) {
+        Map<Dimension, Object> coordinates = new LinkedHashMap<>();
+        for (int d = 0; d < dimensions.size(); d++) {
+            coordinates.put(dimensions.get(d), members.get(d).get(coordinate(cell, d)));
+        }
+        int i = cell * METRICS + metric.ordinal();
+        long count = counts[i];
+        return new CubeCell(Collections.unmodifiableMap(coordinates), sessions[cell], count, sums[i],
+                count == 0 ? null : mins[i], count == 0 ? null : maxs[i], count == 0 ? null : sums[i] / count);
+    }
+
+    // Adds every non-empty cell into target at the sum of mapping[d][member]
+    // over the dimensions; a -1 in any dimension drops the cell.
+    private void project(SessionCube target, int[][] mapping) {
+        Accumulator into = new Accumulator(target);
+        for (int cell = 0; cell < sessions.length; cell++) {
+            if (sessions[cell] == 0) {
+                continue;
+            }
+            int targetCell = 0;
+            for (int d = 0; d < dimensions.size(); d++) {
+                int offset = mapping[d][coordinate(cell, d)];
+                if (offset < 0) {
+                    targetCell = -1;
+                    break;
+                }
+                targetCell += offset;
+            }
+            if (targetCell < 0) {
+                continue;
+            }
+            into.sessions[targetCell] += sessions[cell];
+            int from = cell * METRICS;
+            int to = targetCell * METRICS;
+            for (int m = 0; m < METRICS; m++) {
+                if (counts[from + m] > 0) {
+                    into.merge(to + m, sums[from + m], counts[from + m], mins[from + m], maxs[from + m]);
+                }
+            }
+        }
+    }
+
+    // Offsets of this cube's members in target, matched by value
+    private int[][] mappingInto(SessionCube target) {
+        int[][] mapping = new int[dimensions.size()][];
+        for (int d = 0; d < dimensions.size(); d++) {
+            List<Object> current = members.get(d);
+            mapping[d] = new int[current.size()];
+            for (int member = 0; member < mapping[d].length; member++) {
+                mapping[d][member] = target.members.get(d).indexOf(current.get(member)) * target.strides[d];
+            }
+        }
+        return mapping;
+    }
+
+    private int coordinate(int cell, int d) {
+        return cell / strides[d] % members.get(d).size();
+    }
+
+    private int position(Dimension dimension) {
+        int position = dimensions.indexOf(dimension);
+        if (position < 0) {
+            throw new IllegalArgumentException("Dimension " + dimension + " is not part of this cube");
+        }
+        return position;
+    }
+
+    private int memberIndex(Dimension dimension, Object member) {
+        List<Object> current = members(dimension);
+        for (int i = 0; i < current.size(); i++) {
+            if (matches(current.get(i), member)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + dimension + " member: " + member);
+    }
+
+    private static boolean matches(Object key, Object member) {
+        if (Objects.equals(key, member)) {
+            return true;
+        }
+        if (key == null || !(member instanceof String text)) {
+            return false;
+        }
+        if (key instanceof Double level) {
+            try {
+                return level.equals(Double.valueOf(text.trim()));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return key.toString().equalsIgnoreCase(text.trim());
+    }
+
+    // Cell arrays while a cube is being filled; min and max are only
+    // meaningful once count is positive, so new cells need no initialization.
+
+    private static final class Accumulator {
+
+        long[] sessions;
+        double[] sums;
+        long[] counts;
+        double[] mins;
+        double[] maxs;
+
+        Accumulator(int cells) {
+            sessions = new long[cells];
+            sums = new double[cells * METRICS];
+            counts = new long[cells * METRICS];
+            mins = new double[cells * METRICS];
+            maxs = new double[cells * METRICS];
+        }
+
+        Accumulator(SessionCube cube) {
+            sessions = cube.sessions;
+            sums = cube.sums;
+            counts = cube.counts;
+            mins = cube.mins;
+            maxs = cube.maxs;
+        }
+
+        void grow(int cells) {
+            sessions = Arrays.copyOf(sessions, cells);
+            sums = Arrays.copyOf(sums, cells * METRICS);
+            counts = Arrays.copyOf(counts, cells * METRICS);
+            mins = Arrays.copyOf(mins, cells * METRICS);
+            maxs = Arrays.copyOf(maxs, cells * METRICS);
+        }
+
+        void add(int i, double value) {
+            merge(i, value, 1, value, value);
+        }
+
+        void merge(int i, double sum, long count, double min, double max) {
+            if (counts[i] == 0) {
+                mins[i] = min;
+                maxs[i] = max;
+            } else {
+                if (min < mins[i]) mins[i] = min;
+                if (max > maxs[i]) maxs[i] = max;
+            }
+            sums[i] += sum;
+            counts[i] += count;
+        }
+    }
+}
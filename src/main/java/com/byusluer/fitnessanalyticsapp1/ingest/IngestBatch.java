@@ -0,0 +1,110 @@
+package com.byusluer.fitnessanalyticsapp1.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// One submitted batch of sessions, held as fitness_data.csv lines so that
+// every format goes through SessionCsvParser and its rules. records counts the
+// lines the parser will see, header excluded; that is what the batch takes up
+// in the ingestion queue.
+
+public record IngestBatch(byte[] csv, boolean header, int records) {
+
+    // ActivitySession properties in CSV column order
+    private static final List<String> FIELDS = List.of(
+            "age", "gender", "weightKg", "heightM", "maxBpm", "avgBpm", "restingBpm",
+            "sessionDurationHours", "caloriesBurned", "workoutType", "fatPercentage",
+            "waterIntakeLiters", "workoutFrequencyPerWeek", "experienceLevel", "bmi");
+
+    // CSV lines, optionally starting with the header line. The first line is
+    // taken as the header when its first cell is not a number.
+
+    public static IngestBatch ofCsv(byte[] body) {
+        int lines = 0;
+        int firstLineEnd = -1;
+        int lineStart = 0;
+        for (int i = 0; i < body.length; i++) {
+            byte c = body[i];
+            if (c == '\n' || c == '\r') {
+                if (c == '\n' && i > 0 && body[i - 1] == '\r') {
+                    lineStart = i + 1;
+                    continue;
+                }
+                if (firstLineEnd < 0) firstLineEnd = i;
+                lines++;
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < body.length) {
+            if (firstLineEnd < 0) firstLineEnd = body.length;
+            lines++;
+        }
+        boolean header = lines > 0 && isHeader(body, firstLineEnd);
+        return new IngestBatch(body, header, header ? lines - 1 : lines);
+    }
+
+    // Newline-delimited JSON objects with ActivitySession property names.
+    // Missing and null properties become empty cells, unknown ones are
+    // ignored and blank lines are skipped. The parser's column rules still
+    // apply, so an object without the trailing properties is skipped like a
+    // short CSV line.
+
+    public static IngestBatch ofNdjson(byte[] body, ObjectMapper mapper) {
+        StringBuilder csv = new StringBuilder(body.length);
+        int records = 0;
+        int lineNumber = 0;
+        for (String line : new String(body, StandardCharsets.UTF_8).split("\r\n|\r|\n")) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = mapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + " is not valid JSON: "
+                        + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                throw new IllegalArgumentException("Line " + lineNumber + " is not a JSON object");
+            }
+            for (int i = 0; i < FIELDS.size(); i++) {
+                if (i > 0) csv.append(',');
+                appendCell(csv, node.get(FIELDS.get(i)), lineNumber);
+            }
+            csv.append('\n');
+            records++;
+        }
+        return new IngestBatch(csv.toString().getBytes(StandardCharsets.UTF_8), false, records);
+    }
+
+    private static void appendCell(StringBuilder csv, JsonNode value, int lineNumber) {
+        if (value == null || !value.isValueNode() || value.isNull()) {
+            return;
+        }
+        String text = value.asText();
+        if (text.indexOf(',') >= 0) {
+            throw new IllegalArgumentException("Line " + lineNumber + " has a value with a comma: " + text);
+        }
+        // Line breaks would split the record; the parser drops them from text cells anyway
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\n' && c != '\r') csv.append(c);
+        }
+    }
+
+    private static boolean isHeader(byte[] body, int firstLineEnd) {
+        for (int i = 0; i < firstLineEnd; i++) {
+            byte c = body[i];
+            if (c == ' ' || c == '\t') {
+                continue;
+            }
+            return !(c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.' || c == ',');
+        }
+        return false;
+    }
+}
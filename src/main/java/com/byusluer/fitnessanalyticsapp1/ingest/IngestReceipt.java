@@ -0,0 +1,7 @@
+package com.byusluer.fitnessanalyticsapp1.ingest;
+
+// Records of an accepted batch and the records queued, this batch included,
+// at the time it was accepted.
+
+public record IngestReceipt(int records, long queuedRecords) {
+}
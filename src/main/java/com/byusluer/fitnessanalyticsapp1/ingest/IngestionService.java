@@ -0,0 +1,222 @@
+package com.byusluer.fitnessanalyticsapp1.ingest;
+
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.csv.SessionCsvParser;
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+import com.byusluer.fitnessanalyticsapp1.service.DatasetService;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Accepts batches of new sessions while the application is running. Batches
+// wait in a queue bounded by the number of records in it: a batch that does
+// not fit is refused with QueueFullException, after waiting up to the
+// configured block timeout for room. A single worker thread takes whatever
+// is queued, up to batchRecords, parses it with SessionCsvParser and appends
+// it to the dataset in one DatasetService.append, so a burst of small
+// batches costs one new dataset version instead of one each. Records free
+// their queue space once they are visible in the dataset.
+
+@Slf4j
+@Service
+public class IngestionService {
+
+    private final DatasetService datasetService;
+    private final ApplicationEventPublisher events;
+    private final int capacity;
+    private final Duration blockTimeout;
+    private final int batchRecords;
+    private final Duration linger;
+
+    private final BlockingQueue<Queued> queue = new LinkedBlockingQueue<>();
+    private final Semaphore space;
+    private final LongAdder acceptedRecords = new LongAdder();
+    private final LongAdder rejectedRecords = new LongAdder();
+    private final LongAdder ingestedSessions = new LongAdder();
+    private final LongAdder skippedRecords = new LongAdder();
+    private final LongAdder failedRecords = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile boolean running;
+    private Thread worker;
+
+    public IngestionService(DatasetService datasetService, ApplicationEventPublisher events,
+                            FitnessAnalyticsProperties properties) {
+        FitnessAnalyticsProperties.Ingest settings = properties.getIngest();
+        this.datasetService = datasetService;
+        this.events = events;
+        this.capacity = settings.getQueueCapacity();
+        this.blockTimeout = settings.getBlockTimeout();
+        this.batchRecords = settings.getBatchRecords();
+        this.linger = settings.getLinger();
+        this.space = new Semaphore(capacity, true);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("session-ingest").start(this::drain);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    public IngestReceipt submit(IngestBatch batch) {
+        int records = batch.records();
+        if (records == 0) {
+            return new IngestReceipt(0, queuedRecords());
+        }
+        if (records > capacity) {
+            throw new IllegalArgumentException("Batch of " + records + " records is larger than the ingestion queue ("
+                    + capacity + " records)");
+        }
+        if (!reserve(records)) {
+            rejectedRecords.add(records);
+            throw new QueueFullException("Ingestion queue is full (" + capacity + " records)");
+        }
+        queue.add(new Queued(batch, System.nanoTime()));
+        acceptedRecords.add(records);
+        return new IngestReceipt(records, queuedRecords());
+    }
+
+    // Records queued or being appended
+    public long queuedRecords() {
+        return capacity - space.availablePermits();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long acceptedRecords() {
+        return acceptedRecords.sum();
+    }
+
+    public long rejectedRecords() {
+        return rejectedRecords.sum();
+    }
+
+    public long ingestedSessions() {
+        return ingestedSessions.sum();
+    }
+
+    public long skippedRecords() {
+        return skippedRecords.sum();
+    }
+
+    public long failedRecords() {
+        return failedRecords.sum();
+    }
+
+    public long batches() {
+        return batches.sum();
+    }
+
+    // Waits until every accepted record is in the dataset (or was dropped);
+    // false when that did not happen within timeout
+
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (queuedRecords() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private boolean reserve(int records) {
+        if (blockTimeout.isZero() || blockTimeout.isNegative()) {
+            return space.tryAcquire(records);
+        }
+        try {
+            return space.tryAcquire(records, blockTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drain() {
+        SessionCsvParser parser = new SessionCsvParser();
+        List<Queued> batch = new ArrayList<>();
+        while (running) {
+            try {
+                Queued first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int records = first.batch().records();
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (records < batchRecords) {
+                    Queued next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    records += next.batch().records();
+                }
+                append(batch, records, parser);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void append(List<Queued> batch, int records, SessionCsvParser parser) {
+        try {
+            SessionTable.Builder builder = new SessionTable.Builder(records);
+            long skipped = 0;
+            for (Queued queued : batch) {
+                IngestBatch submitted = queued.batch();
+                parser.read(ByteBuffer.wrap(submitted.csv()), submitted.header(), row -> row.appendTo(builder));
+                skipped += parser.getSkippedCount();
+            }
+            Dataset dataset = builder.size() > 0
+                    ? datasetService.append(builder.build())
+                    : datasetService.current();
+
+            long now = System.nanoTime();
+            List<Duration> latencies = new ArrayList<>(batch.size());
+            for (Queued queued : batch) {
+                latencies.add(Duration.ofNanos(now - queued.queuedAt()));
+            }
+            ingestedSessions.add(builder.size());
+            skippedRecords.add(skipped);
+            batches.increment();
+            events.publishEvent(new SessionsIngestedEvent(dataset, builder.size(), skipped, latencies));
+        } catch (IOException | RuntimeException e) {
+            failedRecords.add(records);
+            log.error("Dropping {} ingested records that couldn't be appended", records, e);
+        } finally {
+            space.release(records);
+        }
+    }
+
+    private record Queued(IngestBatch batch, long queuedAt) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.byusluer.fitnessanalyticsapp1.ingest;
+
+// The ingestion queue has no room for a batch; the client should retry later.
+
+public class QueueFullException extends RuntimeException {
+
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.byusluer.fitnessanalyticsapp1.ingest;
+
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+
+import java.time.Duration;
+import java.util.List;
+
+// One micro-batch folded into the dataset: the sessions it added, the records
+// that were skipped as malformed, and for every submitted batch in it the time
+// from being queued to being visible in dataset.
+
+public record SessionsIngestedEvent(Dataset dataset, int sessions, long skippedRecords, List<Duration> latencies) {
+}
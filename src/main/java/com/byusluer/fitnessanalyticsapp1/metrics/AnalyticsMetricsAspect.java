@@ -0,0 +1,94 @@
+package com.byusluer.fitnessanalyticsapp1.metrics;
+
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Times every public FitnessAnalyticsService call (fitness.analytics.call)
+// and records the bytes the calling thread allocated during it
+// (fitness.analytics.allocated), both tagged with the method name and the
+// type of its first parameter, since the List overloads aggregate and the
+// SessionAggregate ones don't. Meters are registered on the first call of a
+// method and looked up by Method afterwards, so recording adds no
+// allocation of its own. Work done on the fork/join pool of parallel
+// aggregation is timed but its allocations are not counted.
+
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "fitness.analytics.metrics", name = "enabled", matchIfMissing = true)
+public class AnalyticsMetricsAspect {
+
+    public static final String CALL_TIMER = "fitness.analytics.call";
+    public static final String ALLOCATION_SUMMARY = "fitness.analytics.allocated";
+
+    private final MeterRegistry registry;
+    private final boolean percentileHistograms;
+    private final com.sun.management.ThreadMXBean threads; // null when allocations aren't tracked
+    private final Map<Method, CallMeters> meters = new ConcurrentHashMap<>();
+
+    public AnalyticsMetricsAspect(MeterRegistry registry, FitnessAnalyticsProperties properties) {
+        this.registry = registry;
+        this.percentileHistograms = properties.getMetrics().isPercentileHistograms();
+        this.threads = properties.getMetrics().isAllocationTracking() ? allocationCounter() : null;
+    }
+
+    @Around("execution(public * com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService.*(..))"
+            + " && !@annotation(jakarta.annotation.PreDestroy)")
+    public Object record(ProceedingJoinPoint call) throws Throwable {
+        CallMeters callMeters = meters.computeIfAbsent(((MethodSignature) call.getSignature()).getMethod(),
+                this::register);
+        long allocatedBefore = threads != null ? threads.getCurrentThreadAllocatedBytes() : 0;
+        long start = System.nanoTime();
+        try {
+            return call.proceed();
+        } finally {
+            callMeters.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (threads != null) {
+                callMeters.allocated().record(threads.getCurrentThreadAllocatedBytes() - allocatedBefore);
+            }
+        }
+    }
+
+    private CallMeters register(Method method) {
+        String input = method.getParameterCount() == 0 ? "none" : method.getParameterTypes()[0].getSimpleName();
+        Timer timer = Timer.builder(CALL_TIMER)
+                .description("FitnessAnalyticsService call time")
+                .tag("method", method.getName())
+                .tag("input", input)
+                .publishPercentileHistogram(percentileHistograms)
+                .register(registry);
+        DistributionSummary allocated = DistributionSummary.builder(ALLOCATION_SUMMARY)
+                .description("Bytes allocated by the calling thread during a FitnessAnalyticsService call")
+                .baseUnit("bytes")
+                .tag("method", method.getName())
+                .tag("input", input)
+                .publishPercentileHistogram(percentileHistograms)
+                .register(registry);
+        return new CallMeters(timer, allocated);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+
+    private record CallMeters(Timer timer, DistributionSummary allocated) {
+    }
+}
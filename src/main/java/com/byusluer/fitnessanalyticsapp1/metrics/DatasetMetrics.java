@@ -0,0 +1,45 @@
+package com.byusluer.fitnessanalyticsapp1.metrics;
+
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+import com.byusluer.fitnessanalyticsapp1.service.DatasetAppendedEvent;
+import com.byusluer.fitnessanalyticsapp1.service.DatasetReloadedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Reload time and version / size of the dataset being served, including
+// sessions appended by ingestion.
+
+@Component
+public class DatasetMetrics {
+
+    private final Timer reloads;
+    private final AtomicReference<Dataset> current = new AtomicReference<>();
+
+    public DatasetMetrics(MeterRegistry registry) {
+        this.reloads = Timer.builder("fitness.dataset.reload")
+                .description("Dataset load, aggregation and cube build time")
+                .register(registry);
+        Gauge.builder("fitness.dataset.version", current, c -> c.get() == null ? 0 : c.get().getVersion())
+                .description("Version of the dataset being served")
+                .register(registry);
+        Gauge.builder("fitness.dataset.sessions", current, c -> c.get() == null ? 0 : c.get().getTable().size())
+                .description("Sessions in the dataset being served")
+                .register(registry);
+    }
+
+    @EventListener
+    public void onDatasetReloaded(DatasetReloadedEvent event) {
+        reloads.record(event.dataset().getReloadTime());
+        current.set(event.dataset());
+    }
+
+    @EventListener
+    public void onDatasetAppended(DatasetAppendedEvent event) {
+        current.set(event.dataset());
+    }
+}
@@ -0,0 +1,73 @@
+package com.byusluer.fitnessanalyticsapp1.metrics;
+
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.ingest.IngestionService;
+import com.byusluer.fitnessanalyticsapp1.ingest.SessionsIngestedEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
+// Ingestion throughput, backpressure and latency. Records per second are the
+// rates of the fitness.ingest.records counters; fitness.ingest.queue.depth is
+// what is waiting for the worker, and fitness.ingest.latency is the time from
+// a batch being queued to its sessions being served.
+
+@Component
+public class IngestionMetrics {
+
+    private final Timer latency;
+    private final DistributionSummary batchSessions;
+
+    public IngestionMetrics(MeterRegistry registry, IngestionService ingestion, FitnessAnalyticsProperties properties) {
+        boolean percentileHistograms = properties.getMetrics().isPercentileHistograms();
+        counter(registry, ingestion, "accepted", "Records queued for ingestion", IngestionService::acceptedRecords);
+        counter(registry, ingestion, "rejected", "Records refused because the queue was full",
+                IngestionService::rejectedRecords);
+        counter(registry, ingestion, "ingested", "Records appended to the dataset", IngestionService::ingestedSessions);
+        counter(registry, ingestion, "skipped", "Malformed records", IngestionService::skippedRecords);
+        counter(registry, ingestion, "failed", "Records dropped because appending failed",
+                IngestionService::failedRecords);
+        Gauge.builder("fitness.ingest.queue.depth", ingestion, IngestionService::queuedRecords)
+                .description("Records queued or being appended")
+                .baseUnit("records")
+                .register(registry);
+        Gauge.builder("fitness.ingest.queue.capacity", ingestion, IngestionService::capacity)
+                .description("Records the ingestion queue holds")
+                .baseUnit("records")
+                .register(registry);
+
+        this.latency = Timer.builder("fitness.ingest.latency")
+                .description("Time from a batch being queued to its sessions being served")
+                .publishPercentileHistogram(percentileHistograms)
+                .register(registry);
+        this.batchSessions = DistributionSummary.builder("fitness.ingest.batch.sessions")
+                .description("Sessions appended to the dataset at once")
+                .baseUnit("sessions")
+                .publishPercentileHistogram(percentileHistograms)
+                .register(registry);
+    }
+
+    @EventListener
+    public void onSessionsIngested(SessionsIngestedEvent event) {
+        for (Duration duration : event.latencies()) {
+            latency.record(duration);
+        }
+        batchSessions.record(event.sessions());
+    }
+
+    private static void counter(MeterRegistry registry, IngestionService ingestion, String outcome,
+                                String description, ToDoubleFunction<IngestionService> count) {
+        FunctionCounter.builder("fitness.ingest.records", ingestion, count)
+                .description(description)
+                .baseUnit("records")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
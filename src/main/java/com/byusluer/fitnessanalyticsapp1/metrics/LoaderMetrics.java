@@ -0,0 +1,71 @@
+package com.byusluer.fitnessanalyticsapp1.metrics;
+
+import com.byusluer.fitnessanalyticsapp1.csv.LoadReport;
+import com.byusluer.fitnessanalyticsapp1.csv.SkipReason;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+// Publishes the CsvLoaderService totals. The meters read the counters the
+// loader keeps anyway when they are scraped, so the parse loop itself is not
+// touched. Rows and bytes per second over time are the rates of the
+// counters; the fitness.loader.last.* gauges give the throughput of the most
+// recent load.
+
+@Component
+@RequiredArgsConstructor
+public class LoaderMetrics implements MeterBinder {
+
+    private final CsvLoaderService loader;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fitness.loader.rows", loader, l -> l.getTotals().getRowsRead())
+                .description("CSV lines read, header included")
+                .tag("outcome", "read")
+                .register(registry);
+        FunctionCounter.builder("fitness.loader.rows", loader, l -> l.getTotals().getRowsAccepted())
+                .description("CSV lines turned into sessions")
+                .tag("outcome", "accepted")
+                .register(registry);
+        for (SkipReason reason : SkipReason.values()) {
+            FunctionCounter.builder("fitness.loader.rows.skipped", loader,
+                            l -> l.getTotals().getRowsSkipped().get(reason))
+                    .description("Malformed CSV lines")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(registry);
+        }
+        FunctionCounter.builder("fitness.loader.bytes", loader, l -> l.getTotals().getBytesProcessed())
+                .description("CSV bytes parsed")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionTimer.builder("fitness.loader.parse", loader, CsvLoaderService::getLoadCount,
+                        l -> l.getTotals().getParseTime().toNanos(), TimeUnit.NANOSECONDS)
+                .description("CSV load time")
+                .register(registry);
+
+        lastLoadGauge(registry, "fitness.loader.last.rows.per.second", "rows", LoadReport::getRowsAccepted);
+        lastLoadGauge(registry, "fitness.loader.last.bytes.per.second", "bytes", LoadReport::getBytesProcessed);
+    }
+
+    private void lastLoadGauge(MeterRegistry registry, String name, String unit, ToDoubleFunction<LoadReport> amount) {
+        Gauge.builder(name, loader, l -> {
+                    LoadReport report = l.getLastReport();
+                    if (report == null || report.getParseTime().isZero()) {
+                        return Double.NaN;
+                    }
+                    return amount.applyAsDouble(report) / (report.getParseTime().toNanos() / 1e9);
+                })
+                .description("Throughput of the most recent CSV load")
+                .baseUnit(unit)
+                .register(registry);
+    }
+}
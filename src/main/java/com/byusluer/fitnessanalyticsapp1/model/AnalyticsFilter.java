@@ -0,0 +1,81 @@
+package com.byusluer.fitnessanalyticsapp1.model;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.StringDictionary;
+import lombok.Value;
+
+import java.util.function.IntPredicate;
+
+// Optional row filter of the analytics API; null fields don't filter.
+// Sessions without an age never match an age range.
+
+@Value
+public class AnalyticsFilter {
+
+    public static final AnalyticsFilter NONE = new AnalyticsFilter(null, null, null, null);
+
+    String workoutType;
+    String gender;
+    Integer minAge;
+    Integer maxAge;
+
+    public boolean isEmpty() {
+        return workoutType == null && gender == null && minAge == null && maxAge == null;
+    }
+
+    public boolean matches(ActivitySession session) {
+        if (workoutType != null && !workoutType.equalsIgnoreCase(session.getWorkoutType())) {
+            return false;
+        }
+        if (gender != null && !gender.equalsIgnoreCase(session.getGender())) {
+            return false;
+        }
+        if (minAge != null || maxAge != null) {
+            Integer age = session.getAge();
+            if (age == null) return false;
+            if (minAge != null && age < minAge) return false;
+            if (maxAge != null && age > maxAge) return false;
+        }
+        return true;
+    }
+
+    // Same test on table rows, without materializing sessions. Workout type
+    // and gender are resolved to dictionary codes once, so testing a row
+    // decodes no strings.
+
+    public IntPredicate rows(SessionTable table) {
+        boolean[] types = workoutType == null ? null : matchingCodes(table.workoutTypes(), workoutType);
+        boolean[] genders = gender == null ? null : matchingCodes(table.genders(), gender);
+        boolean ages = minAge != null || maxAge != null;
+        int min = minAge == null ? Integer.MIN_VALUE : minAge;
+        int max = maxAge == null ? Integer.MAX_VALUE : maxAge;
+        return row -> {
+            if (types != null && !matchesCode(types, table.workoutTypeCode(row))) {
+                return false;
+            }
+            if (genders != null && !matchesCode(genders, table.genderCode(row))) {
+                return false;
+            }
+            if (ages) {
+                if (!table.isPresent(Metric.AGE, row)) return false;
+                int age = table.getInt(Metric.AGE, row);
+                return age >= min && age <= max;
+            }
+            return true;
+        };
+    }
+
+    // Codes whose value equals text ignoring case; a missing value never matches
+    private static boolean[] matchingCodes(StringDictionary dictionary, String text) {
+        boolean[] matching = new boolean[dictionary.size()];
+        for (int code = 0; code < matching.length; code++) {
+            matching[code] = text.equalsIgnoreCase(dictionary.decode(code));
+        }
+        return matching;
+    }
+
+    private static boolean matchesCode(boolean[] matching, int code) {
+        return code != StringDictionary.NULL_CODE && matching[code];
+    }
+}
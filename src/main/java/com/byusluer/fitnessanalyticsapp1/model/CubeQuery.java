@@ -0,0 +1,32 @@
+package com.byusluer.fitnessanalyticsapp1.model;
+
+import com.byusluer.fitnessanalyticsapp1.cube.Dimension;
+import com.byusluer.fitnessanalyticsapp1.cube.SessionCube;
+import lombok.Value;
+
+import java.util.List;
+
+// Cube query of the analytics API: dice by the listed members of each
+// dimension (null or empty lists don't filter), then roll up to groupBy.
+
+@Value
+public class CubeQuery {
+
+    List<Dimension> groupBy;
+    List<String> workoutType;
+    List<String> gender;
+    List<String> experienceLevel;
+    List<String> ageBand;
+
+    public SessionCube apply(SessionCube cube) {
+        SessionCube result = dice(cube, Dimension.WORKOUT_TYPE, workoutType);
+        result = dice(result, Dimension.GENDER, gender);
+        result = dice(result, Dimension.EXPERIENCE_LEVEL, experienceLevel);
+        result = dice(result, Dimension.AGE_BAND, ageBand);
+        return result.rollup(groupBy == null ? new Dimension[0] : groupBy.toArray(Dimension[]::new));
+    }
+
+    private static SessionCube dice(SessionCube cube, Dimension dimension, List<String> members) {
+        return members == null || members.isEmpty() ? cube : cube.dice(dimension, members);
+    }
+}
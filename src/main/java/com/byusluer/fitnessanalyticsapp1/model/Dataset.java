@@ -0,0 +1,27 @@
+package com.byusluer.fitnessanalyticsapp1.model;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.csv.LoadReport;
+import com.byusluer.fitnessanalyticsapp1.cube.SessionCube;
+import com.byusluer.fitnessanalyticsapp1.query.ZoneMap;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// One loaded generation of sessions together with its precomputed aggregate,
+// cube and zone map.
+
+@Value
+public class Dataset {
+
+    long version;
+    SessionTable table;
+    SessionAggregate aggregate;
+    SessionCube cube;
+    ZoneMap zones;
+    LoadReport report;
+    Instant loadedAt;
+    Duration reloadTime; // load (or append), aggregation, cube and zone map build
+}
@@ -0,0 +1,62 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+// Comparison operators of metric conditions, with Java's primitive double
+// semantics: NaN compares false to everything except with NE.
+
+public enum Comparison {
+
+    GT(">"),
+    GE(">="),
+    LT("<"),
+    LE("<="),
+    EQ("="),
+    NE("!=");
+
+    private final String symbol;
+
+    Comparison(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public boolean test(double value, double operand) {
+        return switch (this) {
+            case GT -> value > operand;
+            case GE -> value >= operand;
+            case LT -> value < operand;
+            case LE -> value <= operand;
+            case EQ -> value == operand;
+            case NE -> value != operand;
+        };
+    }
+
+    // The operator that holds exactly when this one doesn't (for non-NaN values)
+    public Comparison negate() {
+        return switch (this) {
+            case GT -> LE;
+            case GE -> LT;
+            case LT -> GE;
+            case LE -> GT;
+            case EQ -> NE;
+            case NE -> EQ;
+        };
+    }
+
+    public static Comparison fromSymbol(String symbol) {
+        for (Comparison comparison : values()) {
+            if (comparison.symbol.equals(symbol)) {
+                return comparison;
+            }
+        }
+        if ("==".equals(symbol)) {
+            return EQ;
+        }
+        if ("<>".equals(symbol)) {
+            return NE;
+        }
+        throw new IllegalArgumentException("Unknown comparison: " + symbol);
+    }
+}
@@ -0,0 +1,159 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Filter expression over the fields of a session. A session without a value
+// for a field never matches a condition on that field, negated or not, so
+// negation is pushed down to the leaves (De Morgan) instead of wrapping them:
+// not(avgBpm > 160) is avgBpm <= 160 and still skips sessions without avgBpm.
+// Text comparisons ignore case. An empty And matches everything, an empty Or
+// nothing.
+
+public sealed interface Condition {
+
+    Condition ALL = new And(List.of());
+
+    boolean matches(ActivitySession session);
+
+    Condition negate();
+
+    static Condition compare(Metric metric, Comparison op, double operand) {
+        return new Compare(metric, op, operand);
+    }
+
+    static Condition text(TextField field, Comparison op, String value) {
+        return new Text(field, op, value);
+    }
+
+    static Condition and(Condition... conditions) {
+        return new And(List.of(conditions));
+    }
+
+    static Condition or(Condition... conditions) {
+        return new Or(List.of(conditions));
+    }
+
+    static Condition not(Condition condition) {
+        return condition.negate();
+    }
+
+    record Compare(Metric metric, Comparison op, double operand) implements Condition {
+
+        @Override
+        public boolean matches(ActivitySession session) {
+            Number value = metric.read(session);
+            return value != null && op.test(value.doubleValue(), operand);
+        }
+
+        @Override
+        public Condition negate() {
+            return new Compare(metric, op.negate(), operand);
+        }
+
+        @Override
+        public String toString() {
+            return metric + " " + op.symbol() + " " + operand;
+        }
+    }
+
+    // Equality tests only: op is EQ or NE
+    record Text(TextField field, Comparison op, String value) implements Condition {
+
+        public Text {
+            if (op != Comparison.EQ && op != Comparison.NE) {
+                throw new IllegalArgumentException(field + " only supports = and !=, not " + op.symbol());
+            }
+        }
+
+        @Override
+        public boolean matches(ActivitySession session) {
+            String actual = field.read(session);
+            return actual != null && actual.equalsIgnoreCase(value) == (op == Comparison.EQ);
+        }
+
+        @Override
+        public Condition negate() {
+            return new Text(field, op.negate(), value);
+        }
+
+        @Override
+        public String toString() {
+            return field + " " + op.symbol() + " '" + value + "'";
+        }
+    }
+
+    record And(List<Condition> conditions) implements Condition {
+
+        public And {
+            conditions = List.copyOf(conditions);
+        }
+
+        @Override
+        public boolean matches(ActivitySession session) {
+            for (Condition condition : conditions) {
+                if (!condition.matches(session)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Condition negate() {
+            return new Or(negateAll(conditions));
+        }
+
+        @Override
+        public String toString() {
+            return conditions.isEmpty() ? "true" : join(conditions, " and ");
+        }
+    }
+
+    record Or(List<Condition> conditions) implements Condition {
+
+        public Or {
+            conditions = List.copyOf(conditions);
+        }
+
+        @Override
+        public boolean matches(ActivitySession session) {
+            for (Condition condition : conditions) {
+                if (condition.matches(session)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Condition negate() {
+            return new And(negateAll(conditions));
+        }
+
+        @Override
+        public String toString() {
+            return conditions.isEmpty() ? "false" : join(conditions, " or ");
+        }
+    }
+
+    private static List<Condition> negateAll(List<Condition> conditions) {
+        List<Condition> negated = new ArrayList<>(conditions.size());
+        conditions.forEach(condition -> negated.add(condition.negate()));
+        return negated;
+    }
+
+    private static String join(List<Condition> conditions, String separator) {
+        StringBuilder result = new StringBuilder("(");
+        for (int i = 0; i < conditions.size(); i++) {
+            if (i > 0) {
+                result.append(separator);
+            }
+            result.append(conditions.get(i));
+        }
+        return result.append(')').toString();
+    }
+}
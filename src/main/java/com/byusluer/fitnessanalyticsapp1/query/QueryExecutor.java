@@ -0,0 +1,305 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.aggregation.NumericKeyIndex;
+import com.byusluer.fitnessanalyticsapp1.cube.Dimension;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Runs a SessionQuery over a SessionTable, one ZoneMap block at a time:
+//
+//  1. blocks the zone map rules out are skipped without reading a row
+//  2. the compiled condition produces the block's selection bitmap
+//  3. the selected rows get a group index: the member of every groupBy
+//     dimension is packed into a long key, looked up in a primitive
+//     NumericKeyIndex. Each dimension takes the bits its number of members
+//     needs; experience levels, only numbered while scanning, get the rest
+//  4. every selected metric is folded into per-group count / sum / min / max
+//     arrays, one column at a time
+//
+// Nothing is boxed before the result rows are built. Sums are plain doubles,
+// like the cube's: exact for the integer columns, while the low bits of
+// double columns can differ from SessionAggregate's compensated sums.
+// Executions are independent, so queries can run concurrently on one table.
+
+public final class QueryExecutor {
+
+    private final SessionTable table;
+    private final ZoneMap zones;
+    private final SessionQuery query;
+    private final Dimension[] dimensions;
+    private final Metric[] metrics; // distinct metrics of the selections
+    private final int[] shifts; // of each dimension's member in the group key
+    private final long[] masks;
+
+    private final NumericKeyIndex groups = NumericKeyIndex.forInts();
+    private final NumericKeyIndex levels = NumericKeyIndex.forDoubles();
+    private long[] sessions = new long[16];
+    private final long[][] counts;
+    private final double[][] sums;
+    private final double[][] mins;
+    private final double[][] maxs;
+
+    // Per-block buffers of the selected rows
+    private final int[] rows = new int[ZoneMap.BLOCK_ROWS];
+    private final long[] keys = new long[ZoneMap.BLOCK_ROWS];
+    private final int[] groupOf = new int[ZoneMap.BLOCK_ROWS];
+
+    private QueryExecutor(SessionTable table, ZoneMap zones, SessionQuery query) {
+        if (zones.rows() != table.size()) {
+            throw new IllegalArgumentException("Zone map of " + zones.rows() + " rows for a table of " + table.size());
+        }
+        this.table = table;
+        this.zones = zones;
+        this.query = query;
+        this.dimensions = query.groupBy().toArray(Dimension[]::new);
+        this.metrics = query.select().stream()
+                .map(Selection::metric)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(Metric[]::new);
+        counts = new long[metrics.length][sessions.length];
+        sums = new double[metrics.length][sessions.length];
+        mins = new double[metrics.length][sessions.length];
+        maxs = new double[metrics.length][sessions.length];
+
+        int[] bits = new int[dimensions.length];
+        int used = 0;
+        for (int d = 0; d < dimensions.length; d++) {
+            bits[d] = switch (dimensions[d]) {
+                case WORKOUT_TYPE -> memberBits(table.workoutTypes().size());
+                case GENDER -> memberBits(table.genders().size());
+                case AGE_BAND -> memberBits(Dimension.AGE_BANDS);
+                case EXPERIENCE_LEVEL -> 0;
+            };
+            used += bits[d];
+        }
+        if (used > Long.SIZE) {
+            throw new IllegalArgumentException("Too many distinct members to group by " + query.groupBy());
+        }
+        shifts = new int[dimensions.length];
+        masks = new long[dimensions.length];
+        int shift = 0;
+        for (int d = 0; d < dimensions.length; d++) {
+            if (dimensions[d] == Dimension.EXPERIENCE_LEVEL) {
+                bits[d] = Math.min(Integer.SIZE - 1, Long.SIZE - used);
+            }
+            shifts[d] = shift;
+            masks[d] = (1L << bits[d]) - 1;
+            shift += bits[d];
+        }
+    }
+
+    // Bits for member ids 0 to members, 0 standing for null
+    private static int memberBits(int members) {
+        return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(members));
+    }
+
+    public static QueryResult execute(SessionTable table, ZoneMap zones, SessionQuery query) {
+        return new QueryExecutor(table, zones, query).run();
+    }
+
+    private QueryResult run() {
+        RowFilter filter = RowFilter.compile(query.where(), table);
+        if (dimensions.length == 0) {
+            group(0L); // a global aggregate has its one row even when nothing matches
+        }
+
+        long[] selection = new long[ZoneMap.BLOCK_WORDS];
+        long matched = 0;
+        int scanned = 0;
+        for (int block = 0; block < zones.blocks(); block++) {
+            if (!filter.mayMatch(zones, block)) {
+                continue;
+            }
+            scanned++;
+            int from = block * ZoneMap.BLOCK_ROWS;
+            int to = Math.min(table.size(), from + ZoneMap.BLOCK_ROWS);
+            filter.select(from, to, selection, zones, block);
+
+            int words = RowFilter.words(from, to);
+            if (dimensions.length == 0 && metrics.length == 0) {
+                // Plain counts need no row positions
+                for (int word = 0; word < words; word++) {
+                    int count = Long.bitCount(selection[word]);
+                    sessions[0] += count;
+                    matched += count;
+                }
+                continue;
+            }
+            int selected = 0;
+            for (int word = 0; word < words; word++) {
+                long bits = selection[word];
+                int base = from + (word << 6);
+                while (bits != 0) {
+                    rows[selected++] = base + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+            if (selected > 0) {
+                assignGroups(selected);
+                accumulate(selected);
+                matched += selected;
+            }
+        }
+        return new QueryResult(results(), matched, scanned, zones.blocks() - scanned);
+    }
+
+    private void assignGroups(int selected) {
+        if (dimensions.length == 0) {
+            Arrays.fill(groupOf, 0, selected, 0);
+            return;
+        }
+        Arrays.fill(keys, 0, selected, 0L);
+        for (int d = 0; d < dimensions.length; d++) {
+            switch (dimensions[d]) {
+                case WORKOUT_TYPE -> packCodes(table.workoutTypeCodes(), shifts[d], selected);
+                case GENDER -> packCodes(table.genderCodes(), shifts[d], selected);
+                case AGE_BAND -> packAgeBands(shifts[d], selected);
+                case EXPERIENCE_LEVEL -> packLevels(d, selected);
+            }
+        }
+        for (int i = 0; i < selected; i++) {
+            groupOf[i] = group(keys[i]);
+        }
+    }
+
+    // Member ids are one past the dictionary code, so NULL_CODE becomes 0
+    private void packCodes(int[] codes, int shift, int selected) {
+        for (int i = 0; i < selected; i++) {
+            keys[i] |= (long) (codes[rows[i]] + 1) << shift;
+        }
+    }
+
+    private void packAgeBands(int shift, int selected) {
+        int[] ages = table.intColumn(Metric.AGE);
+        long[] validity = table.validity(Metric.AGE);
+        for (int i = 0; i < selected; i++) {
+            int row = rows[i];
+            int band = (validity[row >>> 6] & (1L << row)) != 0 ? Dimension.ageBand(ages[row]) + 1 : 0;
+            keys[i] |= (long) band << shift;
+        }
+    }
+
+    private void packLevels(int d, int selected) {
+        double[] values = table.doubleColumn(Metric.EXPERIENCE_LEVEL);
+        long[] validity = table.validity(Metric.EXPERIENCE_LEVEL);
+        int shift = shifts[d];
+        for (int i = 0; i < selected; i++) {
+            int row = rows[i];
+            int level = 0;
+            if ((validity[row >>> 6] & (1L << row)) != 0) {
+                level = levels.add(values[row]) + 1;
+                if (level > masks[d]) {
+                    throw new IllegalArgumentException("Too many distinct members to group by " + query.groupBy());
+                }
+            }
+            keys[i] |= (long) level << shift;
+        }
+    }
+
+    private int group(long key) {
+        int group = groups.add(key);
+        if (group == sessions.length) {
+            grow(group * 2);
+        }
+        return group;
+    }
+
+    private void grow(int capacity) {
+        sessions = Arrays.copyOf(sessions, capacity);
+        for (int m = 0; m < metrics.length; m++) {
+            counts[m] = Arrays.copyOf(counts[m], capacity);
+            sums[m] = Arrays.copyOf(sums[m], capacity);
+            mins[m] = Arrays.copyOf(mins[m], capacity);
+            maxs[m] = Arrays.copyOf(maxs[m], capacity);
+        }
+    }
+
+    // Min / max only mean something once counts[m][group] > 0
+    private void accumulate(int selected) {
+        for (int i = 0; i < selected; i++) {
+            sessions[groupOf[i]]++;
+        }
+        for (int m = 0; m < metrics.length; m++) {
+            Metric metric = metrics[m];
+            int[] ints = table.intColumn(metric);
+            double[] doubles = table.doubleColumn(metric);
+            long[] validity = table.validity(metric);
+            long[] count = counts[m];
+            double[] sum = sums[m];
+            double[] min = mins[m];
+            double[] max = maxs[m];
+            for (int i = 0; i < selected; i++) {
+                int row = rows[i];
+                if ((validity[row >>> 6] & (1L << row)) == 0) {
+                    continue;
+                }
+                double value = ints != null ? ints[row] : doubles[row];
+                int group = groupOf[i];
+                if (count[group]++ == 0) {
+                    min[group] = value;
+                    max[group] = value;
+                } else {
+                    min[group] = Math.min(min[group], value);
+                    max[group] = Math.max(max[group], value);
+                }
+                sum[group] += value;
+            }
+        }
+    }
+
+    private List<QueryResult.Row> results() {
+        List<QueryResult.Row> result = new ArrayList<>(groups.size());
+        for (int group = 0; group < groups.size(); group++) {
+            Map<Dimension, Object> members = new EnumMap<>(Dimension.class);
+            long key = groups.longKey(group);
+            for (int d = 0; d < dimensions.length; d++) {
+                members.put(dimensions[d], member(dimensions[d], (int) ((key >>> shifts[d]) & masks[d])));
+            }
+            Map<String, Number> values = new LinkedHashMap<>();
+            for (Selection selection : query.select()) {
+                values.put(selection.label(), value(selection, group));
+            }
+            result.add(new QueryResult.Row(Collections.unmodifiableMap(members),
+                    Collections.unmodifiableMap(values)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    // Member ids are one past the code, band or level index; 0 is null
+    private Object member(Dimension dimension, int id) {
+        if (id == 0) {
+            return null;
+        }
+        return switch (dimension) {
+            case WORKOUT_TYPE -> table.workoutTypes().decode(id - 1);
+            case GENDER -> table.genders().decode(id - 1);
+            case AGE_BAND -> Dimension.ageBandLabels().get(id - 1);
+            case EXPERIENCE_LEVEL -> levels.doubleKey(id - 1);
+        };
+    }
+
+    private Number value(Selection selection, int group) {
+        if (selection.metric() == null) {
+            return sessions[group];
+        }
+        int m = Arrays.asList(metrics).indexOf(selection.metric());
+        long count = counts[m][group];
+        return switch (selection.function()) {
+            case COUNT -> count;
+            case SUM -> count == 0 ? null : sums[m][group];
+            case AVG -> count == 0 ? null : sums[m][group] / count;
+            case MIN -> count == 0 ? null : mins[m][group];
+            case MAX -> count == 0 ? null : maxs[m][group];
+        };
+    }
+}
@@ -0,0 +1,213 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Text form of conditions and selections used by the HTTP API, e.g.
+//
+//   avgBpm > 160 and sessionDurationHours > 1.5 and gender = 'Female'
+//   not (workoutType = Yoga or workoutType = HIIT) and age >= 40
+//   count   avg(caloriesBurned)   max(AVG_BPM)
+//
+// Fields are Metric or TextField names, as enum constants or in the camelCase
+// of ActivitySession ("caloriesBurned"), in any case. and binds tighter than
+// or; && || ! work too. Text values may be quoted or bare words. Malformed
+// input throws IllegalArgumentException.
+
+public final class QueryParser {
+
+    private final String input;
+    private final List<String> tokens;
+    private int position;
+
+    private QueryParser(String input) {
+        this.input = input;
+        this.tokens = tokenize(input);
+    }
+
+    // Blank input is the condition matching everything
+    public static Condition parseCondition(String where) {
+        if (where == null || where.isBlank()) {
+            return Condition.ALL;
+        }
+        QueryParser parser = new QueryParser(where);
+        Condition condition = parser.or();
+        if (parser.position < parser.tokens.size()) {
+            throw parser.error("Unexpected '" + parser.tokens.get(parser.position) + "'");
+        }
+        return condition;
+    }
+
+    public static Selection parseSelection(String selection) {
+        String text = selection.strip();
+        int open = text.indexOf('(');
+        if (open < 0) {
+            return Selection.of(function(text), null);
+        }
+        if (!text.endsWith(")")) {
+            throw new IllegalArgumentException("Malformed selection: " + selection);
+        }
+        String argument = text.substring(open + 1, text.length() - 1).strip();
+        Selection.Function function = function(text.substring(0, open).strip());
+        return Selection.of(function, argument.isEmpty() || argument.equals("*") ? null : metric(argument));
+    }
+
+    public static List<Selection> parseSelections(List<String> selections) {
+        List<Selection> result = new ArrayList<>(selections.size());
+        selections.forEach(selection -> result.add(parseSelection(selection)));
+        return result;
+    }
+
+    private Condition or() {
+        List<Condition> operands = new ArrayList<>(List.of(and()));
+        while (accept("or") || accept("||")) {
+            operands.add(and());
+        }
+        return operands.size() == 1 ? operands.get(0) : new Condition.Or(operands);
+    }
+
+    private Condition and() {
+        List<Condition> operands = new ArrayList<>(List.of(unary()));
+        while (accept("and") || accept("&&")) {
+            operands.add(unary());
+        }
+        return operands.size() == 1 ? operands.get(0) : new Condition.And(operands);
+    }
+
+    private Condition unary() {
+        if (accept("not") || accept("!")) {
+            return unary().negate();
+        }
+        if (accept("(")) {
+            Condition condition = or();
+            expect(")");
+            return condition;
+        }
+        return comparison();
+    }
+
+    private Condition comparison() {
+        String field = next("field name");
+        Comparison op = Comparison.fromSymbol(next("comparison"));
+        String value = next("value");
+        TextField textField = textField(field);
+        if (textField != null) {
+            return Condition.text(textField, op, unquote(value));
+        }
+        try {
+            return Condition.compare(metric(field), op, Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            throw error("Not a number: " + value);
+        }
+    }
+
+    private boolean accept(String token) {
+        if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("Expected '" + token + "'");
+        }
+    }
+
+    private String next(String what) {
+        if (position == tokens.size()) {
+            throw error("Expected " + what + " at the end");
+        }
+        return tokens.get(position++);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " in condition: " + input);
+    }
+
+    // Identifiers and numbers, quoted strings (quotes kept), operators and
+    // parentheses
+    private static List<String> tokenize(String input) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < input.length()) {
+            char c = input.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'' || c == '"') {
+                int end = input.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated string in condition: " + input);
+                }
+                tokens.add(input.substring(i, end + 1));
+                i = end + 1;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if ("<>=!&|".indexOf(c) >= 0) {
+                int end = i + 1;
+                while (end < input.length() && "<>=!&|".indexOf(input.charAt(end)) >= 0 && end - i < 2) {
+                    end++;
+                }
+                tokens.add(input.substring(i, end));
+                i = end;
+            } else {
+                int end = i;
+                while (end < input.length() && isWordChar(input.charAt(end))) {
+                    end++;
+                }
+                if (end == i) {
+                    throw new IllegalArgumentException("Unexpected '" + c + "' in condition: " + input);
+                }
+                tokens.add(input.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-' || c == '+';
+    }
+
+    private static String unquote(String value) {
+        char first = value.charAt(0);
+        return (first == '\'' || first == '"') ? value.substring(1, value.length() - 1) : value;
+    }
+
+    private static Selection.Function function(String name) {
+        try {
+            return Selection.Function.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown aggregate function: " + name);
+        }
+    }
+
+    static Metric metric(String name) {
+        String key = normalize(name);
+        for (Metric metric : Metric.VALUES) {
+            if (normalize(metric.name()).equals(key)) {
+                return metric;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name);
+    }
+
+    private static TextField textField(String name) {
+        String key = normalize(name);
+        for (TextField field : TextField.values()) {
+            if (normalize(field.name()).equals(key)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
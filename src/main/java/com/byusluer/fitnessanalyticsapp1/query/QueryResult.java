@@ -0,0 +1,22 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+import com.byusluer.fitnessanalyticsapp1.cube.Dimension;
+
+import java.util.List;
+import java.util.Map;
+
+// Result rows in first-appearance order of their group, plus how much of the
+// table the zone map let the query skip.
+
+public record QueryResult(List<Row> rows, long matchedSessions, int blocksScanned, int blocksSkipped) {
+
+    // groups holds the member of every groupBy dimension (null for sessions
+    // without a value), values the selections by label. Counts are Long, the
+    // other functions Double, null when no session of the group has the metric.
+    public record Row(Map<Dimension, Object> groups, Map<String, Number> values) {
+
+        public Number get(Selection selection) {
+            return values.get(selection.label());
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.StringDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A Condition compiled against one table. Evaluation is block-at-a-time and
+// column-at-a-time: every leaf runs one branch-free loop over its column and
+// produces a selection bitmap for the block, And / Or combine bitmaps a word
+// at a time. Metric comparisons become a closed range [lo, hi], possibly
+// negated, so each column has a single loop whatever the operator; text
+// comparisons become a set of matching dictionary codes. Null values are
+// masked out with the column's validity bitmap.
+//
+// Compiled filters hold scratch bitmaps and are not thread-safe; compile one
+// per query execution.
+
+abstract class RowFilter {
+
+    static final int BLOCK_WORDS = ZoneMap.BLOCK_WORDS;
+
+    // Whether any row of the block can match, judging by the zone map alone
+    abstract boolean mayMatch(ZoneMap zones, int block);
+
+    // Writes the matching rows of [from, to) to words, bit i of words[w] being
+    // row from + 64 * w + i. from is a multiple of 64 and to - from at most
+    // BLOCK_ROWS; words past the last row are left as they are.
+    abstract void select(int from, int to, long[] words, ZoneMap zones, int block);
+
+    static RowFilter compile(Condition condition, SessionTable table) {
+        if (condition instanceof Condition.Compare compare) {
+            return new MetricRange(table, compare);
+        }
+        if (condition instanceof Condition.Text text) {
+            return new CodeSet(table, text);
+        }
+        if (condition instanceof Condition.And and) {
+            return and.conditions().isEmpty() ? new All() : new And(compileAll(and.conditions(), table));
+        }
+        return new Or(compileAll(((Condition.Or) condition).conditions(), table));
+    }
+
+    private static RowFilter[] compileAll(List<Condition> conditions, SessionTable table) {
+        List<RowFilter> filters = new ArrayList<>(conditions.size());
+        conditions.forEach(condition -> filters.add(compile(condition, table)));
+        return filters.toArray(RowFilter[]::new);
+    }
+
+    static int words(int from, int to) {
+        return (to - from + 63) >>> 6;
+    }
+
+    private static final class MetricRange extends RowFilter {
+
+        private final Metric metric;
+        private final int[] ints;
+        private final double[] doubles;
+        private final long[] validity;
+        private final double lo;
+        private final double hi;
+        private final int intLo;
+        private final int intHi;
+        private final long flip; // all ones when negated
+
+        MetricRange(SessionTable table, Condition.Compare compare) {
+            this.metric = compare.metric();
+            this.ints = table.intColumn(metric);
+            this.doubles = table.doubleColumn(metric);
+            this.validity = table.validity(metric);
+
+            // NE is the negation of EQ. An empty range is lo = +inf, hi = -inf;
+            // it also covers a NaN operand, which only NE matches.
+            double operand = compare.operand();
+            double low = Double.NEGATIVE_INFINITY;
+            double high = Double.POSITIVE_INFINITY;
+            switch (compare.op()) {
+                case GT -> low = operand == Double.POSITIVE_INFINITY ? Double.NaN : Math.nextUp(operand);
+                case GE -> low = operand;
+                case LT -> high = operand == Double.NEGATIVE_INFINITY ? Double.NaN : Math.nextDown(operand);
+                case LE -> high = operand;
+                case EQ, NE -> low = high = operand;
+            }
+            if (Double.isNaN(low) || Double.isNaN(high)) {
+                low = Double.POSITIVE_INFINITY;
+                high = Double.NEGATIVE_INFINITY;
+            }
+            this.lo = low;
+            this.hi = high;
+            this.flip = compare.op() == Comparison.NE ? -1L : 0L;
+
+            // The same range over integers; empty as [1, 0]
+            long intLow = low <= Integer.MIN_VALUE ? Integer.MIN_VALUE : (long) Math.ceil(low);
+            long intHigh = high >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (long) Math.floor(high);
+            boolean empty = intLow > intHigh;
+            this.intLo = empty ? 1 : (int) intLow;
+            this.intHi = empty ? 0 : (int) intHigh;
+        }
+
+        @Override
+        boolean mayMatch(ZoneMap zones, int block) {
+            return zones.count(metric, block) > 0
+                    && !(flip == 0 ? noneInRange(zones, block) : allInRange(zones, block));
+        }
+
+        // When the zone map shows every value of the block matches, the
+        // selection is the validity bitmap itself
+        @Override
+        void select(int from, int to, long[] words, ZoneMap zones, int block) {
+            int count = words(from, to);
+            if (flip == 0 ? allInRange(zones, block) : noneInRange(zones, block)) {
+                System.arraycopy(validity, from >>> 6, words, 0, count);
+            } else {
+                for (int word = 0; word < count; word++) {
+                    int first = from + (word << 6);
+                    int end = Math.min(first + 64, to);
+                    long bits = ints != null ? intBits(first, end) : doubleBits(first, end);
+                    words[word] = (bits ^ flip) & validity[first >>> 6];
+                }
+            }
+            // The validity word of the table's last row can hold rows appended
+            // after this table was taken
+            int tail = to & 63;
+            if (tail != 0) {
+                words[count - 1] &= (1L << tail) - 1;
+            }
+        }
+
+        private boolean allInRange(ZoneMap zones, int block) {
+            return lo <= zones.min(metric, block) && zones.max(metric, block) <= hi;
+        }
+
+        private boolean noneInRange(ZoneMap zones, int block) {
+            return zones.max(metric, block) < lo || zones.min(metric, block) > hi;
+        }
+
+        // value - intLo as unsigned is at most span exactly when value is in
+        // range; the sign of span - that difference gives the bit without a
+        // compare
+        private long intBits(int first, int end) {
+            int[] values = ints;
+            int low = intLo;
+            long span = (long) intHi - intLo;
+            long bits = 0;
+            for (int row = first; row < end; row++) {
+                long offset = (values[row] - low) & 0xFFFFFFFFL;
+                bits |= (~(span - offset) >>> 63) << row;
+            }
+            return bits;
+        }
+
+        private long doubleBits(int first, int end) {
+            double[] values = doubles;
+            double low = lo;
+            double high = hi;
+            long bits = 0;
+            for (int row = first; row < end; row++) {
+                double value = values[row];
+                bits |= (value >= low & value <= high ? 1L : 0L) << row;
+            }
+            return bits;
+        }
+    }
+
+    private static final class CodeSet extends RowFilter {
+
+        private final TextField field;
+        private final int[] codes;
+        private final long[] matching;
+
+        // Every dictionary value equal ignoring case, or for NE every other
+        // non-null value
+        CodeSet(SessionTable table, Condition.Text text) {
+            this.field = text.field();
+            this.codes = field.codes(table);
+            StringDictionary dictionary = field.dictionary(table);
+            this.matching = ZoneMap.emptyCodeSet(dictionary.size());
+            boolean equal = text.op() == Comparison.EQ;
+            for (int code = 0; code < dictionary.size(); code++) {
+                if (dictionary.decode(code).equalsIgnoreCase(text.value()) == equal) {
+                    int bit = code + 1;
+                    matching[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+
+        @Override
+        boolean mayMatch(ZoneMap zones, int block) {
+            return zones.containsAnyCode(field, block, matching);
+        }
+
+        @Override
+        void select(int from, int to, long[] words, ZoneMap zones, int block) {
+            int[] column = codes;
+            long[] set = matching;
+            int count = words(from, to);
+            for (int word = 0; word < count; word++) {
+                int first = from + (word << 6);
+                int end = Math.min(first + 64, to);
+                long bits = 0;
+                for (int row = first; row < end; row++) {
+                    int bit = column[row] + 1;
+                    bits |= ((set[bit >>> 6] >>> bit) & 1L) << row;
+                }
+                words[word] = bits;
+            }
+        }
+    }
+
+    // Every row; the query has no condition
+    private static final class All extends RowFilter {
+
+        @Override
+        boolean mayMatch(ZoneMap zones, int block) {
+            return true;
+        }
+
+        @Override
+        void select(int from, int to, long[] words, ZoneMap zones, int block) {
+            int count = words(from, to);
+            Arrays.fill(words, 0, count, -1L);
+            int tail = to & 63;
+            if (tail != 0) {
+                words[count - 1] = (1L << tail) - 1;
+            }
+        }
+    }
+
+    // Stops at the first operand that leaves no row selected
+    private static final class And extends RowFilter {
+
+        private final RowFilter[] operands;
+        private final long[] scratch = new long[BLOCK_WORDS];
+
+        And(RowFilter[] operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        boolean mayMatch(ZoneMap zones, int block) {
+            for (RowFilter operand : operands) {
+                if (!operand.mayMatch(zones, block)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void select(int from, int to, long[] words, ZoneMap zones, int block) {
+            int count = words(from, to);
+            operands[0].select(from, to, words, zones, block);
+            for (int i = 1; i < operands.length; i++) {
+                operands[i].select(from, to, scratch, zones, block);
+                long any = 0;
+                for (int word = 0; word < count; word++) {
+                    words[word] &= scratch[word];
+                    any |= words[word];
+                }
+                if (any == 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Only evaluates the operands the zone map doesn't rule out for the block
+    private static final class Or extends RowFilter {
+
+        private final RowFilter[] operands;
+        private final long[] scratch = new long[BLOCK_WORDS];
+
+        Or(RowFilter[] operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        boolean mayMatch(ZoneMap zones, int block) {
+            for (RowFilter operand : operands) {
+                if (operand.mayMatch(zones, block)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        void select(int from, int to, long[] words, ZoneMap zones, int block) {
+            int count = words(from, to);
+            Arrays.fill(words, 0, count, 0L);
+            for (RowFilter operand : operands) {
+                if (!operand.mayMatch(zones, block)) {
+                    continue;
+                }
+                operand.select(from, to, scratch, zones, block);
+                for (int word = 0; word < count; word++) {
+                    words[word] |= scratch[word];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+
+import java.util.Locale;
+
+// One aggregate column of a query result: count(), or sum / avg / min / max /
+// count of a metric. count() counts the matching sessions; count(metric) only
+// those that have a value of the metric.
+
+public record Selection(Function function, Metric metric) {
+
+    public enum Function {
+        COUNT, SUM, AVG, MIN, MAX
+    }
+
+    public static final Selection COUNT = new Selection(Function.COUNT, null);
+
+    public Selection {
+        if (metric == null && function != Function.COUNT) {
+            throw new IllegalArgumentException(function + " needs a metric");
+        }
+    }
+
+    public static Selection of(Function function, Metric metric) {
+        return new Selection(function, metric);
+    }
+
+    // Column name in results, e.g. "count" or "avg(CALORIES_BURNED)"
+    public String label() {
+        String name = function.name().toLowerCase(Locale.ROOT);
+        return metric == null ? name : name + "(" + metric + ")";
+    }
+}
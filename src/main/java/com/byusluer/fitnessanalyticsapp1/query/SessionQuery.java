@@ -0,0 +1,25 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+import com.byusluer.fitnessanalyticsapp1.cube.Dimension;
+
+import java.util.List;
+
+// Declarative query over the sessions: keep those matching where, group them
+// by the groupBy dimensions (none = one group) and compute the selections per
+// group. Records all the way down, so equal queries are equal cache keys.
+
+public record SessionQuery(Condition where, List<Dimension> groupBy, List<Selection> select) {
+
+    public SessionQuery {
+        where = where == null ? Condition.ALL : where;
+        groupBy = groupBy == null ? List.of() : List.copyOf(groupBy);
+        select = select == null || select.isEmpty() ? List.of(Selection.COUNT) : List.copyOf(select);
+        if (groupBy.size() != groupBy.stream().distinct().count()) {
+            throw new IllegalArgumentException("Duplicate groupBy dimension: " + groupBy);
+        }
+    }
+
+    public static SessionQuery count(Condition where) {
+        return new SessionQuery(where, List.of(), List.of(Selection.COUNT));
+    }
+}
@@ -0,0 +1,25 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.StringDictionary;
+
+// Dictionary-encoded text columns that conditions can compare against.
+
+public enum TextField {
+
+    WORKOUT_TYPE,
+    GENDER;
+
+    public String read(ActivitySession session) {
+        return this == WORKOUT_TYPE ? session.getWorkoutType() : session.getGender();
+    }
+
+    int[] codes(SessionTable table) {
+        return this == WORKOUT_TYPE ? table.workoutTypeCodes() : table.genderCodes();
+    }
+
+    StringDictionary dictionary(SessionTable table) {
+        return this == WORKOUT_TYPE ? table.workoutTypes() : table.genders();
+    }
+}
@@ -0,0 +1,202 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Min / max and value count of every metric, and the set of dictionary codes
+// of every text field, per block of BLOCK_ROWS consecutive table rows. Built
+// once per dataset; queries consult it to skip blocks no row of which can
+// match. Blocks are whole multiples of the 64-row validity bitmap words.
+// A code set has one bit per dictionary code plus one: bit code + 1, so that
+// NULL_CODE maps to bit 0.
+//
+// Complete blocks never change once computed, so extend() shares their
+// arrays with the zone map it returns and only computes the blocks after
+// them; the partial last block belongs to one zone map alone.
+
+public final class ZoneMap {
+
+    public static final int BLOCK_ROWS = 4096;
+    static final int BLOCK_WORDS = BLOCK_ROWS / 64;
+
+    private final int rows;
+    private final int fullBlocks;
+    private final Blocks full; // blocks [0, fullBlocks), capacity can be larger
+    private final Blocks tail; // block fullBlocks when it is partial, else null
+    private final AtomicBoolean extended = new AtomicBoolean();
+
+    private ZoneMap(int rows, int fullBlocks, Blocks full, Blocks tail) {
+        this.rows = rows;
+        this.fullBlocks = fullBlocks;
+        this.full = full;
+        this.tail = tail;
+    }
+
+    public static ZoneMap of(SessionTable table) {
+        return build(table, new Blocks(table.size() / BLOCK_ROWS), 0);
+    }
+
+    // Zone map of table, whose first rows() rows must be the rows this one was
+    // built from. Only the blocks from this one's partial block on are
+    // computed. The first extension writes its new blocks into this zone
+    // map's spare capacity; a second one, or one that needs more room, works
+    // on a copy grown by doubling.
+
+    public ZoneMap extend(SessionTable table) {
+        if (table.size() < rows) {
+            throw new IllegalArgumentException("Cannot extend a zone map of " + rows + " rows to " + table.size());
+        }
+        int newFullBlocks = table.size() / BLOCK_ROWS;
+        Blocks target = full;
+        if (newFullBlocks > full.capacity() || !extended.compareAndSet(false, true)) {
+            target = full.copy(Math.max(newFullBlocks, 2 * full.capacity()));
+        }
+        return build(table, target, fullBlocks);
+    }
+
+    private static ZoneMap build(SessionTable table, Blocks full, int from) {
+        int rows = table.size();
+        int fullBlocks = rows / BLOCK_ROWS;
+        for (int block = from; block < fullBlocks; block++) {
+            full.compute(table, block, block);
+        }
+        Blocks tail = null;
+        if (rows % BLOCK_ROWS != 0) {
+            tail = new Blocks(1);
+            tail.compute(table, fullBlocks, 0);
+        }
+        return new ZoneMap(rows, fullBlocks, full, tail);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int blocks() {
+        return tail == null ? fullBlocks : fullBlocks + 1;
+    }
+
+    // +inf / -inf for blocks without a value of the metric, NaN for blocks
+    // holding a NaN: every range check on those is false, so such blocks are
+    // neither skipped nor taken whole
+    public double min(Metric metric, int block) {
+        return block < fullBlocks ? full.mins[metric.ordinal()][block] : tail.mins[metric.ordinal()][0];
+    }
+
+    public double max(Metric metric, int block) {
+        return block < fullBlocks ? full.maxs[metric.ordinal()][block] : tail.maxs[metric.ordinal()][0];
+    }
+
+    public int count(Metric metric, int block) {
+        return block < fullBlocks ? full.counts[metric.ordinal()][block] : tail.counts[metric.ordinal()][0];
+    }
+
+    public boolean containsCode(TextField field, int block, int code) {
+        long[] blockCodes = codes(field, block);
+        int bit = code + 1;
+        return (bit >>> 6) < blockCodes.length && (blockCodes[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    // Whether the block holds any of the codes in the set
+    boolean containsAnyCode(TextField field, int block, long[] codeSet) {
+        long[] blockCodes = codes(field, block);
+        for (int word = 0; word < Math.min(blockCodes.length, codeSet.length); word++) {
+            if ((blockCodes[word] & codeSet[word]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long[] emptyCodeSet(int dictionarySize) {
+        return new long[codeWords(dictionarySize)];
+    }
+
+    private long[] codes(TextField field, int block) {
+        return block < fullBlocks ? full.codes[field.ordinal()][block] : tail.codes[field.ordinal()][0];
+    }
+
+    private static int codeWords(int dictionarySize) {
+        return (dictionarySize + 64) >>> 6;
+    }
+
+    // Per-block statistics in slots; a slot is written once, before any zone
+    // map that reads it is published
+    private static final class Blocks {
+
+        final double[][] mins;
+        final double[][] maxs;
+        final int[][] counts;
+        final long[][][] codes; // code set per field and slot, sized to the dictionary at the time
+
+        Blocks(int capacity) {
+            this(new double[Metric.VALUES.length][capacity], new double[Metric.VALUES.length][capacity],
+                    new int[Metric.VALUES.length][capacity], new long[TextField.values().length][capacity][]);
+        }
+
+        private Blocks(double[][] mins, double[][] maxs, int[][] counts, long[][][] codes) {
+            this.mins = mins;
+            this.maxs = maxs;
+            this.counts = counts;
+            this.codes = codes;
+        }
+
+        int capacity() {
+            return counts[0].length;
+        }
+
+        Blocks copy(int capacity) {
+            double[][] newMins = new double[mins.length][];
+            double[][] newMaxs = new double[maxs.length][];
+            int[][] newCounts = new int[counts.length][];
+            for (int column = 0; column < mins.length; column++) {
+                newMins[column] = Arrays.copyOf(mins[column], capacity);
+                newMaxs[column] = Arrays.copyOf(maxs[column], capacity);
+                newCounts[column] = Arrays.copyOf(counts[column], capacity);
+            }
+            long[][][] newCodes = new long[codes.length][][];
+            for (int field = 0; field < codes.length; field++) {
+                newCodes[field] = Arrays.copyOf(codes[field], capacity);
+            }
+            return new Blocks(newMins, newMaxs, newCounts, newCodes);
+        }
+
+        void compute(SessionTable table, int block, int slot) {
+            int first = block * BLOCK_ROWS;
+            int end = Math.min(table.size(), first + BLOCK_ROWS);
+            for (Metric metric : Metric.VALUES) {
+                int column = metric.ordinal();
+                long[] validity = table.validity(metric);
+                int[] ints = table.intColumn(metric);
+                double[] doubles = table.doubleColumn(metric);
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                int count = 0;
+                for (int row = first; row < end; row++) {
+                    if ((validity[row >>> 6] & (1L << row)) == 0) {
+                        continue;
+                    }
+                    double value = ints != null ? ints[row] : doubles[row];
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                    count++;
+                }
+                mins[column][slot] = min;
+                maxs[column][slot] = max;
+                counts[column][slot] = count;
+            }
+            for (TextField field : TextField.values()) {
+                int[] column = field.codes(table);
+                long[] set = emptyCodeSet(field.dictionary(table).size());
+                for (int row = first; row < end; row++) {
+                    int bit = column[row] + 1;
+                    set[bit >>> 6] |= 1L << bit;
+                }
+                codes[field.ordinal()][slot] = set;
+            }
+        }
+    }
+}
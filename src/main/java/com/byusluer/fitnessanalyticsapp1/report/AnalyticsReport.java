@@ -0,0 +1,55 @@
+package com.byusluer.fitnessanalyticsapp1.report;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+
+import java.util.List;
+import java.util.Map;
+
+// Every FitnessAnalyticsService metric of one aggregate, numbered like the
+// questions they answer. Immutable once built, so a report can be rendered
+// from any number of threads.
+
+public record AnalyticsReport(
+        Integer totalCalories,
+        Double averageCalories,
+        Map<String, Integer> caloriesByWorkoutType,
+        List<String> topWorkoutTypes,
+        Double totalDurationHours,
+        Double averageDurationHours,
+        Map<String, Double> averageDurationByWorkoutType,
+        Map<String, Long> mostFrequentWorkout,
+        Map<Integer, Long> workoutFrequency,
+        Map<String, Double> maxTotalDurationWorkoutType,
+        Map<String, Double> longestSession,
+        Map<String, Double> waterIntakeByWorkoutType,
+        Map<String, Double> caloriesByGender,
+        Map<Double, Double> fatPercentageByExperience,
+        Map<String, Double> bmiByWorkoutType,
+        Long highCalorieSessions,
+        Map<Double, Long> sessionsByExperience,
+        Map<Double, ActivitySession> longestSessionByExperience) {
+
+    public static AnalyticsReport of(FitnessAnalyticsService analytics, SessionAggregate aggregate) {
+        return new AnalyticsReport(
+                analytics.getTotalCalories(aggregate),
+                analytics.getAverageCaloriesBurned(aggregate),
+                analytics.getTotalCaloriesByWoType(aggregate),
+                analytics.getTopWoTypes(aggregate),
+                analytics.calculateTotalWoDuration(aggregate),
+                analytics.getAverageWoDuration(aggregate),
+                analytics.getAveWoDurationByType(aggregate),
+                analytics.getMostFrequentWo(aggregate),
+                analytics.getWorkOutFrequency(aggregate),
+                analytics.getWorkoutTypeWithMaxTotalDuration(aggregate),
+                analytics.getLongestWoSession(aggregate),
+                analytics.getTotalWaterIntakeByWoType(aggregate),
+                analytics.getTotalCaloriesByGender(aggregate),
+                analytics.getAverageFatPercentageByExperience(aggregate),
+                analytics.getAverageBMIbyWoType(aggregate),
+                analytics.getCaloriesBurned(aggregate),
+                analytics.getExperienceLevelPerSession(aggregate),
+                analytics.getMaxDurationPerExpLevel(aggregate));
+    }
+}
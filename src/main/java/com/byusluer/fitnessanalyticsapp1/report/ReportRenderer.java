@@ -0,0 +1,217 @@
+package com.byusluer.fitnessanalyticsapp1.report;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.util.NumberFormatter;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+// Renders an AnalyticsReport as one text or JSON document. Everything is
+// appended to a single StringBuilder the caller can reuse, and write() hands
+// the whole document to the Writer in one call instead of a log statement per
+// line. The renderer has no state of its own, so any number of reports can be
+// rendered at once, e.g. one per virtual thread, each with its own builder.
+//
+// Decimals are formatted with NumberFormatter: at most two fraction digits in
+// text, JSON numbers (null when missing or not finite) in JSON.
+
+@UtilityClass
+public class ReportRenderer {
+
+    public enum Format {
+        TEXT, JSON
+    }
+
+    public static String render(AnalyticsReport report, Format format) {
+        return render(report, format, new StringBuilder(4096)).toString();
+    }
+
+    public static StringBuilder render(AnalyticsReport report, Format format, StringBuilder target) {
+        return format == Format.JSON ? json(report, target) : text(report, target);
+    }
+
+    // Renders into target, clearing it first, then writes it out at once
+    public static void write(AnalyticsReport report, Format format, StringBuilder target, Writer out)
+            throws IOException {
+        target.setLength(0);
+        out.append(render(report, format, target));
+    }
+
+    private static StringBuilder text(AnalyticsReport r, StringBuilder out) {
+        out.append("Fitness analytics report\n");
+        integer(line(out, 1, "Total calories burned: "), r.totalCalories()).append(" kcal\n");
+        decimal(line(out, 2, "Average calories burned per session: "), r.averageCalories()).append(" kcal\n");
+
+        line(out, 3, "Total calories burned by workout type:\n");
+        r.caloriesByWorkoutType().forEach((type, total) ->
+                integer(entry(out, type), total).append(" kcal\n"));
+
+        line(out, 4, "Top 5 most frequent workout types:\n");
+        r.topWorkoutTypes().forEach(type -> out.append("    • ").append(type).append('\n'));
+
+        decimal(line(out, 5, "Total workout duration: "), r.totalDurationHours()).append(" hours\n");
+        decimal(line(out, 6, "Average workout duration: "), r.averageDurationHours()).append(" hours\n");
+
+        line(out, 7, "Average workout duration by workout type:\n");
+        r.averageDurationByWorkoutType().forEach((type, hours) ->
+                decimal(entry(out, type), hours).append(" hours\n"));
+
+        line(out, 8, "Most frequent workout:\n");
+        r.mostFrequentWorkout().forEach((type, count) -> integer(entry(out, type), count).append(" times\n"));
+
+        line(out, 9, "Workout frequency:\n");
+        r.workoutFrequency().forEach((perWeek, count) ->
+                integer(entry(out, perWeek), count).append(" sessions\n"));
+
+        line(out, 10, "Workout type with the max total duration:\n");
+        r.maxTotalDurationWorkoutType().forEach((type, hours) ->
+                decimal(entry(out, type), hours).append(" hours\n"));
+
+        line(out, 11, "Longest workout session:\n");
+        r.longestSession().forEach((type, hours) -> decimal(entry(out, type), hours).append(" hours\n"));
+
+        line(out, 12, "Total water intake by workout type:\n");
+        r.waterIntakeByWorkoutType().forEach((type, liters) ->
+                decimal(entry(out, type), liters).append(" liters\n"));
+
+        line(out, 13, "Calories burned by gender:\n");
+        r.caloriesByGender().forEach((gender, calories) ->
+                decimal(entry(out, gender), calories).append(" kcal\n"));
+
+        line(out, 14, "Average fat percentage by experience level:\n");
+        r.fatPercentageByExperience().forEach((level, fat) ->
+                decimal(level(out, level), fat).append("%\n"));
+
+        line(out, 15, "Average BMI by workout type:\n");
+        r.bmiByWorkoutType().forEach((type, bmi) -> decimal(entry(out, type), bmi).append('\n'));
+
+        integer(line(out, 16, "Sessions burning > 500 kcal: "), r.highCalorieSessions()).append('\n');
+
+        line(out, 17, "Sessions per experience level:\n");
+        r.sessionsByExperience().forEach((level, count) ->
+                integer(level(out, level), count).append(" sessions\n"));
+
+        line(out, 18, "Longest session per experience level:\n");
+        r.longestSessionByExperience().forEach((level, session) ->
+                decimal(level(out, level), session.getSessionDurationHours())
+                        .append(" hours (").append(session.getWorkoutType()).append(")\n"));
+        return out;
+    }
+
+    private static StringBuilder line(StringBuilder out, int number, String title) {
+        return out.append("🔥 [").append(number).append("] ").append(title);
+    }
+
+    private static StringBuilder entry(StringBuilder out, Object key) {
+        return out.append("    ").append(key).append(" : ");
+    }
+
+    private static StringBuilder level(StringBuilder out, Double level) {
+        return decimal(out.append("    Level "), level).append(" : ");
+    }
+
+    private static StringBuilder integer(StringBuilder out, Number value) {
+        return value == null ? out.append('-') : out.append(value.longValue());
+    }
+
+    private static StringBuilder decimal(StringBuilder out, Double value) {
+        return value == null ? out.append('-') : NumberFormatter.appendTwoDecimals(out, value);
+    }
+
+    private static StringBuilder json(AnalyticsReport r, StringBuilder out) {
+        out.append('{');
+        number(field(out, "totalCalories", true), r.totalCalories());
+        number(field(out, "averageCalories", false), r.averageCalories());
+        object(field(out, "caloriesByWorkoutType", false), r.caloriesByWorkoutType());
+        array(field(out, "topWorkoutTypes", false), r.topWorkoutTypes());
+        number(field(out, "totalDurationHours", false), r.totalDurationHours());
+        number(field(out, "averageDurationHours", false), r.averageDurationHours());
+        object(field(out, "averageDurationByWorkoutType", false), r.averageDurationByWorkoutType());
+        object(field(out, "mostFrequentWorkout", false), r.mostFrequentWorkout());
+        object(field(out, "workoutFrequency", false), r.workoutFrequency());
+        object(field(out, "maxTotalDurationWorkoutType", false), r.maxTotalDurationWorkoutType());
+        object(field(out, "longestSession", false), r.longestSession());
+        object(field(out, "waterIntakeByWorkoutType", false), r.waterIntakeByWorkoutType());
+        object(field(out, "caloriesByGender", false), r.caloriesByGender());
+        object(field(out, "fatPercentageByExperience", false), r.fatPercentageByExperience());
+        object(field(out, "bmiByWorkoutType", false), r.bmiByWorkoutType());
+        number(field(out, "highCalorieSessions", false), r.highCalorieSessions());
+        object(field(out, "sessionsByExperience", false), r.sessionsByExperience());
+
+        field(out, "longestSessionByExperience", false).append('{');
+        boolean first = true;
+        for (Map.Entry<Double, ActivitySession> entry : r.longestSessionByExperience().entrySet()) {
+            key(out, entry.getKey(), first).append('{');
+            string(field(out, "workoutType", true), entry.getValue().getWorkoutType());
+            number(field(out, "sessionDurationHours", false), entry.getValue().getSessionDurationHours());
+            out.append('}');
+            first = false;
+        }
+        return out.append("}}");
+    }
+
+    private static StringBuilder field(StringBuilder out, String name, boolean first) {
+        return string(first ? out : out.append(','), name).append(':');
+    }
+
+    private static StringBuilder key(StringBuilder out, Object key, boolean first) {
+        return string(first ? out : out.append(','), String.valueOf(key)).append(':');
+    }
+
+    private static <K> void object(StringBuilder out, Map<K, ? extends Number> map) {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<K, ? extends Number> entry : map.entrySet()) {
+            number(key(out, entry.getKey(), first), entry.getValue());
+            first = false;
+        }
+        out.append('}');
+    }
+
+    private static void array(StringBuilder out, List<String> values) {
+        out.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            string(i == 0 ? out : out.append(','), values.get(i));
+        }
+        out.append(']');
+    }
+
+    private static StringBuilder number(StringBuilder out, Number value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return NumberFormatter.appendJsonNumber(out, value.doubleValue());
+        }
+        return out.append(value.longValue());
+    }
+
+    private static StringBuilder string(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00").append(Character.forDigit(c >> 4, 16))
+                                .append(Character.forDigit(c & 15, 16));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"');
+    }
+}
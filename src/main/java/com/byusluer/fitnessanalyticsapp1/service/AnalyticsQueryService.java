@@ -0,0 +1,76 @@
+package com.byusluer.fitnessanalyticsapp1.service;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.cache.CacheStats;
+import com.byusluer.fitnessanalyticsapp1.cache.ResultCache;
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.model.AnalyticsFilter;
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+import com.byusluer.fitnessanalyticsapp1.query.QueryResult;
+import com.byusluer.fitnessanalyticsapp1.query.SessionQuery;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Function;
+
+// Answers analytics queries against the current dataset through a result
+// cache. Unfiltered queries are views over the dataset's precomputed
+// aggregate; filtered ones aggregate the matching rows from the table's
+// columns once per cache miss.
+// SessionQuery results are cached the same way.
+
+@Service
+public class AnalyticsQueryService {
+
+    private final DatasetService datasetService;
+    private final FitnessAnalyticsService analytics;
+    private final ResultCache<QueryKey, Object> cache;
+
+    public AnalyticsQueryService(DatasetService datasetService, FitnessAnalyticsService analytics,
+                                 FitnessAnalyticsProperties properties) {
+        this.datasetService = datasetService;
+        this.analytics = analytics;
+        this.cache = new ResultCache<>(properties.getCache().getMaxEntries(), properties.getCache().getTtl());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T query(String metric, AnalyticsFilter filter, Function<SessionAggregate, T> view) {
+        Dataset dataset = datasetService.current();
+        QueryKey key = new QueryKey(metric, filter, dataset.getVersion());
+        return (T) cache.get(key, () -> view.apply(aggregate(dataset, filter)));
+    }
+
+    public QueryResult query(SessionQuery query) {
+        Dataset dataset = datasetService.current();
+        QueryKey key = new QueryKey(query, AnalyticsFilter.NONE, dataset.getVersion());
+        return (QueryResult) cache.get(key, () -> analytics.query(dataset.getTable(), dataset.getZones(), query));
+    }
+
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    @EventListener
+    public void onDatasetReloaded(DatasetReloadedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @EventListener
+    public void onDatasetAppended(DatasetAppendedEvent event) {
+        cache.invalidateAll();
+    }
+
+    private static SessionAggregate aggregate(Dataset dataset, AnalyticsFilter filter) {
+        if (filter.isEmpty()) {
+            return dataset.getAggregate();
+        }
+        SessionTable table = dataset.getTable();
+        return SessionAggregate.of(table, filter.rows(table));
+    }
+
+    // The dataset version is part of the key, so a result can never outlive
+    // the data it was computed from even between reload and invalidation.
+    private record QueryKey(Object query, AnalyticsFilter filter, long datasetVersion) {
+    }
+}
@@ -1,120 +1,384 @@
 package com.byusluer.fitnessanalyticsapp1.service;
 
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.csv.LoadReport;
+import com.byusluer.fitnessanalyticsapp1.csv.LoadResult;
+import com.byusluer.fitnessanalyticsapp1.csv.ParsedRow;
+import com.byusluer.fitnessanalyticsapp1.csv.SessionCsvParser;
+import com.byusluer.fitnessanalyticsapp1.csv.SkipReason;
 import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.table.OffHeapSessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-
-import static java.util.Collections.replaceAll;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 public class CsvLoaderService {
 
-    int totalCount = 0;
-    int skippedCount = 0;
+    private final FitnessAnalyticsProperties.Loader settings;
+
+    // Totals over every load of this service. Each load keeps its own counters
+    // in its parsers and only adds its final numbers here, so concurrent loads
+    // neither race nor contend.
+    private final LongAdder totalRowsRead = new LongAdder();
+    private final LongAdder totalRowsAccepted = new LongAdder();
+    private final LongAdder totalBytesProcessed = new LongAdder();
+    private final LongAdder totalParseNanos = new LongAdder();
+    private final Map<SkipReason, LongAdder> totalRowsSkipped = new EnumMap<>(SkipReason.class);
+    private final LongAdder totalLoads = new LongAdder();
+    private volatile LoadReport lastReport;
+
+    public CsvLoaderService() {
+        this(new FitnessAnalyticsProperties());
+    }
+
+    @Autowired
+    public CsvLoaderService(FitnessAnalyticsProperties properties) {
+        this.settings = properties.getLoader();
+        for (SkipReason reason : SkipReason.values()) {
+            totalRowsSkipped.put(reason, new LongAdder());
+        }
+    }
 
     public List<ActivitySession> loadSessionsFromCsv(String fileName) {
+        return loadSessions(fileName).getData();
+    }
+
+    // Same rows as loadSessionsFromCsv, stored column-wise instead of one
+    // ActivitySession object per row.
+
+    public SessionTable loadTableFromCsv(String fileName) {
+        return loadTable(fileName).getData();
+    }
+
+    // Loads a CSV file from disk: the file is memory-mapped in line-aligned
+    // chunks that are parsed in parallel and merged back in file order.
+
+    public List<ActivitySession> loadSessionsFromPath(Path path) {
+        return loadSessions(path).getData();
+    }
+
+    public List<ActivitySession> loadSessionsFromPath(Path path, int threads) {
+        return loadSessions(path, threads).getData();
+    }
+
+    public SessionTable loadTableFromPath(Path path) {
+        return loadTable(path).getData();
+    }
+
+    public SessionTable loadTableFromPath(Path path, int threads) {
+        return loadTable(path, threads).getData();
+    }
+
+    // Variants returning the LoadReport of the call alongside the data
 
+    public LoadResult<List<ActivitySession>> loadSessions(String fileName) {
 
         List<ActivitySession> sessions = new ArrayList<>();
+        LoadReport report = readResource(fileName, row -> sessions.add(row.toSession()));
+        return new LoadResult<>(sessions, report);
+    }
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(Objects.requireNonNull(
-                        getClass().getClassLoader().getResourceAsStream(fileName))))) {
+    public LoadResult<SessionTable> loadTable(String fileName) {
 
-            String line;
-            boolean isFirstLine = true;
+        SessionTable.Builder builder = new SessionTable.Builder();
+        LoadReport report = readResource(fileName, row -> row.appendTo(builder));
+        return new LoadResult<>(builder.build(), report);
+    }
 
-            while ((line = reader.readLine()) != null) {
-                totalCount++;
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue; // skip header
-                }
+    public LoadResult<List<ActivitySession>> loadSessions(Path path) {
+        return loadSessions(path, settings.getThreads());
+    }
 
-                String[] tokens = line.split(",");
+    public LoadResult<List<ActivitySession>> loadSessions(Path path, int threads) {
 
-                if (tokens.length < 14) {
-                    skippedCount++;
-                    log.warn("Skipping malformed line (not enough columns): {}", line);
-                    continue;
-                }
-                String[] paddedTokens = new String[15];
-                System.arraycopy(tokens, 0, paddedTokens, 0, tokens.length);
-                for (int i = tokens.length; i < 15; i++) {
-                    paddedTokens[i] = "";
-                }
+        long start = System.nanoTime();
+        List<SessionCsvParser> parsers = new ArrayList<>();
+        List<List<ActivitySession>> parts = readChunks(path, threads, parsers, () -> new ArrayList<>(),
+                (part, row) -> part.add(row.toSession()), Function.identity());
+
+        List<ActivitySession> sessions = new ArrayList<>(parts.stream().mapToInt(List::size).sum());
+        parts.forEach(sessions::addAll);
+        return new LoadResult<>(sessions, complete(path.toString(), parsers, start));
+    }
+
+    public LoadResult<SessionTable> loadTable(Path path) {
+        return loadTable(path, settings.getThreads());
+    }
+
+    public LoadResult<SessionTable> loadTable(Path path, int threads) {
+
+        long start = System.nanoTime();
+        List<SessionCsvParser> parsers = new ArrayList<>();
+        List<SessionTable> parts = readChunks(path, threads, parsers, SessionTable.Builder::new,
+                (builder, row) -> row.appendTo(builder), SessionTable.Builder::build);
+
+        SessionTable table = SessionTable.concat(parts);
+        return new LoadResult<>(table, complete(path.toString(), parsers, start));
+    }
+
+    // Loads straight into off-heap memory, or into chunks mapped from
+    // backingFile when it is not null, so the rows never exist on the heap.
+    // Chunks are parsed one after the other into a single builder; the
+    // caller closes the returned table. This is for batch jobs over files too
+    // large for the heap: DatasetService keeps serving a heap SessionTable,
+    // because queries, zone maps, filtered aggregates and appends all work on
+    // its arrays.
+
+    public LoadResult<OffHeapSessionTable> loadOffHeapTable(Path path, Path backingFile) {
+
+        long start = System.nanoTime();
+        List<SessionCsvParser> parsers = new ArrayList<>();
+        OffHeapSessionTable.Builder builder = backingFile != null
+                ? new OffHeapSessionTable.Builder(backingFile)
+                : new OffHeapSessionTable.Builder();
+        try {
+            readChunks(path, 1, parsers, () -> builder, (target, row) -> row.appendTo(target), Function.identity());
+        } catch (RuntimeException e) {
+            builder.close();
+            throw e;
+        }
+        return new LoadResult<>(builder.build(), complete(path.toString(), parsers, start));
+    }
+
+    // Loads several files at once, one virtual thread per file. Each file is
+    // parsed chunk by chunk on its own thread, so the files themselves are the
+    // unit of parallelism. Results are in the order of the given paths.
 
-                ActivitySession session = ActivitySession.builder()
-                        .age(optionalInt(paddedTokens[0]).orElse(null))
-                        .gender(paddedTokens[1])
-                        .weightKg(optionalDouble(paddedTokens[2]).orElse(null))
-                        .heightM(optionalDouble(paddedTokens[3]).orElse(null))
-                        .maxBpm(optionalInt(paddedTokens[4]).orElse(null))
-                        .avgBpm(optionalInt(paddedTokens[5]).orElse(null))
-                        .restingBpm(optionalInt(paddedTokens[6]).orElse(null))
-                        .sessionDurationHours(optionalDouble(paddedTokens[7]).orElse(null))
-                        .caloriesBurned(optionalInt(paddedTokens[8]).orElse(null))
-                        .workoutType(cleanWorkoutTypeField(paddedTokens[9]))
-                        .fatPercentage(optionalDouble(paddedTokens[10]).orElse(null))
-                        .waterIntakeLiters(optionalDouble(paddedTokens[11]).orElse(null))
-                        .workoutFrequencyPerWeek(optionalInt(paddedTokens[12]).orElse(null))
-                        .experienceLevel(optionalDouble(paddedTokens[13]).orElse(null))
-                        .bmi(optionalDouble(paddedTokens[14]).orElse(null))
-                        .build();
-
-
-                sessions.add(session);
+    public List<LoadResult<List<ActivitySession>>> loadSessionsConcurrently(List<Path> paths) {
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<LoadResult<List<ActivitySession>>>> futures = new ArrayList<>(paths.size());
+            for (Path path : paths) {
+                futures.add(executor.submit(() -> loadSessions(path, 1)));
+            }
+            List<LoadResult<List<ActivitySession>>> results = new ArrayList<>(paths.size());
+            for (Future<LoadResult<List<ActivitySession>>> future : futures) {
+                results.add(future.get());
             }
+            return results;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime
+                    : new RuntimeException("CSV files couldn't be loaded", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("CSV load interrupted", e);
+        }
+    }
+
+    // Sum over every load so far
+
+    public LoadReport getTotals() {
+        Map<SkipReason, Long> skipped = new EnumMap<>(SkipReason.class);
+        totalRowsSkipped.forEach((reason, count) -> skipped.put(reason, count.sum()));
+        return LoadReport.builder()
+                .source("all loads")
+                .rowsRead(totalRowsRead.sum())
+                .rowsAccepted(totalRowsAccepted.sum())
+                .rowsSkipped(Collections.unmodifiableMap(skipped))
+                .bytesProcessed(totalBytesProcessed.sum())
+                .parseTime(Duration.ofNanos(totalParseNanos.sum()))
+                .build();
+    }
+
+    public long getLoadCount() {
+        return totalLoads.sum();
+    }
+
+    // Report of the most recently completed load, null before the first one
+
+    public LoadReport getLastReport() {
+        return lastReport;
+    }
+
+    private LoadReport readResource(String fileName, Consumer<ParsedRow> sink) {
+
+        long start = System.nanoTime();
+        SessionCsvParser parser = new SessionCsvParser();
+
+        try (InputStream in = Objects.requireNonNull(
+                getClass().getClassLoader().getResourceAsStream(fileName))) {
+
+            parser.read(in, sink);
 
         } catch (IOException e) {
             throw new RuntimeException("CSV file couldn't be read: " + fileName, e);
         }
 
-        log.info("Total rows in file: {}", totalCount);
-        log.info("Valid sessions loaded: {}", sessions.size());
-        log.info("Skipped malformed rows: {}", skippedCount);
+        return complete(fileName, List.of(parser), start);
+    }
+
+    private LoadReport complete(String source, List<SessionCsvParser> parsers, long startNanos) {
+        long rowsRead = 0;
+        long rowsAccepted = 0;
+        long bytes = 0;
+        Map<SkipReason, Long> skipped = new EnumMap<>(SkipReason.class);
+        for (SkipReason reason : SkipReason.values()) {
+            skipped.put(reason, 0L);
+        }
+        for (SessionCsvParser parser : parsers) {
+            rowsRead += parser.getLineCount();
+            rowsAccepted += parser.getAcceptedCount();
+            bytes += parser.getByteCount();
+            for (SkipReason reason : SkipReason.values()) {
+                skipped.merge(reason, parser.getSkippedCount(reason), Long::sum);
+            }
+        }
+
+        LoadReport report = LoadReport.builder()
+                .source(source)
+                .rowsRead(rowsRead)
+                .rowsAccepted(rowsAccepted)
+                .rowsSkipped(Collections.unmodifiableMap(skipped))
+                .bytesProcessed(bytes)
+                .parseTime(Duration.ofNanos(System.nanoTime() - startNanos))
+                .build();
+
+        totalRowsRead.add(rowsRead);
+        totalRowsAccepted.add(rowsAccepted);
+        totalBytesProcessed.add(bytes);
+        totalParseNanos.add(report.getParseTime().toNanos());
+        skipped.forEach((reason, count) -> totalRowsSkipped.get(reason).add(count));
+        totalLoads.increment();
+        lastReport = report;
 
-        return sessions;
+        log.info("Total rows in file: {}", report.getRowsRead());
+        log.info("Valid sessions loaded: {}", report.getRowsAccepted());
+        log.info("Skipped malformed rows: {}", report.getRowsSkippedTotal());
+        log.info("Parsed {} ({} bytes) in {} ms", source, bytes, report.getParseTime().toMillis());
+        return report;
     }
 
+    private <A, R> List<R> readChunks(Path path, int threads, List<SessionCsvParser> parsers,
+                                      Supplier<A> partFactory,
+                                      BiConsumer<A, ParsedRow> accumulator,
+                                      Function<A, R> finisher) {
 
-    private Optional<Double> optionalDouble(String value) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
 
-        try {
-            String sanitized = value == null ? "" : value.replaceAll("[^0-9.\\-]", "");
-            return sanitized.isEmpty() ? Optional.empty() : Optional.of(Double.parseDouble(sanitized));
-        } catch (NumberFormatException e) {
-            return Optional.empty();
-        }
+            List<long[]> chunks = splitIntoChunks(channel, threads);
+            List<R> parts = new ArrayList<>(chunks.size());
 
+            if (threads <= 1 || chunks.size() == 1) {
+                for (long[] chunk : chunks) {
+                    SessionCsvParser parser = new SessionCsvParser();
+                    parts.add(parseChunk(channel, chunk, parser, partFactory, accumulator, finisher));
+                    parsers.add(parser);
+                }
+            } else {
+                try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks.size()))) {
+                    List<Future<R>> futures = new ArrayList<>(chunks.size());
+                    for (long[] chunk : chunks) {
+                        SessionCsvParser parser = new SessionCsvParser();
+                        parsers.add(parser);
+                        futures.add(executor.submit(
+                                () -> parseChunk(channel, chunk, parser, partFactory, accumulator, finisher)));
+                    }
+                    for (Future<R> future : futures) {
+                        parts.add(future.get());
+                    }
+                }
+            }
+
+            return parts;
 
+        } catch (IOException e) {
+            throw new RuntimeException("CSV file couldn't be read: " + path, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("CSV file couldn't be parsed: " + path, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("CSV load interrupted: " + path, e);
+        }
     }
 
-    private Optional<Integer> optionalInt(String value) {
+    private static <A, R> R parseChunk(FileChannel channel, long[] chunk, SessionCsvParser parser,
+                                       Supplier<A> partFactory,
+                                       BiConsumer<A, ParsedRow> accumulator,
+                                       Function<A, R> finisher) throws IOException {
+        A part = partFactory.get();
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+        parser.read(bytes, chunk[0] == 0, row -> accumulator.accept(part, row));
+        return finisher.apply(part);
+    }
 
-        try {
-            String sanitized = value == null ? "" : value.replaceAll("[^0-9.\\-]", "");
-            return sanitized.isEmpty() ? Optional.empty() : Optional.of((int) Double.parseDouble(sanitized));
-        } catch (NumberFormatException e) {
-            return Optional.empty();
+    // [start, end) ranges that begin at a line start, a few per thread so that
+    // uneven chunks still balance. A mapping must stay below 2 GB.
+
+    private List<long[]> splitIntoChunks(FileChannel channel, int threads) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(1, Math.min(Integer.MAX_VALUE - 1L,
+                Math.min(settings.getChunkSizeBytes(), size / Math.max(1, threads * 4L) + 1)));
+
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size);
+            chunks.add(new long[]{start, end});
+            start = end;
         }
+        if (chunks.isEmpty()) {
+            chunks.add(new long[]{0, 0});
+        }
+        return chunks;
     }
 
-    private String cleanWorkoutTypeField(String rawType) {
-        if (rawType == null) return "Other";
-        String cleaned = rawType
-                .replaceAll("\\\\[tnr]", "")  // Remove escaped characters like \t \n
-                .replaceAll("[\\n\\t\\r]", "") // Remove actual tab, newline, carriage return
-                .trim();
-        return cleaned.isEmpty() ? "Other" : cleaned;
+    // First line start at or after position; \r\n counts as one terminator.
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(8 * 1024);
+        long offset = position - 1;
+        while (offset < size) {
+            window.clear();
+            int n = channel.read(window, offset);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                byte c = window.get(i);
+                if (c == '\n') {
+                    return offset + i + 1;
+                }
+                if (c == '\r') {
+                    long next = offset + i + 1;
+                    if (next < size) {
+                        ByteBuffer one = ByteBuffer.allocate(1);
+                        channel.read(one, next);
+                        if (one.get(0) == '\n') {
+                            return next + 1;
+                        }
+                    }
+                    return next;
+                }
+            }
+            offset += n;
+        }
+        return size;
     }
 }
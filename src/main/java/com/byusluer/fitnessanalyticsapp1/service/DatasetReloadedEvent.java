@@ -0,0 +1,6 @@
+package com.byusluer.fitnessanalyticsapp1.service;
+
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+
+public record DatasetReloadedEvent(Dataset dataset) {
+}
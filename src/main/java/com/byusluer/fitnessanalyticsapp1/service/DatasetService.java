@@ -0,0 +1,115 @@
+package com.byusluer.fitnessanalyticsapp1.service;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.csv.LoadResult;
+import com.byusluer.fitnessanalyticsapp1.cube.SessionCube;
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+import com.byusluer.fitnessanalyticsapp1.query.ZoneMap;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Holds the dataset the application currently serves. A reload loads the
+// source, aggregates it, builds its cube and zone map and only then publishes
+// the new dataset with a single volatile write, so readers never block on a
+// reload and never see a partially built dataset. Files on disk go through their
+// binary snapshot when it is current.
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DatasetService {
+
+    public static final String DEFAULT_RESOURCE = "fitness_data.csv";
+
+    private final CsvLoaderService csvLoaderService;
+    private final SnapshotService snapshotService;
+    private final FitnessAnalyticsService analyticsService;
+    private final FitnessAnalyticsProperties properties;
+    private final ApplicationEventPublisher events;
+
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Dataset current;
+    private volatile Path source; // last file loaded, null until then
+    private SessionTable.Builder appended; // rows of current's table when it came from append, else null
+
+    // The first callers to find no dataset load it once; the others wait for
+    // that load instead of starting their own
+
+    public Dataset current() {
+        Dataset dataset = current;
+        if (dataset != null) {
+            return dataset;
+        }
+        synchronized (this) {
+            dataset = current;
+            return dataset != null ? dataset : reload();
+        }
+    }
+
+    // Reloads the file the current dataset came from, or the configured
+    // source when nothing has been loaded from a file yet
+
+    public synchronized Dataset reload() {
+        return reload(source != null ? source : properties.getLoader().getPath());
+    }
+
+    // Loads the given CSV file (the bundled resource when null) and makes it
+    // the current dataset
+
+    public synchronized Dataset reload(Path dataFile) {
+        long start = System.nanoTime();
+        LoadResult<SessionTable> load = dataFile != null
+                ? snapshotService.loadTable(dataFile)
+                : csvLoaderService.loadTable(DEFAULT_RESOURCE);
+
+        SessionTable table = load.getData();
+        Dataset dataset = new Dataset(versions.incrementAndGet(), table, analyticsService.aggregate(table),
+                SessionCube.of(table), ZoneMap.of(table), load.getReport(),
+                Instant.now(), Duration.ofNanos(System.nanoTime() - start));
+        current = dataset;
+        source = dataFile;
+        appended = null;
+        log.info("Dataset version {} ready: {} sessions from {} in {} ms", dataset.getVersion(),
+                dataset.getTable().size(), load.getReport().getSource(), dataset.getReloadTime().toMillis());
+        events.publishEvent(new DatasetReloadedEvent(dataset));
+        return dataset;
+    }
+
+    // Appends sessions to the current dataset as a new version. The aggregate
+    // and cube are folded: the batch is aggregated on its own and merged into
+    // the current ones, which gives the same result as aggregating everything.
+    // The table grows in a builder whose views share its arrays and the zone
+    // map is extended by the new blocks, so an append costs about the size of
+    // the batch; only the first one after a reload copies the loaded table.
+    // Appended sessions live only in memory, so the next reload drops them.
+
+    public synchronized Dataset append(SessionTable sessions) {
+        long start = System.nanoTime();
+        Dataset base = current();
+        if (appended == null) {
+            appended = new SessionTable.Builder(2 * (base.getTable().size() + sessions.size()))
+                    .addAll(base.getTable());
+        }
+        SessionTable table = appended.addAll(sessions).view();
+        SessionAggregate aggregate = base.getAggregate().copy();
+        aggregate.merge(analyticsService.aggregate(sessions));
+
+        Dataset dataset = new Dataset(versions.incrementAndGet(), table, aggregate,
+                base.getCube().merge(SessionCube.of(sessions)), base.getZones().extend(table), base.getReport(),
+                Instant.now(), Duration.ofNanos(System.nanoTime() - start));
+        current = dataset;
+        log.debug("Dataset version {} ready: {} sessions appended in {} ms", dataset.getVersion(),
+                sessions.size(), dataset.getReloadTime().toMillis());
+        events.publishEvent(new DatasetAppendedEvent(dataset, sessions.size()));
+        return dataset;
+    }
+}
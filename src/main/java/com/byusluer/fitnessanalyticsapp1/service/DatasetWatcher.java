@@ -0,0 +1,121 @@
+package com.byusluer.fitnessanalyticsapp1.service;
+
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+// Watches a directory and reloads the dataset from every CSV file that is
+// created or changed there, once the file has been quiet for the debounce
+// period. Loads run one at a time on a background thread; queries keep
+// being answered from the previous dataset until DatasetService swaps in the
+// new one. A file that fails to load leaves the current dataset in place.
+
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "fitness.analytics.watch", name = "enabled", havingValue = "true")
+public class DatasetWatcher {
+
+    private final DatasetService datasetService;
+    private final Path directory;
+    private final PathMatcher matcher;
+    private final Duration debounce;
+
+    private final ScheduledExecutorService loader = Executors.newSingleThreadScheduledExecutor(
+            task -> Thread.ofPlatform().daemon().name("dataset-reload").unstarted(task));
+    private final Map<Path, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    private WatchService watchService;
+
+    public DatasetWatcher(DatasetService datasetService, FitnessAnalyticsProperties properties) {
+        FitnessAnalyticsProperties.Watch settings = properties.getWatch();
+        Path loaderPath = properties.getLoader().getPath();
+        Path watched = settings.getDirectory() != null ? settings.getDirectory()
+                : loaderPath != null ? loaderPath.toAbsolutePath().getParent() : null;
+        if (watched == null) {
+            throw new IllegalStateException("Set fitness.analytics.watch.directory or fitness.analytics.loader.path");
+        }
+        this.datasetService = datasetService;
+        this.directory = watched.toAbsolutePath();
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + settings.getGlob());
+        this.debounce = settings.getDebounce();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        Thread.ofPlatform().daemon().name("dataset-watcher").start(this::watch);
+        log.info("Watching {} for changed data files", directory);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        watchService.close();
+        loader.shutdownNow();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() != OVERFLOW && matcher.matches((Path) event.context())) {
+                        schedule(directory.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    log.warn("{} can no longer be watched", directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+
+    // Every event restarts the quiet period of its file
+    private void schedule(Path file) {
+        pending.compute(file, (f, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return loader.schedule(() -> load(f), debounce.toMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void load(Path file) {
+        pending.remove(file);
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            datasetService.reload(file);
+        } catch (RuntimeException e) {
+            log.warn("Couldn't load {}, still serving dataset version {}", file,
+                    datasetService.current().getVersion(), e);
+        }
+    }
+}
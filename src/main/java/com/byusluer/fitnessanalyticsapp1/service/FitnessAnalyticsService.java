@@ -1,56 +1,204 @@
 package com.byusluer.fitnessanalyticsapp1.service;
 
+import com.byusluer.fitnessanalyticsapp1.aggregation.ColumnKernels;
+import com.byusluer.fitnessanalyticsapp1.aggregation.GroupStats;
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.aggregation.MetricDistributions;
+import com.byusluer.fitnessanalyticsapp1.aggregation.MetricStats;
+import com.byusluer.fitnessanalyticsapp1.aggregation.NumericKeyMap;
+import com.byusluer.fitnessanalyticsapp1.aggregation.ParallelAggregator;
+import com.byusluer.fitnessanalyticsapp1.aggregation.QuantileSummary;
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
 import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.query.QueryExecutor;
+import com.byusluer.fitnessanalyticsapp1.query.QueryResult;
+import com.byusluer.fitnessanalyticsapp1.query.SessionQuery;
+import com.byusluer.fitnessanalyticsapp1.query.ZoneMap;
+import com.byusluer.fitnessanalyticsapp1.sketch.FixedHistogram;
+import com.byusluer.fitnessanalyticsapp1.sketch.TopK;
+import com.byusluer.fitnessanalyticsapp1.sketch.WorkoutFrequencySketches;
+import com.byusluer.fitnessanalyticsapp1.table.OffHeapSessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class FitnessAnalyticsService {
 
-    // 1. Total Calories Burned
+    // null when aggregation is sequential only
+    private final ParallelAggregator parallelAggregator;
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final FitnessAnalyticsProperties.Sketch sketchSettings;
+    private final ColumnKernels kernels;
+
+    public FitnessAnalyticsService() {
+        this(new FitnessAnalyticsProperties());
+    }
+
+    @Autowired
+    public FitnessAnalyticsService(FitnessAnalyticsProperties properties) {
+        this.sketchSettings = properties.getSketch();
+        FitnessAnalyticsProperties.Aggregation config = properties.getAggregation();
+        this.kernels = config.isVectorKernels() ? ColumnKernels.vectorizedIfAvailable() : ColumnKernels.scalar();
+        if (config.isParallel()) {
+            this.pool = new ForkJoinPool(config.getThreads());
+            this.parallelAggregator = new ParallelAggregator(pool, config.getLeafSize());
+            this.parallelThreshold = config.getParallelThreshold();
+        } else {
+            this.pool = null;
+            this.parallelAggregator = null;
+            this.parallelThreshold = Integer.MAX_VALUE;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    // Single pass over the sessions; every metric below is a view over this result.
+    // Callers asking for several metrics should aggregate once and use the
+    // SessionAggregate overloads. In parallel mode, inputs of at least the
+    // configured threshold are split over the fork/join pool instead.
+
+    public SessionAggregate aggregate(List<ActivitySession> sessions) {
+        if (sessions.size() >= parallelThreshold && sessions instanceof RandomAccess) {
+            return parallelAggregator.aggregate(sessions);
+        }
+        return SessionAggregate.of(sessions);
+    }
+
+    // Same aggregate computed over the columnar table; all SessionAggregate
+    // overloads below work on either.
+
+    public SessionAggregate aggregate(SessionTable table) {
+        if (table.size() >= parallelThreshold) {
+            return parallelAggregator.aggregate(table);
+        }
+        return SessionAggregate.of(table);
+    }
+
+    // Same aggregate over an off-heap table, one chunk at a time. This is not a
+    // scan in place: forEachChunk copies every chunk into heap arrays, which
+    // are aggregated like a SessionTable and merged in row order. Heap use is
+    // bounded by one chunk, not by the row count, but every row is copied
+    // once. Only the column-scan overloads below read the segments directly.
+
+    public SessionAggregate aggregate(OffHeapSessionTable table) {
+        SessionAggregate aggregate = new SessionAggregate();
+        table.forEachChunk(chunk -> aggregate.merge(aggregate(chunk)));
+        return aggregate;
+    }
+
+    // Bounded-memory alternative to the exact workout type and frequency
+    // counts for high-cardinality or unbounded feeds. Sessions can keep being
+    // added to the returned sketches, and sketches of separate partitions
+    // can be merged.
+
+    public WorkoutFrequencySketches newFrequencySketches() {
+        return new WorkoutFrequencySketches(sketchSettings.getCapacity(), sketchSettings.getEpsilon(),
+                sketchSettings.getDelta());
+    }
+
+    public WorkoutFrequencySketches sketchFrequencies(Iterable<ActivitySession> sessions) {
+        WorkoutFrequencySketches sketches = newFrequencySketches();
+        sessions.forEach(sketches::add);
+        return sketches;
+    }
+
+    public WorkoutFrequencySketches sketchFrequencies(SessionTable table) {
+        WorkoutFrequencySketches sketches = newFrequencySketches();
+        for (int row = 0; row < table.size(); row++) {
+            sketches.add(table, row);
+        }
+        return sketches;
+    }
+
+    // 1. Total Calories Burned. Every input wraps past Integer.MAX_VALUE like
+    // the original mapToInt().sum(); the getTotalCaloriesLong overloads give
+    // the exact total.
 
     public Integer getTotalCalories(List<ActivitySession> sessions) {
+        return getTotalCalories(aggregate(sessions));
+    }
+
+    public Integer getTotalCalories(SessionAggregate aggregate) {
+        return (int) getTotalCaloriesLong(aggregate);
+    }
+
+    public long getTotalCaloriesLong(SessionAggregate aggregate) {
+        return aggregate.getOverall().metric(Metric.CALORIES_BURNED).longSum();
+    }
+
+    // The SessionTable overloads of [1], [5], [6] and the > 500 kcal count scan
+    // a single column with ColumnKernels instead of aggregating everything; the
+    // OffHeapSessionTable ones scan the column in place
 
-        return sessions.stream()
-                .map(ActivitySession::getCaloriesBurned)
-                .filter(Objects::nonNull)
-                .mapToInt(Integer::intValue)
-                .sum();
+    public Integer getTotalCalories(SessionTable table) {
+        return (int) getTotalCaloriesLong(table);
+    }
+
+    public long getTotalCaloriesLong(SessionTable table) {
+        return kernels.stats(table, Metric.CALORIES_BURNED).longSum();
+    }
+
+    public Integer getTotalCalories(OffHeapSessionTable table) {
+        return (int) getTotalCaloriesLong(table);
+    }
+
+    public long getTotalCaloriesLong(OffHeapSessionTable table) {
+        return table.stats(Metric.CALORIES_BURNED).longSum();
     }
 
     // 2. Average Calories Burned
 
     public Double getAverageCaloriesBurned(List<ActivitySession> sessions) {
+        return getAverageCaloriesBurned(aggregate(sessions));
+    }
 
-        return sessions.stream()
-                .map(ActivitySession::getCaloriesBurned)
-                .filter(Objects::nonNull)
-                .mapToInt(Integer::intValue)
-                .average()
-                .orElse(0.0);
+    public Double getAverageCaloriesBurned(SessionAggregate aggregate) {
+        MetricStats calories = aggregate.getOverall().metric(Metric.CALORIES_BURNED);
+        return calories.count() == 0 ? 0.0 : (double) calories.longSum() / calories.count();
     }
 
     // 3. Total calories burned by workout type
 
     public Map<String, Integer> getTotalCaloriesByWoType(List<ActivitySession> sessions) {
+        return getTotalCaloriesByWoType(aggregate(sessions));
+    }
 
-        return sessions.stream().filter(activitySession -> activitySession.getCaloriesBurned() != null &&
-                        activitySession.getWorkoutType() != null)
-                .collect(Collectors.groupingBy(ActivitySession::getWorkoutType,
-                        Collectors.summingInt(ActivitySession::getCaloriesBurned)));
-
+    public Map<String, Integer> getTotalCaloriesByWoType(SessionAggregate aggregate) {
+        Map<String, Integer> result = new HashMap<>();
+        aggregate.getByWorkoutType().forEach((type, stats) -> {
+            MetricStats calories = stats.metric(Metric.CALORIES_BURNED);
+            if (calories.count() > 0) {
+                result.put(type, (int) calories.longSum());
+            }
+        });
+        return result;
     }
 
     // 4. Top 5 most frequent workout types
 
     public List<String> getTopWoTypes(List<ActivitySession> sessions) {
-        Map<String, Long> frequencyMap = sessions.stream()
-                .filter(s -> s.getWorkoutType() != null)
-                .collect(Collectors.groupingBy(ActivitySession::getWorkoutType, Collectors.counting()));
+        return getTopWoTypes(aggregate(sessions));
+    }
+
+    public List<String> getTopWoTypes(SessionAggregate aggregate) {
+        Map<String, Long> frequencyMap = sessionCounts(aggregate.getByWorkoutType());
 
         return frequencyMap.entrySet().stream()
                 .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
@@ -60,42 +208,64 @@ public class FitnessAnalyticsService {
 
     }
 
+    public TopK<String> getApproxTopWoTypes(WorkoutFrequencySketches sketches) {
+        return sketches.workoutTypes().top(5);
+    }
+
     // 5. Total Workout Duration (Hours)
 
     public Double calculateTotalWoDuration(List<ActivitySession> sessions) {
-        return sessions.stream()
-                .map(ActivitySession::getSessionDurationHours)
-                .filter(Objects::nonNull)
-                .mapToDouble(Double::doubleValue)
-                .sum();
+        return calculateTotalWoDuration(aggregate(sessions));
+    }
+
+    public Double calculateTotalWoDuration(SessionAggregate aggregate) {
+        return aggregate.getOverall().metric(Metric.SESSION_DURATION_HOURS).sum();
+    }
+
+    public Double calculateTotalWoDuration(SessionTable table) {
+        return kernels.stats(table, Metric.SESSION_DURATION_HOURS).sum();
+    }
+
+    public Double calculateTotalWoDuration(OffHeapSessionTable table) {
+        return table.stats(Metric.SESSION_DURATION_HOURS).sum();
     }
 
     // [6] Average Workout Duration (in hours)
 
     public Double getAverageWoDuration(List<ActivitySession> sessions) {
-        return sessions.stream()
-                .map(ActivitySession::getSessionDurationHours)
-                .filter(Objects::nonNull)
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0.0);
+        return getAverageWoDuration(aggregate(sessions));
+    }
+
+    public Double getAverageWoDuration(SessionAggregate aggregate) {
+        return aggregate.getOverall().metric(Metric.SESSION_DURATION_HOURS).average();
+    }
+
+    public Double getAverageWoDuration(SessionTable table) {
+        return kernels.stats(table, Metric.SESSION_DURATION_HOURS).average();
+    }
+
+    public Double getAverageWoDuration(OffHeapSessionTable table) {
+        return table.stats(Metric.SESSION_DURATION_HOURS).average();
     }
 
     // [7] Average workout duration by workout type
 
     public Map<String, Double> getAveWoDurationByType(List<ActivitySession> sessions) {
-        return sessions.stream()
-                .filter(s -> s.getSessionDurationHours() != null
-                        && s.getWorkoutType() != null)
-                .collect(Collectors.groupingBy(ActivitySession::getWorkoutType, Collectors.averagingDouble(ActivitySession::getSessionDurationHours)));
+        return getAveWoDurationByType(aggregate(sessions));
+    }
+
+    public Map<String, Double> getAveWoDurationByType(SessionAggregate aggregate) {
+        return metricByGroup(aggregate.getByWorkoutType(), Metric.SESSION_DURATION_HOURS, MetricStats::average);
     }
 
     //[8] Most common workout type
 
     public Map<String, Long> getMostFrequentWo(List<ActivitySession> sessions) {
-        Map<String, Long> workOutCountMap = sessions.stream()
-                .filter(s -> s.getWorkoutType() != null)
-                .collect(Collectors.groupingBy(ActivitySession::getWorkoutType, Collectors.counting()));
+        return getMostFrequentWo(aggregate(sessions));
+    }
+
+    public Map<String, Long> getMostFrequentWo(SessionAggregate aggregate) {
+        Map<String, Long> workOutCountMap = sessionCounts(aggregate.getByWorkoutType());
 
         return workOutCountMap
                 .entrySet()
@@ -106,22 +276,34 @@ public class FitnessAnalyticsService {
 
     }
 
+    public TopK<String> getApproxMostFrequentWo(WorkoutFrequencySketches sketches) {
+        return sketches.workoutTypes().top(1);
+    }
+
     // [9] Workout frequency distribution (how many users workout X times per week)
 
     public Map<Integer, Long> getWorkOutFrequency(List<ActivitySession> sessions) {
-        return sessions.stream()
-                .map(ActivitySession::getWorkoutFrequencyPerWeek)
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(frequency -> frequency, Collectors.counting()));
+        return getWorkOutFrequency(aggregate(sessions));
+    }
+
+    public Map<Integer, Long> getWorkOutFrequency(SessionAggregate aggregate) {
+        return sessionCounts(aggregate.getByWorkoutFrequency());
+    }
+
+    public TopK<Integer> getApproxWorkOutFrequency(WorkoutFrequencySketches sketches) {
+        return sketches.workoutFrequencies().top(sketches.workoutFrequencies().capacity());
     }
 
     // [10] Which workout type has the highest total duration?
 
     public Map<String, Double> getWorkoutTypeWithMaxTotalDuration(List<ActivitySession> sessions) {
+        return getWorkoutTypeWithMaxTotalDuration(aggregate(sessions));
+    }
+
+    public Map<String, Double> getWorkoutTypeWithMaxTotalDuration(SessionAggregate aggregate) {
 
-        Map<String, Double> typeDurationMap = sessions.stream()
-                .filter(s -> s.getSessionDurationHours() != null && s.getWorkoutType() != null)
-                .collect(Collectors.groupingBy(ActivitySession::getWorkoutType, Collectors.summingDouble(ActivitySession::getSessionDurationHours)));
+        Map<String, Double> typeDurationMap =
+                metricByGroup(aggregate.getByWorkoutType(), Metric.SESSION_DURATION_HOURS, MetricStats::sum);
 
         return typeDurationMap.entrySet()
                 .stream()
@@ -134,11 +316,12 @@ public class FitnessAnalyticsService {
     //  [11] Longest single workout duration →
 
     public Map<String, Double> getLongestWoSession(List<ActivitySession> sessions) {
+        return getLongestWoSession(aggregate(sessions));
+    }
 
+    public Map<String, Double> getLongestWoSession(SessionAggregate aggregate) {
 
-        return sessions.stream()
-                .filter(s -> s.getWorkoutType() != null && s.getSessionDurationHours() != null)
-                .max(Comparator.comparing(ActivitySession::getSessionDurationHours))
+        return Optional.ofNullable(aggregate.getLongestSession())
                 .map(s -> Map.of(s.getWorkoutType(), s.getSessionDurationHours()))
                 .orElse(Map.of("Unknown", 0.0));
 
@@ -147,10 +330,13 @@ public class FitnessAnalyticsService {
     // [12] Total water intake by workout type
 
     public Map<String, Double> getTotalWaterIntakeByWoType(List<ActivitySession> sessions) {
+        return getTotalWaterIntakeByWoType(aggregate(sessions));
+    }
 
-        Map<String, Double> intakeMap = sessions.stream()
-                .filter(s -> s.getWaterIntakeLiters() != null && s.getWorkoutType() != null)
-                .collect(Collectors.groupingBy(ActivitySession::getWorkoutType, Collectors.summingDouble(ActivitySession::getWaterIntakeLiters)));
+    public Map<String, Double> getTotalWaterIntakeByWoType(SessionAggregate aggregate) {
+
+        Map<String, Double> intakeMap =
+                metricByGroup(aggregate.getByWorkoutType(), Metric.WATER_INTAKE_LITERS, MetricStats::sum);
 
         return intakeMap.entrySet().stream()
                 .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
@@ -164,63 +350,168 @@ public class FitnessAnalyticsService {
     //  [13] Total calories burned by gender
 
     public Map<String, Double> getTotalCaloriesByGender(List<ActivitySession> sessions) {
+        return getTotalCaloriesByGender(aggregate(sessions));
+    }
 
-        return sessions.stream()
-                .filter(s -> s.getCaloriesBurned() != null && s.getGender() != null)
-                .collect(Collectors.groupingBy(ActivitySession::getGender, Collectors.summingDouble(ActivitySession::getCaloriesBurned)));
-
+    public Map<String, Double> getTotalCaloriesByGender(SessionAggregate aggregate) {
+        return metricByGroup(aggregate.getByGender(), Metric.CALORIES_BURNED, MetricStats::sum);
     }
 
     // [14] Average fat percentage by experience level
 
     public Map<Double, Double> getAverageFatPercentageByExperience(List<ActivitySession> sessions) {
+        return getAverageFatPercentageByExperience(aggregate(sessions));
+    }
 
-        return sessions.stream().filter(s -> s.getFatPercentage() != null
-                        && s.getExperienceLevel() != null)
-                .collect(Collectors.groupingBy(ActivitySession::getExperienceLevel, Collectors.averagingDouble(ActivitySession::getFatPercentage)));
-
-
+    public Map<Double, Double> getAverageFatPercentageByExperience(SessionAggregate aggregate) {
+        return metricByGroup(aggregate.getByExperienceLevel(), Metric.FAT_PERCENTAGE, MetricStats::average);
     }
 
     // [15] Calculate average BMI by workout type
 
-
     public Map<String, Double> getAverageBMIbyWoType(List<ActivitySession> sessions) {
+        return getAverageBMIbyWoType(aggregate(sessions));
+    }
 
-        return sessions.stream()
-                .filter(s -> s.getBmi() != null
-                        && s.getWorkoutType() != null)
-                .collect(Collectors.groupingBy(ActivitySession::getWorkoutType, Collectors.averagingDouble(ActivitySession::getBmi)));
-
-
+    public Map<String, Double> getAverageBMIbyWoType(SessionAggregate aggregate) {
+        return metricByGroup(aggregate.getByWorkoutType(), Metric.BMI, MetricStats::average);
     }
 
 
     // How many activity sessions burned more than 500 calories?
 
     public Long getCaloriesBurned(List<ActivitySession> sessions) {
+        return getCaloriesBurned(aggregate(sessions));
+    }
+
+    public Long getCaloriesBurned(SessionAggregate aggregate) {
+        return aggregate.getHighCalorieSessions();
+    }
 
-        return sessions.stream().filter(s -> s.getCaloriesBurned() != null && s.getCaloriesBurned() > 500).count();
+    public Long getCaloriesBurned(SessionTable table) {
+        return kernels.countGreaterThan(table, Metric.CALORIES_BURNED, SessionAggregate.HIGH_CALORIE_THRESHOLD);
+    }
 
+    public Long getCaloriesBurned(OffHeapSessionTable table) {
+        return table.countGreaterThan(Metric.CALORIES_BURNED, SessionAggregate.HIGH_CALORIE_THRESHOLD);
     }
 
-    public Map<Double, Long> getExperienceLevelPerSession(List<ActivitySession> sessions) {
+    // Ad-hoc questions as a filter / group-by / aggregate query instead of a
+    // method each. The > 500 kcal count above is
+    // SessionQuery.count(Condition.compare(CALORIES_BURNED, GT, 500)).
+
+    public QueryResult query(SessionTable table, ZoneMap zones, SessionQuery query) {
+        return QueryExecutor.execute(table, zones, query);
+    }
+
+    public QueryResult query(SessionTable table, SessionQuery query) {
+        return query(table, ZoneMap.of(table), query);
+    }
 
-        return sessions.stream().filter(s -> s.getExperienceLevel() != null)
-                .collect(Collectors.groupingBy(ActivitySession::getExperienceLevel,
-                        Collectors.counting()
-                ));
+    public Map<Double, Long> getExperienceLevelPerSession(List<ActivitySession> sessions) {
+        return getExperienceLevelPerSession(aggregate(sessions));
+    }
 
+    public Map<Double, Long> getExperienceLevelPerSession(SessionAggregate aggregate) {
+        return sessionCounts(aggregate.getByExperienceLevel());
     }
 
    // For each experience level, find the session with the longest duration.
 
     public Map<Double, ActivitySession> getMaxDurationPerExpLevel(List<ActivitySession> sessions){
+        return getMaxDurationPerExpLevel(aggregate(sessions));
+    }
+
+    public Map<Double, ActivitySession> getMaxDurationPerExpLevel(SessionAggregate aggregate) {
+        return aggregate.getLongestSessionByExperienceLevel().snapshot();
+    }
+
+    // p50 / p90 / p99 of avgBpm, maxBpm, sessionDurationHours or caloriesBurned
+    // (see MetricDistributions.METRICS) per workout type and per experience level
+
+    public Map<String, QuantileSummary> getQuantilesByWoType(List<ActivitySession> sessions, Metric metric) {
+        return getQuantilesByWoType(aggregate(sessions), metric);
+    }
+
+    public Map<String, QuantileSummary> getQuantilesByWoType(SessionAggregate aggregate, Metric metric) {
+        return distributionByGroup(aggregate.getDistributionsByWorkoutType(), metric,
+                distributions -> QuantileSummary.of(distributions.sketch(metric)));
+    }
+
+    public Map<Double, QuantileSummary> getQuantilesByExperience(List<ActivitySession> sessions, Metric metric) {
+        return getQuantilesByExperience(aggregate(sessions), metric);
+    }
+
+    public Map<Double, QuantileSummary> getQuantilesByExperience(SessionAggregate aggregate, Metric metric) {
+        return distributionByGroup(aggregate.getDistributionsByExperienceLevel(), metric,
+                distributions -> QuantileSummary.of(distributions.sketch(metric)));
+    }
+
+    // Fixed-bucket histograms of the same metrics and groups
+
+    public Map<String, List<FixedHistogram.Bucket>> getHistogramByWoType(SessionAggregate aggregate, Metric metric) {
+        return distributionByGroup(aggregate.getDistributionsByWorkoutType(), metric,
+                distributions -> distributions.histogram(metric).buckets());
+    }
+
+    public Map<Double, List<FixedHistogram.Bucket>> getHistogramByExperience(SessionAggregate aggregate,
+                                                                             Metric metric) {
+        return distributionByGroup(aggregate.getDistributionsByExperienceLevel(), metric,
+                distributions -> distributions.histogram(metric).buckets());
+    }
+
+
+    private static <K> Map<K, Long> sessionCounts(Map<K, GroupStats> groups) {
+        Map<K, Long> result = new HashMap<>();
+        groups.forEach((key, stats) -> result.put(key, stats.sessions()));
+        return result;
+    }
+
+    // Numeric-keyed groups are copied out of their index in one pass. The
+    // copy keeps first-appearance order and doesn't follow later merges into
+    // the aggregate.
+
+    private static <K> Map<K, Long> sessionCounts(NumericKeyMap<K, GroupStats> groups) {
+        return groups.mapValues(GroupStats::sessions).snapshot();
+    }
+
+    // Groups without a value of the metric are left out, like in metricByGroup
+
+    private static <K, V> Map<K, V> distributionByGroup(Map<K, MetricDistributions> groups, Metric metric,
+                                                       Function<MetricDistributions, V> view) {
+        if (!MetricDistributions.tracks(metric)) {
+            throw new IllegalArgumentException("No distribution is kept for " + metric);
+        }
+        Map<K, V> result = new HashMap<>();
+        groups.forEach((key, distributions) -> {
+            if (distributions.sketch(metric).count() > 0) {
+                result.put(key, view.apply(distributions));
+            }
+        });
+        return result;
+    }
+
+    // Only groups with at least one non-null value of the metric are reported,
+    // matching the null filters of the original per-metric streams.
+
+    private static <K> Map<K, Double> metricByGroup(Map<K, GroupStats> groups, Metric metric,
+                                                    ToDoubleFunction<MetricStats> value) {
+        Map<K, Double> result = new HashMap<>();
+        groups.forEach((key, stats) -> {
+            MetricStats metricStats = stats.metric(metric);
+            if (metricStats.count() > 0) {
+                result.put(key, value.applyAsDouble(metricStats));
+            }
+        });
+        return result;
+    }
 
-        return sessions.stream().filter(s->s.getExperienceLevel()!=null && s.getSessionDurationHours()!=null)
-                .collect(Collectors.groupingBy(ActivitySession::getExperienceLevel,
-                        Collectors.collectingAndThen(Collectors.maxBy(Comparator.comparing(ActivitySession::getSessionDurationHours))
-                        , optional -> optional.orElse(null))));
+    private static <K> Map<K, Double> metricByGroup(NumericKeyMap<K, GroupStats> groups, Metric metric,
+                                                    ToDoubleFunction<MetricStats> value) {
+        return groups.mapValues(stats -> {
+            MetricStats metricStats = stats.metric(metric);
+            return metricStats.count() > 0 ? value.applyAsDouble(metricStats) : null;
+        }).snapshot();
     }
 
 }
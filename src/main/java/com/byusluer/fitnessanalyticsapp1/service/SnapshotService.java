@@ -0,0 +1,101 @@
+package com.byusluer.fitnessanalyticsapp1.service;
+
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.csv.LoadReport;
+import com.byusluer.fitnessanalyticsapp1.csv.LoadResult;
+import com.byusluer.fitnessanalyticsapp1.csv.SkipReason;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.TableSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Loads CSV files through a binary TableSnapshot. The snapshot is written
+// after a successful parse and used instead of the CSV while the file's
+// length and CRC32C still match; otherwise the CSV is parsed again and the
+// snapshot replaced. Snapshot problems are logged and never fail a load.
+
+@Slf4j
+@Service
+public class SnapshotService {
+
+    public static final String SUFFIX = ".snapshot";
+
+    private final CsvLoaderService csvLoaderService;
+    private final FitnessAnalyticsProperties.Snapshot settings;
+
+    public SnapshotService(CsvLoaderService csvLoaderService, FitnessAnalyticsProperties properties) {
+        this.csvLoaderService = csvLoaderService;
+        this.settings = properties.getSnapshot();
+    }
+
+    public LoadResult<SessionTable> loadTable(Path csv) {
+        if (!settings.isEnabled()) {
+            return csvLoaderService.loadTable(csv);
+        }
+
+        long start = System.nanoTime();
+        Path snapshot = snapshotPath(csv);
+        TableSnapshot.Source source;
+        try {
+            source = TableSnapshot.Source.of(csv);
+        } catch (IOException e) {
+            throw new RuntimeException("CSV file couldn't be read: " + csv, e);
+        }
+
+        try {
+            SessionTable table = TableSnapshot.read(snapshot, source);
+            if (table != null) {
+                LoadReport report = report(snapshot, table, start);
+                log.info("Loaded {} sessions from snapshot {} in {} ms", table.size(), snapshot,
+                        report.getParseTime().toMillis());
+                return new LoadResult<>(table, report);
+            }
+            log.info("No current snapshot for {}, parsing the CSV file", csv);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Snapshot {} couldn't be read, parsing the CSV file", snapshot, e);
+        }
+
+        LoadResult<SessionTable> load = csvLoaderService.loadTable(csv);
+        try {
+            TableSnapshot.write(load.getData(), source, snapshot);
+            log.info("Wrote snapshot {}", snapshot);
+        } catch (IOException e) {
+            log.warn("Snapshot {} couldn't be written", snapshot, e);
+        }
+        return load;
+    }
+
+    Path snapshotPath(Path csv) {
+        String name = csv.getFileName() + SUFFIX;
+        Path directory = settings.getDirectory();
+        return directory != null ? directory.resolve(name) : csv.resolveSibling(name);
+    }
+
+    private static LoadReport report(Path snapshot, SessionTable table, long startNanos) {
+        Map<SkipReason, Long> skipped = new EnumMap<>(SkipReason.class);
+        for (SkipReason reason : SkipReason.values()) {
+            skipped.put(reason, 0L);
+        }
+        long bytes;
+        try {
+            bytes = Files.size(snapshot);
+        } catch (IOException e) {
+            bytes = 0;
+        }
+        return LoadReport.builder()
+                .source(snapshot.toString())
+                .rowsRead(table.size())
+                .rowsAccepted(table.size())
+                .rowsSkipped(skipped)
+                .bytesProcessed(bytes)
+                .parseTime(Duration.ofNanos(System.nanoTime() - startNanos))
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.byusluer.fitnessanalyticsapp1.sketch;
+
+// Count-Min sketch: depth rows of width counters. An estimate never
+// undercounts, and with probability at least 1 - delta it overcounts by at
+// most epsilon * totalCount, where width = ceil(e / epsilon) and
+// depth = ceil(ln(1 / delta)). Keys are hashed from hashCode(), so two
+// sketches built with the same dimensions can always be merged.
+
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[] counts;
+    private long totalCount;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("width and depth must be positive: " + width + "x" + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counts = new long[width * depth];
+    }
+
+    public static CountMinSketch withError(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("epsilon and delta must be in (0, 1): " + epsilon + ", " + delta);
+        }
+        return new CountMinSketch((int) Math.ceil(Math.E / epsilon), (int) Math.ceil(Math.log(1 / delta)));
+    }
+
+    public void add(Object key, long count) {
+        long hash = mix(key.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + Math.floorMod(h1 + row * h2, width)] += count;
+        }
+        totalCount += count;
+    }
+
+    public long estimate(Object key) {
+        long hash = mix(key.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row * width + Math.floorMod(h1 + row * h2, width)]);
+        }
+        return estimate;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge a " + other.width + "x" + other.depth
+                    + " sketch into a " + width + "x" + depth + " sketch");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    // Overcount that holds with probability confidence()
+    public long errorBound() {
+        return (long) Math.ceil(Math.E / width * totalCount);
+    }
+
+    public double confidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    public long totalCount() {
+        return totalCount;
+    }
+
+    // MurmurHash3 finalizer, spreads hashCode() over 64 bits
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,73 @@
+package com.byusluer.fitnessanalyticsapp1.sketch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Counts per fixed-width bucket [start + i * width, start + (i + 1) * width),
+// plus one bucket for values below start and one for values at or above the
+// end. Histograms with the same layout merge by adding counts.
+
+public final class FixedHistogram {
+
+    private final double start;
+    private final double width;
+    private final long[] counts;
+    private long underflow;
+    private long overflow;
+
+    public FixedHistogram(double start, double width, int buckets) {
+        if (!(width > 0) || buckets < 1) {
+            throw new IllegalArgumentException("width and buckets must be positive: " + width + ", " + buckets);
+        }
+        this.start = start;
+        this.width = width;
+        this.counts = new long[buckets];
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        double offset = (value - start) / width;
+        if (offset < 0) {
+            underflow++;
+        } else if (offset >= counts.length) {
+            overflow++;
+        } else {
+            counts[(int) offset]++;
+        }
+    }
+
+    public void merge(FixedHistogram other) {
+        if (other.start != start || other.width != width || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Histogram layouts differ");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        underflow += other.underflow;
+        overflow += other.overflow;
+    }
+
+    public FixedHistogram copy() {
+        FixedHistogram copy = new FixedHistogram(start, width, counts.length);
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.underflow = underflow;
+        copy.overflow = overflow;
+        return copy;
+    }
+
+    // Every bucket in order, the open-ended ones first and last
+    public List<Bucket> buckets() {
+        List<Bucket> buckets = new ArrayList<>(counts.length + 2);
+        buckets.add(new Bucket(Double.NEGATIVE_INFINITY, start, underflow));
+        for (int i = 0; i < counts.length; i++) {
+            buckets.add(new Bucket(start + i * width, start + (i + 1) * width, counts[i]));
+        }
+        buckets.add(new Bucket(start + counts.length * width, Double.POSITIVE_INFINITY, overflow));
+        return buckets;
+    }
+
+    public record Bucket(double lower, double upper, long count) {
+    }
+}
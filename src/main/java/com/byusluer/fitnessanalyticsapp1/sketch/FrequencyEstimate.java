@@ -0,0 +1,11 @@
+package com.byusluer.fitnessanalyticsapp1.sketch;
+
+// Approximate frequency of one key: the true count lies in
+// [lowerBound, upperBound] and count is the reported point estimate.
+
+public record FrequencyEstimate<K>(K key, long count, long lowerBound, long upperBound) {
+
+    public boolean isExact() {
+        return lowerBound == upperBound;
+    }
+}
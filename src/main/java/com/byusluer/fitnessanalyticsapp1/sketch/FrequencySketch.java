@@ -0,0 +1,60 @@
+package com.byusluer.fitnessanalyticsapp1.sketch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Bounded-memory frequency counts of a stream of keys. A Space-Saving summary
+// tracks the heavy hitters and a Count-Min sketch tightens the upper bound of
+// every estimate; neither grows with the number of distinct keys. Two sketches
+// created with the same settings merge into the sketch of both streams, so
+// partitions can be counted separately.
+
+public final class FrequencySketch<K> {
+
+    private final SpaceSaving<K> heavyHitters;
+    private final CountMinSketch counts;
+
+    public FrequencySketch(int capacity, double epsilon, double delta) {
+        this.heavyHitters = new SpaceSaving<>(capacity);
+        this.counts = CountMinSketch.withError(epsilon, delta);
+    }
+
+    public void add(K key) {
+        heavyHitters.add(key, 1);
+        counts.add(key, 1);
+    }
+
+    public void merge(FrequencySketch<K> other) {
+        heavyHitters.merge(other.heavyHitters);
+        counts.merge(other.counts);
+    }
+
+    public FrequencyEstimate<K> estimate(K key) {
+        long countMin = counts.estimate(key);
+        SpaceSaving.Entry<K> entry = heavyHitters.get(key);
+        if (entry == null) {
+            long upper = Math.min(countMin, heavyHitters.unmonitoredBound());
+            return new FrequencyEstimate<>(key, upper, 0, upper);
+        }
+        long upper = Math.min(entry.count(), countMin);
+        return new FrequencyEstimate<>(key, upper, entry.count() - entry.error(), upper);
+    }
+
+    public TopK<K> top(int k) {
+        List<FrequencyEstimate<K>> items = new ArrayList<>();
+        for (SpaceSaving.Entry<K> entry : heavyHitters.top(k)) {
+            long upper = Math.min(entry.count(), counts.estimate(entry.key()));
+            items.add(new FrequencyEstimate<>(entry.key(), upper, entry.count() - entry.error(), upper));
+        }
+        return new TopK<>(items, heavyHitters.totalCount(), heavyHitters.unmonitoredBound(),
+                counts.errorBound(), counts.confidence());
+    }
+
+    public long totalCount() {
+        return heavyHitters.totalCount();
+    }
+
+    public int capacity() {
+        return heavyHitters.capacity();
+    }
+}
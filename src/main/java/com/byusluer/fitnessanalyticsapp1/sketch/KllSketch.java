@@ -0,0 +1,214 @@
+package com.byusluer.fitnessanalyticsapp1.sketch;
+
+import java.util.Arrays;
+
+// KLL quantile sketch over doubles. Level h holds items of weight 2^h; when
+// the sketch is over capacity the lowest full level is sorted and every
+// other item moves up a level. Level capacities shrink geometrically (2/3)
+// towards level 0, so space is O(k) however many values are added, and
+// estimated ranks are off by about normalizedRankError() * count.
+//
+// The items kept by a compaction alternate per level instead of being chosen
+// at random, so the same input and merge order always give the same sketch.
+// Up to k values the sketch is exact.
+
+public final class KllSketch {
+
+    public static final int DEFAULT_K = 200;
+
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private double[][] levels = {new double[MIN_LEVEL_CAPACITY]};
+    private int[] sizes = new int[1];
+    private boolean[] offsets = new boolean[1];
+    private int retained;
+    private int capacity;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_LEVEL_CAPACITY + ": " + k);
+        }
+        this.k = k;
+        this.capacity = levelCapacity(0);
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+        count++;
+        append(0, value);
+        retained++;
+        if (retained > capacity) {
+            compress();
+        }
+    }
+
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        count += other.count;
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+            retained += other.sizes[level];
+        }
+        while (retained > capacity) {
+            compress();
+        }
+    }
+
+    public KllSketch copy() {
+        KllSketch copy = new KllSketch(k);
+        copy.levels = new double[levels.length][];
+        for (int level = 0; level < levels.length; level++) {
+            copy.levels[level] = levels[level].clone();
+        }
+        copy.sizes = sizes.clone();
+        copy.offsets = offsets.clone();
+        copy.retained = retained;
+        copy.capacity = capacity;
+        copy.count = count;
+        copy.min = min;
+        copy.max = max;
+        return copy;
+    }
+
+    // Smallest retained value whose estimated rank reaches q * count; the
+    // exact nearest-rank quantile while nothing has been compacted. NaN when
+    // the sketch is empty.
+
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be in [0, 1]: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q == 0) return min;
+        if (q == 1) return max;
+
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for (int level = 0; level < levels.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                values[n] = levels[level][i];
+                weights[n++] = 1L << level;
+            }
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        long target = (long) Math.ceil(q * count);
+        long cumulative = 0;
+        for (Integer index : order) {
+            cumulative += weights[index];
+            if (cumulative >= target) {
+                return values[index];
+            }
+        }
+        return max;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public boolean isExact() {
+        return levels.length == 1;
+    }
+
+    // Typical normalized rank error of a quantile for this k, 0 while exact
+    public double normalizedRankError() {
+        return isExact() ? 0.0 : 2.296 / Math.pow(k, 0.9723);
+    }
+
+    private int levelCapacity(int level) {
+        int depth = levels.length - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+    }
+
+    // Compacts the lowest level that is at capacity: sorts it and promotes
+    // every other item, keeping one back when the size is odd.
+
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            if (sizes[level] < levelCapacity(level)) {
+                continue;
+            }
+            if (level + 1 == levels.length) {
+                addLevel();
+            }
+            double[] items = levels[level];
+            int size = sizes[level];
+            Arrays.sort(items, 0, size);
+            int kept = size % 2;
+            int offset = offsets[level] ? 1 : 0;
+            offsets[level] = !offsets[level];
+            for (int i = kept + offset; i < size; i += 2) {
+                append(level + 1, items[i]);
+            }
+            // With an odd size the smallest item stays at this level
+            sizes[level] = kept;
+            retained -= (size - kept) / 2;
+            return;
+        }
+    }
+
+    private void addLevel() {
+        int levelCount = levels.length + 1;
+        levels = Arrays.copyOf(levels, levelCount);
+        levels[levelCount - 1] = new double[MIN_LEVEL_CAPACITY];
+        sizes = Arrays.copyOf(sizes, levelCount);
+        offsets = Arrays.copyOf(offsets, levelCount);
+        capacity = 0;
+        for (int level = 0; level < levelCount; level++) {
+            capacity += levelCapacity(level);
+        }
+    }
+
+    private void append(int level, double value) {
+        while (level >= levels.length) {
+            addLevel();
+        }
+        double[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = levels[level] = Arrays.copyOf(items, items.length * 2);
+        }
+        items[sizes[level]++] = value;
+    }
+}
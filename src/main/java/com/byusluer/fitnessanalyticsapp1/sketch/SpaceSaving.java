@@ -0,0 +1,208 @@
+package com.byusluer.fitnessanalyticsapp1.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Space-Saving heavy-hitter summary with a fixed number of counters. A key
+// that is not monitored takes over the counter with the smallest count and
+// inherits that count as its error, so for every monitored key
+//   count - error <= true frequency <= count
+// and every key that is not monitored occurred at most unmonitoredBound()
+// times. Counters sit in an indexed min-heap: add is O(log capacity).
+
+public final class SpaceSaving<K> {
+
+    private static final Comparator<Counter<?>> BY_COUNT_DESCENDING =
+            Comparator.<Counter<?>>comparingLong(c -> c.count).reversed().thenComparingLong(c -> c.sequence);
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private final Counter<K>[] heap;
+    private int size;
+    private long totalCount;
+    private long nextSequence;
+    // Bound for keys dropped when merging, on top of the smallest counter
+    private long mergedBound;
+
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    public void add(K key) {
+        add(key, 1);
+    }
+
+    public void add(K key, long count) {
+        totalCount += count;
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count += count;
+            siftDown(counter.index);
+        } else if (size < capacity) {
+            counter = new Counter<>(key, count, 0, nextSequence++);
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.index);
+        } else {
+            Counter<K> smallest = heap[0];
+            counters.remove(smallest.key);
+            smallest.key = key;
+            smallest.error = smallest.count;
+            smallest.count += count;
+            smallest.sequence = nextSequence++;
+            counters.put(key, smallest);
+            siftDown(0);
+        }
+    }
+
+    // Mergeable-summaries combine: a key missing on one side may have
+    // occurred there up to that side's unmonitored bound, which is added to
+    // its count and error. The largest counters are kept; this side's keys
+    // come first on ties.
+
+    public void merge(SpaceSaving<K> other) {
+        long thisBound = unmonitoredBound();
+        long otherBound = other.unmonitoredBound();
+
+        Map<K, Counter<K>> union = new LinkedHashMap<>();
+        for (Counter<K> counter : sortedBySequence()) {
+            Counter<K> theirs = other.counters.get(counter.key);
+            union.put(counter.key, theirs != null
+                    ? new Counter<>(counter.key, counter.count + theirs.count, counter.error + theirs.error, 0)
+                    : new Counter<>(counter.key, counter.count + otherBound, counter.error + otherBound, 0));
+        }
+        for (Counter<K> counter : other.sortedBySequence()) {
+            if (!union.containsKey(counter.key)) {
+                union.put(counter.key,
+                        new Counter<>(counter.key, counter.count + thisBound, counter.error + thisBound, 0));
+            }
+        }
+        long sequence = 0;
+        for (Counter<K> counter : union.values()) {
+            counter.sequence = sequence++;
+        }
+
+        List<Counter<K>> merged = new ArrayList<>(union.values());
+        merged.sort(BY_COUNT_DESCENDING);
+        long dropped = merged.size() > capacity ? merged.get(capacity).count : 0;
+
+        counters.clear();
+        Arrays.fill(heap, null);
+        size = 0;
+        for (Counter<K> counter : merged.subList(0, Math.min(capacity, merged.size()))) {
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(counter.key, counter);
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        nextSequence = sequence;
+        totalCount += other.totalCount;
+        mergedBound = Math.max(thisBound + otherBound, dropped);
+    }
+
+    // Monitored keys, largest count first; ties in first-monitored order
+    public List<Entry<K>> top(int k) {
+        List<Counter<K>> sorted = new ArrayList<>(counters.values());
+        sorted.sort(BY_COUNT_DESCENDING);
+        List<Entry<K>> result = new ArrayList<>(Math.min(k, sorted.size()));
+        for (Counter<K> counter : sorted.subList(0, Math.min(k, sorted.size()))) {
+            result.add(new Entry<>(counter.key, counter.count, counter.error));
+        }
+        return result;
+    }
+
+    // null when the key is not monitored
+    public Entry<K> get(K key) {
+        Counter<K> counter = counters.get(key);
+        return counter == null ? null : new Entry<>(counter.key, counter.count, counter.error);
+    }
+
+    public long unmonitoredBound() {
+        return Math.max(mergedBound, size == capacity ? heap[0].count : 0);
+    }
+
+    public long totalCount() {
+        return totalCount;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public record Entry<K>(K key, long count, long error) {
+    }
+
+    private List<Counter<K>> sortedBySequence() {
+        List<Counter<K>> sorted = new ArrayList<>(counters.values());
+        sorted.sort(Comparator.comparingLong(c -> c.sequence));
+        return sorted;
+    }
+
+    // Min-heap on count, older counters first on ties
+
+    private static boolean less(Counter<?> a, Counter<?> b) {
+        return a.count < b.count || (a.count == b.count && a.sequence < b.sequence);
+    }
+
+    private void siftUp(int index) {
+        Counter<K> counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(counter, heap[parent])) break;
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<K> counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) break;
+            if (child + 1 < size && less(heap[child + 1], heap[child])) child++;
+            if (!less(heap[child], counter)) break;
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter<K> counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private static final class Counter<K> {
+        K key;
+        long count;
+        long error;
+        long sequence;
+        int index;
+
+        Counter(K key, long count, long error, long sequence) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.byusluer.fitnessanalyticsapp1.sketch;
+
+import java.util.List;
+
+// Largest keys of a FrequencySketch with the bounds that come with them.
+// unmonitoredBound is the most any key missing from items can have occurred.
+// countMinError is the largest overcount of a Count-Min estimate, which holds
+// with probability confidence.
+
+public record TopK<K>(List<FrequencyEstimate<K>> items, long totalCount, long unmonitoredBound,
+                      long countMinError, double confidence) {
+
+    // True when the bounds prove that items are exactly the most frequent keys
+    // in this order
+    public boolean isGuaranteed() {
+        for (int i = 1; i < items.size(); i++) {
+            if (items.get(i - 1).lowerBound() < items.get(i).upperBound()) {
+                return false;
+            }
+        }
+        return items.isEmpty() || items.get(items.size() - 1).lowerBound() >= unmonitoredBound;
+    }
+}
@@ -0,0 +1,53 @@
+package com.byusluer.fitnessanalyticsapp1.sketch;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.StringDictionary;
+
+// Streaming counterparts of the exact workout type and weekly frequency
+// counts. Sessions can be added forever in bounded memory; nulls are skipped
+// like in the exact group-bys.
+
+public final class WorkoutFrequencySketches {
+
+    private final FrequencySketch<String> workoutTypes;
+    private final FrequencySketch<Integer> workoutFrequencies;
+
+    public WorkoutFrequencySketches(int capacity, double epsilon, double delta) {
+        this.workoutTypes = new FrequencySketch<>(capacity, epsilon, delta);
+        this.workoutFrequencies = new FrequencySketch<>(capacity, epsilon, delta);
+    }
+
+    public void add(ActivitySession session) {
+        if (session.getWorkoutType() != null) {
+            workoutTypes.add(session.getWorkoutType());
+        }
+        if (session.getWorkoutFrequencyPerWeek() != null) {
+            workoutFrequencies.add(session.getWorkoutFrequencyPerWeek());
+        }
+    }
+
+    public void add(SessionTable table, int row) {
+        int type = table.workoutTypeCode(row);
+        if (type != StringDictionary.NULL_CODE) {
+            workoutTypes.add(table.workoutTypes().decode(type));
+        }
+        if (table.isPresent(Metric.WORKOUT_FREQUENCY_PER_WEEK, row)) {
+            workoutFrequencies.add(table.getInt(Metric.WORKOUT_FREQUENCY_PER_WEEK, row));
+        }
+    }
+
+    public void merge(WorkoutFrequencySketches other) {
+        workoutTypes.merge(other.workoutTypes);
+        workoutFrequencies.merge(other.workoutFrequencies);
+    }
+
+    public FrequencySketch<String> workoutTypes() {
+        return workoutTypes;
+    }
+
+    public FrequencySketch<Integer> workoutFrequencies() {
+        return workoutFrequencies;
+    }
+}
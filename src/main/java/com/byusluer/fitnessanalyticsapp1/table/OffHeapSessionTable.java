@@ -0,0 +1,461 @@
+package com.byusluer.fitnessanalyticsapp1.table;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.ColumnStats;
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.aggregation.MetricStats;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// SessionTable counterpart whose columns live outside the Java heap, in
+// MemorySegments of a shared Arena, so the row count is bounded by native
+// memory (or disk, when file-backed) instead of -Xmx and the collector never
+// scans the data. Only the two dictionaries stay on the heap.
+//
+// Rows are stored in chunks of CHUNK_ROWS with a fixed-width column layout:
+//
+//   per metric in ordinal order   validity long[CHUNK_ROWS / 64], then int[] or double[CHUNK_ROWS]
+//   codes                         gender int[CHUNK_ROWS], then workout type int[CHUNK_ROWS]
+//
+// Appending never moves existing rows, a new chunk is allocated (or mapped)
+// when the last one is full. A file-backed table maps its chunks from a
+// scratch file instead, so the OS can page them out; the file is only backing
+// store, TableSnapshot remains the persistent format.
+//
+// Closing the table frees or unmaps every chunk; reads afterwards throw
+// IllegalStateException.
+
+public final class OffHeapSessionTable implements AutoCloseable {
+
+    public static final int CHUNK_SHIFT = 16;
+    public static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    public static final long CHUNK_BYTES;
+
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    private static final int CHUNK_WORDS = CHUNK_ROWS >>> 6;
+    private static final long[] VALIDITY_OFFSETS = new long[Metric.VALUES.length];
+    private static final long[] VALUE_OFFSETS = new long[Metric.VALUES.length];
+    private static final long GENDER_OFFSET;
+    private static final long WORKOUT_TYPE_OFFSET;
+
+    static {
+        long offset = 0;
+        for (Metric metric : Metric.VALUES) {
+            VALIDITY_OFFSETS[metric.ordinal()] = offset;
+            offset += CHUNK_WORDS * (long) Long.BYTES;
+            VALUE_OFFSETS[metric.ordinal()] = offset;
+            offset += CHUNK_ROWS * (long) (metric.isIntegral() ? Integer.BYTES : Double.BYTES);
+        }
+        GENDER_OFFSET = offset;
+        WORKOUT_TYPE_OFFSET = offset + CHUNK_ROWS * (long) Integer.BYTES;
+        CHUNK_BYTES = WORKOUT_TYPE_OFFSET + CHUNK_ROWS * (long) Integer.BYTES;
+    }
+
+    private final long size;
+    private final Arena arena;
+    private final MemorySegment[] chunks;
+    private final StringDictionary genders;
+    private final StringDictionary workoutTypes;
+
+    private OffHeapSessionTable(long size, Arena arena, MemorySegment[] chunks,
+                                StringDictionary genders, StringDictionary workoutTypes) {
+        this.size = size;
+        this.arena = arena;
+        this.chunks = chunks;
+        this.genders = genders;
+        this.workoutTypes = workoutTypes;
+    }
+
+    // Off-heap copy of a heap table, in native memory or mapped from file
+
+    public static OffHeapSessionTable of(SessionTable table) {
+        return of(table, new Builder());
+    }
+
+    public static OffHeapSessionTable of(SessionTable table, Path file) {
+        return of(table, new Builder(file));
+    }
+
+    private static OffHeapSessionTable of(SessionTable table, Builder builder) {
+        builder.append(table);
+        return builder.build();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int chunkCount() {
+        return chunks.length;
+    }
+
+    // Rows stored in the given chunk; CHUNK_ROWS for all but the last one
+    public int chunkRows(int chunk) {
+        return (int) Math.min(CHUNK_ROWS, size - ((long) chunk << CHUNK_SHIFT));
+    }
+
+    public boolean isPresent(Metric metric, long row) {
+        MemorySegment chunk = chunk(row);
+        int index = (int) row & CHUNK_MASK;
+        long word = chunk.get(ValueLayout.JAVA_LONG,
+                VALIDITY_OFFSETS[metric.ordinal()] + (long) (index >>> 6) * Long.BYTES);
+        return (word & (1L << index)) != 0;
+    }
+
+    public int getInt(Metric metric, long row) {
+        return chunk(row).getAtIndex(ValueLayout.JAVA_INT,
+                VALUE_OFFSETS[metric.ordinal()] / Integer.BYTES + ((int) row & CHUNK_MASK));
+    }
+
+    // Works for integral metrics too
+
+    public double getDouble(Metric metric, long row) {
+        if (metric.isIntegral()) {
+            return getInt(metric, row);
+        }
+        return chunk(row).getAtIndex(ValueLayout.JAVA_DOUBLE,
+                VALUE_OFFSETS[metric.ordinal()] / Double.BYTES + ((int) row & CHUNK_MASK));
+    }
+
+    public int genderCode(long row) {
+        return chunk(row).getAtIndex(ValueLayout.JAVA_INT, GENDER_OFFSET / Integer.BYTES + ((int) row & CHUNK_MASK));
+    }
+
+    public int workoutTypeCode(long row) {
+        return chunk(row).getAtIndex(ValueLayout.JAVA_INT,
+                WORKOUT_TYPE_OFFSET / Integer.BYTES + ((int) row & CHUNK_MASK));
+    }
+
+    public StringDictionary genders() {
+        return genders;
+    }
+
+    public StringDictionary workoutTypes() {
+        return workoutTypes;
+    }
+
+    public ActivitySession toSession(long row) {
+        return ActivitySession.builder()
+                .age(boxedInt(Metric.AGE, row))
+                .gender(genders.decode(genderCode(row)))
+                .weightKg(boxedDouble(Metric.WEIGHT_KG, row))
+                .heightM(boxedDouble(Metric.HEIGHT_M, row))
+                .maxBpm(boxedInt(Metric.MAX_BPM, row))
+                .avgBpm(boxedInt(Metric.AVG_BPM, row))
+                .restingBpm(boxedInt(Metric.RESTING_BPM, row))
+                .sessionDurationHours(boxedDouble(Metric.SESSION_DURATION_HOURS, row))
+                .caloriesBurned(boxedInt(Metric.CALORIES_BURNED, row))
+                .workoutType(workoutTypes.decode(workoutTypeCode(row)))
+                .fatPercentage(boxedDouble(Metric.FAT_PERCENTAGE, row))
+                .waterIntakeLiters(boxedDouble(Metric.WATER_INTAKE_LITERS, row))
+                .workoutFrequencyPerWeek(boxedInt(Metric.WORKOUT_FREQUENCY_PER_WEEK, row))
+                .experienceLevel(boxedDouble(Metric.EXPERIENCE_LEVEL, row))
+                .bmi(boxedDouble(Metric.BMI, row))
+                .build();
+    }
+
+    // Same numbers as ScalarColumnKernels over the heap table, read straight
+    // from the segments
+
+    public ColumnStats stats(Metric metric) {
+        MetricStats stats = new MetricStats();
+        long validity = VALIDITY_OFFSETS[metric.ordinal()];
+        long values = VALUE_OFFSETS[metric.ordinal()];
+        for (int c = 0; c < chunks.length; c++) {
+            MemorySegment chunk = chunks[c];
+            int rows = chunkRows(c);
+            for (int row = 0; row < rows; row++) {
+                long word = chunk.get(ValueLayout.JAVA_LONG, validity + (long) (row >>> 6) * Long.BYTES);
+                if ((word & (1L << row)) == 0) {
+                    continue;
+                }
+                if (metric.isIntegral()) {
+                    stats.add(chunk.get(ValueLayout.JAVA_INT, values + (long) row * Integer.BYTES));
+                } else {
+                    stats.add(chunk.get(ValueLayout.JAVA_DOUBLE, values + (long) row * Double.BYTES));
+                }
+            }
+        }
+        return new ColumnStats(stats.count(), metric.isIntegral() ? stats.longSum() : stats.sum(),
+                metric.isIntegral() ? stats.longSum() : 0, stats.min(), stats.max());
+    }
+
+    public long countGreaterThan(Metric metric, double threshold) {
+        long validity = VALIDITY_OFFSETS[metric.ordinal()];
+        long values = VALUE_OFFSETS[metric.ordinal()];
+        long count = 0;
+        for (int c = 0; c < chunks.length; c++) {
+            MemorySegment chunk = chunks[c];
+            int rows = chunkRows(c);
+            for (int w = 0; w < (rows + 63) >>> 6; w++) {
+                long word = chunk.get(ValueLayout.JAVA_LONG, validity + (long) w * Long.BYTES);
+                while (word != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    double value = metric.isIntegral()
+                            ? chunk.get(ValueLayout.JAVA_INT, values + (long) row * Integer.BYTES)
+                            : chunk.get(ValueLayout.JAVA_DOUBLE, values + (long) row * Double.BYTES);
+                    if (value > threshold) count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Hands every chunk to action as a heap SessionTable in row order, so code
+    // written for SessionTable (SessionAggregate.of, the query executor, ...)
+    // runs over the off-heap rows with heap use bounded by one chunk. Full
+    // chunks share one set of arrays: a table is only valid until action
+    // returns and must not be kept. Dictionaries are shared with this table.
+
+    public void forEachChunk(Consumer<SessionTable> action) {
+        int[][] ints = new int[Metric.VALUES.length][];
+        double[][] doubles = new double[Metric.VALUES.length][];
+        long[][] present = new long[Metric.VALUES.length][];
+        int[] genderCodes = null;
+        int[] workoutTypeCodes = null;
+        for (int c = 0; c < chunks.length; c++) {
+            MemorySegment chunk = chunks[c];
+            int rows = chunkRows(c);
+            if (genderCodes == null || genderCodes.length != rows) {
+                for (Metric metric : Metric.VALUES) {
+                    int column = metric.ordinal();
+                    if (metric.isIntegral()) {
+                        ints[column] = new int[rows];
+                    } else {
+                        doubles[column] = new double[rows];
+                    }
+                    present[column] = new long[(rows + 63) >>> 6];
+                }
+                genderCodes = new int[rows];
+                workoutTypeCodes = new int[rows];
+            }
+            for (Metric metric : Metric.VALUES) {
+                int column = metric.ordinal();
+                MemorySegment.copy(chunk, ValueLayout.JAVA_LONG, VALIDITY_OFFSETS[column],
+                        present[column], 0, present[column].length);
+                if (metric.isIntegral()) {
+                    MemorySegment.copy(chunk, ValueLayout.JAVA_INT, VALUE_OFFSETS[column], ints[column], 0, rows);
+                } else {
+                    MemorySegment.copy(chunk, ValueLayout.JAVA_DOUBLE, VALUE_OFFSETS[column], doubles[column], 0, rows);
+                }
+            }
+            MemorySegment.copy(chunk, ValueLayout.JAVA_INT, GENDER_OFFSET, genderCodes, 0, rows);
+            MemorySegment.copy(chunk, ValueLayout.JAVA_INT, WORKOUT_TYPE_OFFSET, workoutTypeCodes, 0, rows);
+            action.accept(new SessionTable(rows, ints, doubles, present, genderCodes, workoutTypeCodes,
+                    genders, workoutTypes));
+        }
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private MemorySegment chunk(long row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        return chunks[(int) (row >>> CHUNK_SHIFT)];
+    }
+
+    private Integer boxedInt(Metric metric, long row) {
+        return isPresent(metric, row) ? getInt(metric, row) : null;
+    }
+
+    private Double boxedDouble(Metric metric, long row) {
+        return isPresent(metric, row) ? getDouble(metric, row) : null;
+    }
+
+    // Row-at-a-time builder with the SessionTable.Builder API. Values not set
+    // before commitRow() are null. The builder is not thread-safe; build() hands
+    // its memory over to the table, and close() frees it when the build is
+    // abandoned.
+
+    public static final class Builder implements AutoCloseable {
+
+        private final Arena arena = Arena.ofShared();
+        private final FileChannel file;
+        private final List<MemorySegment> chunks = new ArrayList<>();
+        private final StringDictionary genders = new StringDictionary();
+        private final StringDictionary workoutTypes = new StringDictionary();
+        private MemorySegment current;
+        private long size;
+        private int index; // row of size within current
+        private boolean built;
+
+        // Chunks in native memory
+
+        public Builder() {
+            file = null;
+        }
+
+        // Chunks mapped from file, which is created or truncated
+
+        public Builder(Path file) {
+            try {
+                this.file = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                arena.close();
+                throw new UncheckedIOException("Backing file couldn't be opened: " + file, e);
+            }
+        }
+
+        public Builder setInt(Metric metric, int value) {
+            MemorySegment chunk = ensureChunk();
+            int column = metric.ordinal();
+            if (metric.isIntegral()) {
+                chunk.set(ValueLayout.JAVA_INT, VALUE_OFFSETS[column] + (long) index * Integer.BYTES, value);
+            } else {
+                chunk.set(ValueLayout.JAVA_DOUBLE, VALUE_OFFSETS[column] + (long) index * Double.BYTES, value);
+            }
+            markPresent(chunk, column);
+            return this;
+        }
+
+        public Builder setDouble(Metric metric, double value) {
+            if (metric.isIntegral()) {
+                // Same truncation as the (int) cast applied by the CSV loader
+                return setInt(metric, (int) value);
+            }
+            MemorySegment chunk = ensureChunk();
+            int column = metric.ordinal();
+            chunk.set(ValueLayout.JAVA_DOUBLE, VALUE_OFFSETS[column] + (long) index * Double.BYTES, value);
+            markPresent(chunk, column);
+            return this;
+        }
+
+        public Builder setGender(String gender) {
+            ensureChunk().set(ValueLayout.JAVA_INT, GENDER_OFFSET + (long) index * Integer.BYTES,
+                    genders.encode(gender));
+            return this;
+        }
+
+        public Builder setWorkoutType(String workoutType) {
+            ensureChunk().set(ValueLayout.JAVA_INT, WORKOUT_TYPE_OFFSET + (long) index * Integer.BYTES,
+                    workoutTypes.encode(workoutType));
+            return this;
+        }
+
+        public void commitRow() {
+            ensureChunk();
+            size++;
+            if (++index == CHUNK_ROWS) {
+                current = null;
+                index = 0;
+            }
+        }
+
+        public void add(ActivitySession session) {
+            setGender(session.getGender());
+            setWorkoutType(session.getWorkoutType());
+            for (Metric metric : Metric.VALUES) {
+                Number value = metric.read(session);
+                if (value == null) {
+                    continue;
+                }
+                if (metric.isIntegral()) {
+                    setInt(metric, value.intValue());
+                } else {
+                    setDouble(metric, value.doubleValue());
+                }
+            }
+            commitRow();
+        }
+
+        // Appends all rows of a heap table
+        public void append(SessionTable table) {
+            for (int row = 0; row < table.size(); row++) {
+                setGender(table.genders().decode(table.genderCode(row)));
+                setWorkoutType(table.workoutTypes().decode(table.workoutTypeCode(row)));
+                for (Metric metric : Metric.VALUES) {
+                    if (!table.isPresent(metric, row)) {
+                        continue;
+                    }
+                    if (metric.isIntegral()) {
+                        setInt(metric, table.getInt(metric, row));
+                    } else {
+                        setDouble(metric, table.getDouble(metric, row));
+                    }
+                }
+                commitRow();
+            }
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public OffHeapSessionTable build() {
+            if (built) {
+                throw new IllegalStateException("Builder already built");
+            }
+            built = true;
+            closeFile();
+            return new OffHeapSessionTable(size, arena, chunks.toArray(MemorySegment[]::new),
+                    genders, workoutTypes);
+        }
+
+        @Override
+        public void close() {
+            if (!built) {
+                built = true;
+                closeFile();
+                arena.close();
+            }
+        }
+
+        private MemorySegment ensureChunk() {
+            if (current == null) {
+                if (built) {
+                    throw new IllegalStateException("Builder already built");
+                }
+                current = allocate();
+                // NULL_CODE is -1, so all bytes set
+                current.asSlice(GENDER_OFFSET, 2L * CHUNK_ROWS * Integer.BYTES).fill((byte) 0xFF);
+                chunks.add(current);
+            }
+            return current;
+        }
+
+        // New memory and newly mapped file regions both start zeroed, so all
+        // validity bits start cleared
+        private MemorySegment allocate() {
+            if (file == null) {
+                return arena.allocate(CHUNK_BYTES, Long.BYTES);
+            }
+            try {
+                return file.map(FileChannel.MapMode.READ_WRITE, chunks.size() * CHUNK_BYTES, CHUNK_BYTES, arena);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Backing file couldn't be extended", e);
+            }
+        }
+
+        private void markPresent(MemorySegment chunk, int column) {
+            long offset = VALIDITY_OFFSETS[column] + (long) (index >>> 6) * Long.BYTES;
+            chunk.set(ValueLayout.JAVA_LONG, offset, chunk.get(ValueLayout.JAVA_LONG, offset) | (1L << index));
+        }
+
+        private void closeFile() {
+            if (file == null) {
+                return;
+            }
+            try {
+                file.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Backing file couldn't be closed", e);
+            }
+        }
+    }
+}
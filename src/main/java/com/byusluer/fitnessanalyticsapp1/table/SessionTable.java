@@ -0,0 +1,375 @@
+package com.byusluer.fitnessanalyticsapp1.table;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Columnar, primitive-array representation of a list of ActivitySession rows.
+// Integer metrics live in int[] columns, the others in double[] columns, each
+// with a validity bitmap (bit set = value present). Gender and workout type are
+// dictionary encoded into int codes. Column arrays can be longer than size():
+// a Builder view shares them with the rows appended after it was taken.
+
+public final class SessionTable {
+
+    private final int size;
+    private final int[][] ints;
+    private final double[][] doubles;
+    private final long[][] present;
+    private final int[] genderCodes;
+    private final int[] workoutTypeCodes;
+    private final StringDictionary genders;
+    private final StringDictionary workoutTypes;
+
+    SessionTable(int size, int[][] ints, double[][] doubles, long[][] present,
+                         int[] genderCodes, int[] workoutTypeCodes,
+                         StringDictionary genders, StringDictionary workoutTypes) {
+        this.size = size;
+        this.ints = ints;
+        this.doubles = doubles;
+        this.present = present;
+        this.genderCodes = genderCodes;
+        this.workoutTypeCodes = workoutTypeCodes;
+        this.genders = genders;
+        this.workoutTypes = workoutTypes;
+    }
+
+    public static SessionTable of(List<ActivitySession> sessions) {
+        Builder builder = new Builder(sessions.size());
+        sessions.forEach(builder::add);
+        return builder.build();
+    }
+
+    // Appends the tables in order. Dictionaries are merged in table order, so
+    // codes keep their first-appearance order across the whole result.
+
+    public static SessionTable concat(List<SessionTable> tables) {
+        if (tables.size() == 1) {
+            return tables.get(0);
+        }
+        int total = 0;
+        for (SessionTable table : tables) {
+            total += table.size;
+        }
+
+        int[][] ints = new int[Metric.VALUES.length][];
+        double[][] doubles = new double[Metric.VALUES.length][];
+        long[][] present = new long[Metric.VALUES.length][];
+        for (Metric metric : Metric.VALUES) {
+            int column = metric.ordinal();
+            if (metric.isIntegral()) {
+                ints[column] = new int[total];
+            } else {
+                doubles[column] = new double[total];
+            }
+            present[column] = new long[(total + 63) >>> 6];
+        }
+        int[] genderCodes = new int[total];
+        int[] workoutTypeCodes = new int[total];
+        StringDictionary genders = new StringDictionary();
+        StringDictionary workoutTypes = new StringDictionary();
+
+        int offset = 0;
+        for (SessionTable table : tables) {
+            table.copyTo(ints, doubles, present, genderCodes, workoutTypeCodes, genders, workoutTypes, offset);
+            offset += table.size;
+        }
+        return new SessionTable(total, ints, doubles, present, genderCodes, workoutTypeCodes, genders, workoutTypes);
+    }
+
+    // Copies every row to the target columns starting at row offset, whose
+    // validity bits must still be clear. Codes are re-encoded in the target
+    // dictionaries.
+    private void copyTo(int[][] targetInts, double[][] targetDoubles, long[][] targetPresent,
+                        int[] targetGenderCodes, int[] targetWorkoutTypeCodes,
+                        StringDictionary targetGenders, StringDictionary targetWorkoutTypes, int offset) {
+        for (int column = 0; column < Metric.VALUES.length; column++) {
+            if (targetInts[column] != null) {
+                System.arraycopy(ints[column], 0, targetInts[column], offset, size);
+            } else {
+                System.arraycopy(doubles[column], 0, targetDoubles[column], offset, size);
+            }
+            long[] source = present[column];
+            long[] target = targetPresent[column];
+            for (int row = 0; row < size; row++) {
+                if ((source[row >>> 6] & (1L << row)) != 0) {
+                    int targetRow = offset + row;
+                    target[targetRow >>> 6] |= 1L << targetRow;
+                }
+            }
+        }
+        remap(genderCodes, size, genders, targetGenders, targetGenderCodes, offset);
+        remap(workoutTypeCodes, size, workoutTypes, targetWorkoutTypes, targetWorkoutTypeCodes, offset);
+    }
+
+    private static void remap(int[] codes, int rows, StringDictionary from, StringDictionary to, int[] target,
+                              int offset) {
+        int[] mapping = new int[from.size()];
+        for (int code = 0; code < mapping.length; code++) {
+            mapping[code] = to.encode(from.decode(code));
+        }
+        for (int row = 0; row < rows; row++) {
+            int code = codes[row];
+            target[offset + row] = code == StringDictionary.NULL_CODE ? code : mapping[code];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isPresent(Metric metric, int row) {
+        return (present[metric.ordinal()][row >>> 6] & (1L << row)) != 0;
+    }
+
+    public int getInt(Metric metric, int row) {
+        return ints[metric.ordinal()][row];
+    }
+
+    // Works for integral metrics too
+
+    public double getDouble(Metric metric, int row) {
+        int column = metric.ordinal();
+        return metric.isIntegral() ? ints[column][row] : doubles[column][row];
+    }
+
+    // Raw column access for tight loops. intColumn is null for non-integral
+    // metrics and doubleColumn is null for integral ones. Only the first
+    // size() entries (and validity bits) belong to this table.
+
+    public int[] intColumn(Metric metric) {
+        return ints[metric.ordinal()];
+    }
+
+    public double[] doubleColumn(Metric metric) {
+        return doubles[metric.ordinal()];
+    }
+
+    public long[] validity(Metric metric) {
+        return present[metric.ordinal()];
+    }
+
+    public int genderCode(int row) {
+        return genderCodes[row];
+    }
+
+    public int workoutTypeCode(int row) {
+        return workoutTypeCodes[row];
+    }
+
+    public int[] genderCodes() {
+        return genderCodes;
+    }
+
+    public int[] workoutTypeCodes() {
+        return workoutTypeCodes;
+    }
+
+    public StringDictionary genders() {
+        return genders;
+    }
+
+    public StringDictionary workoutTypes() {
+        return workoutTypes;
+    }
+
+    public ActivitySession toSession(int row) {
+        return ActivitySession.builder()
+                .age(boxedInt(Metric.AGE, row))
+                .gender(genders.decode(genderCode(row)))
+                .weightKg(boxedDouble(Metric.WEIGHT_KG, row))
+                .heightM(boxedDouble(Metric.HEIGHT_M, row))
+                .maxBpm(boxedInt(Metric.MAX_BPM, row))
+                .avgBpm(boxedInt(Metric.AVG_BPM, row))
+                .restingBpm(boxedInt(Metric.RESTING_BPM, row))
+                .sessionDurationHours(boxedDouble(Metric.SESSION_DURATION_HOURS, row))
+                .caloriesBurned(boxedInt(Metric.CALORIES_BURNED, row))
+                .workoutType(workoutTypes.decode(workoutTypeCode(row)))
+                .fatPercentage(boxedDouble(Metric.FAT_PERCENTAGE, row))
+                .waterIntakeLiters(boxedDouble(Metric.WATER_INTAKE_LITERS, row))
+                .workoutFrequencyPerWeek(boxedInt(Metric.WORKOUT_FREQUENCY_PER_WEEK, row))
+                .experienceLevel(boxedDouble(Metric.EXPERIENCE_LEVEL, row))
+                .bmi(boxedDouble(Metric.BMI, row))
+                .build();
+    }
+
+    public List<ActivitySession> toSessions() {
+        List<ActivitySession> sessions = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            sessions.add(toSession(row));
+        }
+        return sessions;
+    }
+
+    private Integer boxedInt(Metric metric, int row) {
+        return isPresent(metric, row) ? getInt(metric, row) : null;
+    }
+
+    private Double boxedDouble(Metric metric, int row) {
+        return isPresent(metric, row) ? doubles[metric.ordinal()][row] : null;
+    }
+
+    // Row-at-a-time builder. Values not set before commitRow() are null.
+    // view() publishes the rows committed so far without copying them, so a
+    // table can keep growing by appends at amortized constant cost per row.
+
+    public static final class Builder {
+
+        private int size;
+        private int capacity;
+        private final int[][] ints = new int[Metric.VALUES.length][];
+        private final double[][] doubles = new double[Metric.VALUES.length][];
+        private final long[][] present = new long[Metric.VALUES.length][];
+        private int[] genderCodes;
+        private int[] workoutTypeCodes;
+        private final StringDictionary genders = new StringDictionary();
+        private final StringDictionary workoutTypes = new StringDictionary();
+        private StringDictionary publishedGenders;
+        private StringDictionary publishedWorkoutTypes;
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int initialCapacity) {
+            capacity = Math.max(64, initialCapacity);
+            for (Metric metric : Metric.VALUES) {
+                if (metric.isIntegral()) {
+                    ints[metric.ordinal()] = new int[capacity];
+                } else {
+                    doubles[metric.ordinal()] = new double[capacity];
+                }
+                present[metric.ordinal()] = new long[words(capacity)];
+            }
+            genderCodes = new int[capacity];
+            workoutTypeCodes = new int[capacity];
+            clearCodes(0);
+        }
+
+        public Builder setInt(Metric metric, int value) {
+            int column = metric.ordinal();
+            if (metric.isIntegral()) {
+                ints[column][size] = value;
+            } else {
+                doubles[column][size] = value;
+            }
+            present[column][size >>> 6] |= 1L << size;
+            return this;
+        }
+
+        public Builder setDouble(Metric metric, double value) {
+            if (metric.isIntegral()) {
+                // Same truncation as the (int) cast applied by the CSV loader
+                return setInt(metric, (int) value);
+            }
+            int column = metric.ordinal();
+            doubles[column][size] = value;
+            present[column][size >>> 6] |= 1L << size;
+            return this;
+        }
+
+        public Builder setGender(String gender) {
+            genderCodes[size] = genders.encode(gender);
+            return this;
+        }
+
+        public Builder setWorkoutType(String workoutType) {
+            workoutTypeCodes[size] = workoutTypes.encode(workoutType);
+            return this;
+        }
+
+        public void commitRow() {
+            size++;
+            if (size == capacity) {
+                grow(size + 1);
+            }
+        }
+
+        public void add(ActivitySession session) {
+            setGender(session.getGender());
+            setWorkoutType(session.getWorkoutType());
+            for (Metric metric : Metric.VALUES) {
+                Number value = metric.read(session);
+                if (value == null) {
+                    continue;
+                }
+                if (metric.isIntegral()) {
+                    setInt(metric, value.intValue());
+                } else {
+                    setDouble(metric, value.doubleValue());
+                }
+            }
+            commitRow();
+        }
+
+        // Appends every row of table, re-encoding its codes
+        public Builder addAll(SessionTable table) {
+            if (size + table.size >= capacity) {
+                grow(size + table.size + 1);
+            }
+            table.copyTo(ints, doubles, present, genderCodes, workoutTypeCodes, genders, workoutTypes, size);
+            size += table.size;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // The committed rows as a table sharing this builder's arrays. Later
+        // rows are only written past its size, and a grow moves the builder
+        // to new arrays, so the view never changes. The dictionaries are
+        // copied whenever they gained values since the last view, because the
+        // builder keeps encoding into its own.
+        public SessionTable view() {
+            if (publishedGenders == null || publishedGenders.size() != genders.size()) {
+                publishedGenders = genders.copy();
+            }
+            if (publishedWorkoutTypes == null || publishedWorkoutTypes.size() != workoutTypes.size()) {
+                publishedWorkoutTypes = workoutTypes.copy();
+            }
+            return new SessionTable(size, ints.clone(), doubles.clone(), present.clone(), genderCodes,
+                    workoutTypeCodes, publishedGenders, publishedWorkoutTypes);
+        }
+
+        public SessionTable build() {
+            int[][] trimmedInts = new int[ints.length][];
+            double[][] trimmedDoubles = new double[doubles.length][];
+            long[][] trimmedPresent = new long[present.length][];
+            for (int i = 0; i < Metric.VALUES.length; i++) {
+                trimmedInts[i] = ints[i] == null ? null : Arrays.copyOf(ints[i], size);
+                trimmedDoubles[i] = doubles[i] == null ? null : Arrays.copyOf(doubles[i], size);
+                trimmedPresent[i] = Arrays.copyOf(present[i], words(size));
+            }
+            return new SessionTable(size, trimmedInts, trimmedDoubles, trimmedPresent,
+                    Arrays.copyOf(genderCodes, size), Arrays.copyOf(workoutTypeCodes, size),
+                    genders, workoutTypes);
+        }
+
+        private void grow(int minCapacity) {
+            int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1));
+            for (int i = 0; i < Metric.VALUES.length; i++) {
+                if (ints[i] != null) ints[i] = Arrays.copyOf(ints[i], newCapacity);
+                if (doubles[i] != null) doubles[i] = Arrays.copyOf(doubles[i], newCapacity);
+                present[i] = Arrays.copyOf(present[i], words(newCapacity));
+            }
+            genderCodes = Arrays.copyOf(genderCodes, newCapacity);
+            workoutTypeCodes = Arrays.copyOf(workoutTypeCodes, newCapacity);
+            int oldCapacity = capacity;
+            capacity = newCapacity;
+            clearCodes(oldCapacity);
+        }
+
+        private void clearCodes(int from) {
+            Arrays.fill(genderCodes, from, capacity, StringDictionary.NULL_CODE);
+            Arrays.fill(workoutTypeCodes, from, capacity, StringDictionary.NULL_CODE);
+        }
+
+        private static int words(int rows) {
+            return (rows + 63) >>> 6;
+        }
+    }
+}
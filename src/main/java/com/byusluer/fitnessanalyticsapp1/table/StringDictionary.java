@@ -0,0 +1,49 @@
+package com.byusluer.fitnessanalyticsapp1.table;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Dictionary encoding for low-cardinality text columns (gender, workout type).
+// Codes are assigned in first-appearance order from 0, so any number of
+// distinct values fits an int code; NULL_CODE marks missing values.
+
+public final class StringDictionary {
+
+    public static final int NULL_CODE = -1;
+
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int newCode = values.size();
+        values.add(value);
+        codes.put(value, newCode);
+        return newCode;
+    }
+
+    public String decode(int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    // Independent copy with the same codes, for readers that must not see
+    // later encode calls
+    public StringDictionary copy() {
+        StringDictionary copy = new StringDictionary();
+        copy.values.addAll(values);
+        copy.codes.putAll(codes);
+        return copy;
+    }
+}
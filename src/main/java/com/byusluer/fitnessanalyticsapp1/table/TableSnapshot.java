@@ -0,0 +1,257 @@
+package com.byusluer.fitnessanalyticsapp1.table;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Binary, columnar copy of a SessionTable tied to the CSV file it was parsed
+// from. All values are little-endian and every section starts 8-byte aligned:
+//
+//   header        magic, format version, schema, source length and CRC32C, rows
+//   dictionaries  genders then workout types: count, then length + UTF-8 bytes
+//   columns       per metric in ordinal order: validity long[] then int[] or double[]
+//   codes         gender int[] then workout type int[]
+//
+// Sections are memory-mapped on read and copied into the table arrays with
+// bulk gets, so a load costs about one memcpy of the data instead of a parse.
+
+public final class TableSnapshot {
+
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x46414E53; // "FANS"
+    private static final int HEADER_BYTES = 48;
+    private static final int COPY_BUFFER_BYTES = 1 << 20;
+
+    private TableSnapshot() {
+    }
+
+    // Identity of a source CSV file: its length and CRC32C of its bytes
+
+    public record Source(long length, long checksum) {
+
+        public static Source of(Path csv) throws IOException {
+            CRC32C crc = new CRC32C();
+            try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+                long size = channel.size();
+                for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                    long length = Math.min(Integer.MAX_VALUE, size - position);
+                    crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                }
+                return new Source(size, crc.getValue());
+            }
+        }
+    }
+
+    // Writes to a temporary file next to target and moves it into place, so a
+    // crash never leaves a partial snapshot behind.
+
+    public static void write(SessionTable table, Source source, Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer out = ByteBuffer.allocate(COPY_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(schema()).putInt(table.size())
+                        .putLong(source.length()).putLong(source.checksum());
+                pad(channel, out, HEADER_BYTES);
+
+                writeDictionary(channel, out, table.genders());
+                writeDictionary(channel, out, table.workoutTypes());
+                align(channel, out);
+
+                // The column arrays can be longer than the table
+                int rows = table.size();
+                int words = (rows + 63) >>> 6;
+                long lastWordMask = (rows & 63) == 0 ? -1L : (1L << rows) - 1;
+                for (Metric metric : Metric.VALUES) {
+                    long[] validity = table.validity(metric);
+                    for (int word = 0; word < words; word++) {
+                        putLong(channel, out, word == words - 1 ? validity[word] & lastWordMask : validity[word]);
+                    }
+                    if (metric.isIntegral()) {
+                        int[] values = table.intColumn(metric);
+                        for (int row = 0; row < rows; row++) {
+                            ensure(channel, out, Integer.BYTES).putInt(values[row]);
+                        }
+                    } else {
+                        double[] values = table.doubleColumn(metric);
+                        for (int row = 0; row < rows; row++) {
+                            ensure(channel, out, Double.BYTES).putDouble(values[row]);
+                        }
+                    }
+                    align(channel, out);
+                }
+                int[] genderCodes = table.genderCodes();
+                for (int row = 0; row < rows; row++) {
+                    ensure(channel, out, Integer.BYTES).putInt(genderCodes[row]);
+                }
+                align(channel, out);
+                int[] workoutTypeCodes = table.workoutTypeCodes();
+                for (int row = 0; row < rows; row++) {
+                    ensure(channel, out, Integer.BYTES).putInt(workoutTypeCodes[row]);
+                }
+                flush(channel, out);
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // The table stored in file, or null when there is no snapshot or it was
+    // written by another format version, for another schema or from another
+    // version of the source file.
+
+    public static SessionTable read(Path file, Source source) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                return null;
+            }
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION || header.getInt() != schema()) {
+                return null;
+            }
+            int rows = header.getInt();
+            if (header.getLong() != source.length() || header.getLong() != source.checksum()) {
+                return null;
+            }
+
+            int words = (rows + 63) >>> 6;
+            long position = HEADER_BYTES;
+            ByteBuffer dictionaries = map(channel, position, Math.min(fileSize - position, Integer.MAX_VALUE));
+            StringDictionary genders = readDictionary(dictionaries);
+            StringDictionary workoutTypes = readDictionary(dictionaries);
+            position = aligned(position + dictionaries.position());
+
+            int[][] ints = new int[Metric.VALUES.length][];
+            double[][] doubles = new double[Metric.VALUES.length][];
+            long[][] present = new long[Metric.VALUES.length][];
+            for (Metric metric : Metric.VALUES) {
+                int column = metric.ordinal();
+                long valueBytes = (long) rows * (metric.isIntegral() ? Integer.BYTES : Double.BYTES);
+                requireAvailable(fileSize, position, words * 8L + valueBytes, file);
+
+                present[column] = new long[words];
+                map(channel, position, words * 8L).asLongBuffer().get(present[column]);
+                position += words * 8L;
+                if (metric.isIntegral()) {
+                    ints[column] = new int[rows];
+                    map(channel, position, valueBytes).asIntBuffer().get(ints[column]);
+                } else {
+                    doubles[column] = new double[rows];
+                    map(channel, position, valueBytes).asDoubleBuffer().get(doubles[column]);
+                }
+                position = aligned(position + valueBytes);
+            }
+
+            long codeBytes = (long) rows * Integer.BYTES;
+            requireAvailable(fileSize, position, aligned(codeBytes) + codeBytes, file);
+            int[] genderCodes = new int[rows];
+            map(channel, position, codeBytes).asIntBuffer().get(genderCodes);
+            position = aligned(position + codeBytes);
+            int[] workoutTypeCodes = new int[rows];
+            map(channel, position, codeBytes).asIntBuffer().get(workoutTypeCodes);
+
+            return new SessionTable(rows, ints, doubles, present, genderCodes, workoutTypeCodes,
+                    genders, workoutTypes);
+        }
+    }
+
+    // Changes whenever a metric is added, removed or changes storage type
+    private static int schema() {
+        int schema = Metric.VALUES.length;
+        for (Metric metric : Metric.VALUES) {
+            schema = 31 * schema + (metric.name().hashCode() ^ (metric.isIntegral() ? 1 : 0));
+        }
+        return schema;
+    }
+
+    private static void writeDictionary(FileChannel channel, ByteBuffer out, StringDictionary dictionary)
+            throws IOException {
+        ensure(channel, out, Integer.BYTES).putInt(dictionary.size());
+        for (int code = 0; code < dictionary.size(); code++) {
+            byte[] bytes = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+            ensure(channel, out, Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static StringDictionary readDictionary(ByteBuffer in) {
+        StringDictionary dictionary = new StringDictionary();
+        int size = in.getInt();
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            dictionary.encode(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return dictionary;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static void requireAvailable(long fileSize, long position, long length, Path file) throws IOException {
+        if (position + length > fileSize) {
+            throw new IOException("Truncated snapshot: " + file);
+        }
+    }
+
+    private static long aligned(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    // Output helpers over one reusable buffer; the logical file position is
+    // the channel position plus the buffered bytes.
+
+    private static ByteBuffer ensure(FileChannel channel, ByteBuffer out, int bytes) throws IOException {
+        if (out.remaining() < bytes) {
+            flush(channel, out);
+            if (out.remaining() < bytes) {
+                throw new IOException("Snapshot value too large: " + bytes + " bytes");
+            }
+        }
+        return out;
+    }
+
+    private static void putLong(FileChannel channel, ByteBuffer out, long value) throws IOException {
+        ensure(channel, out, Long.BYTES).putLong(value);
+    }
+
+    private static void align(FileChannel channel, ByteBuffer out) throws IOException {
+        long written = channel.position() + out.position();
+        pad(channel, out, aligned(written));
+    }
+
+    private static void pad(FileChannel channel, ByteBuffer out, long upTo) throws IOException {
+        while (channel.position() + out.position() < upTo) {
+            ensure(channel, out, 1).put((byte) 0);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
@@ -2,14 +2,107 @@ package com.byusluer.fitnessanalyticsapp1.util;
 
 import lombok.experimental.UtilityClass;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+// Two-decimal formatting without a shared DecimalFormat, which isn't
+// thread-safe and allocates on every call. The append methods only write to
+// the caller's StringBuilder and nothing here holds mutable state, so with a
+// builder reused per thread or per report, formatting doesn't allocate. The
+// exceptions are magnitudes of 1e13 and more and values within a hair of a
+// rounding tie, which take a slower exact path.
+//
+// Output is that of new DecimalFormat("#.##"): HALF_EVEN rounding of the
+// exact binary value, trailing zeros dropped ("12.5", "0.25", "3", "-0"). The
+// decimal separator is always '.', whatever the default locale.
 
 @UtilityClass
 public class NumberFormatter {
 
-    private static final DecimalFormat TWO_DECIMAL = new DecimalFormat("#.##");
+    // Below this, value * 100 and its rounding fit exactly in a double
+    private static final double FAST_PATH_LIMIT = 1e13;
+    // Fractions of a hundredth this close to a half go through BigDecimal
+    private static final double TIE_MARGIN = 1e-6;
 
     public static String formatDouble(Double value) {
-        return value == null ? "0.00" : TWO_DECIMAL.format(value);
+        return value == null ? "0.00" : appendTwoDecimals(new StringBuilder(24), value).toString();
+    }
+
+    public static StringBuilder appendTwoDecimals(StringBuilder target, double value) {
+        if (Double.isNaN(value)) {
+            return target.append("NaN");
+        }
+        boolean negative = Double.doubleToRawLongBits(value) < 0;
+        if (Double.isInfinite(value)) {
+            return target.append(negative ? "-∞" : "∞");
+        }
+        return append(target, Math.abs(value), negative, false);
+    }
+
+    // Same digits as a JSON number: null when not finite and no negative zero
+    public static StringBuilder appendJsonNumber(StringBuilder target, double value) {
+        if (!Double.isFinite(value)) {
+            return target.append("null");
+        }
+        return append(target, Math.abs(value), value < 0, true);
+    }
+
+    private static StringBuilder append(StringBuilder target, double magnitude, boolean negative,
+                                        boolean unsignedZero) {
+        long hundredths = hundredthsOf(magnitude);
+        if (hundredths < 0) {
+            String digits = exact(magnitude);
+            if (negative && !(unsignedZero && digits.equals("0"))) {
+                target.append('-');
+            }
+            return target.append(digits);
+        }
+        if (negative && !(unsignedZero && hundredths == 0)) {
+            target.append('-');
+        }
+        target.append(hundredths / 100);
+        int cents = (int) (hundredths % 100);
+        if (cents != 0) {
+            target.append('.').append((char) ('0' + cents / 10));
+            if (cents % 10 != 0) {
+                target.append((char) ('0' + cents % 10));
+            }
+        }
+        return target;
+    }
+
+    // magnitude * 100 rounded half-even, or -1 when it needs exact arithmetic.
+    // fma gives the fraction of magnitude * 100 above n with a single rounding,
+    // which preserves its sign and how it compares to 1; only near-ties are
+    // ambiguous.
+    private static long hundredthsOf(double magnitude) {
+        if (magnitude >= FAST_PATH_LIMIT) {
+            return -1;
+        }
+        long n = (long) (magnitude * 100);
+        double fraction = Math.fma(magnitude, 100, -n);
+        if (fraction < 0) {
+            fraction = Math.fma(magnitude, 100, -(--n));
+        } else if (fraction >= 1) {
+            fraction = Math.fma(magnitude, 100, -(++n));
+        }
+        if (Math.abs(fraction - 0.5) < TIE_MARGIN) {
+            return -1;
+        }
+        return fraction > 0.5 ? n + 1 : n;
+    }
+
+    // Large magnitudes print the digits of FloatingDecimal, which are
+    // neither the exact value nor always Double.toString's, so they are left
+    // to a DecimalFormat of their own
+    private static String exact(double magnitude) {
+        if (magnitude >= FAST_PATH_LIMIT) {
+            return new DecimalFormat("#.##", DecimalFormatSymbols.getInstance(Locale.ROOT)).format(magnitude);
+        }
+        BigDecimal decimal = new BigDecimal(magnitude).setScale(2, RoundingMode.HALF_EVEN);
+        return decimal.signum() == 0 ? "0" : decimal.stripTrailingZeros().toPlainString();
     }
 }
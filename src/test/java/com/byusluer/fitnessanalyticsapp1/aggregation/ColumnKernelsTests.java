@@ -0,0 +1,104 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.model.RandomSessions;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ColumnKernelsTests {
+
+    private final ColumnKernels scalar = ColumnKernels.scalar();
+    private final ColumnKernels vector = ColumnKernels.vectorizedIfAvailable();
+
+    @Test
+    void vectorKernelsAreAvailableInTests() {
+        assertThat(vector).isInstanceOf(VectorColumnKernels.class);
+    }
+
+    // Sizes around the vector lengths exercise the scalar tail and the
+    // bitmap word boundaries
+    @Test
+    void matchAggregateOnEveryColumnWithNulls() {
+        for (int size : new int[]{0, 1, 7, 63, 64, 65, 1000, 4099}) {
+            SessionTable table = SessionTable.of(RandomSessions.of(size, size));
+            GroupStats overall = SessionAggregate.of(table).getOverall();
+
+            for (Metric metric : Metric.VALUES) {
+                MetricStats expected = overall.metric(metric);
+                ColumnStats exact = scalar.stats(table, metric);
+                ColumnStats simd = vector.stats(table, metric);
+
+                assertThat(exact.count()).isEqualTo(expected.count());
+                assertThat(exact.sum()).isEqualTo(metric.isIntegral() ? expected.longSum() : expected.sum());
+                assertThat(exact.longSum()).isEqualTo(metric.isIntegral() ? expected.longSum() : 0);
+                assertThat(exact.min()).isEqualTo(expected.min());
+                assertThat(exact.max()).isEqualTo(expected.max());
+
+                assertThat(simd.count()).isEqualTo(exact.count());
+                assertThat(simd.min()).isEqualTo(exact.min());
+                assertThat(simd.max()).isEqualTo(exact.max());
+                if (metric.isIntegral()) {
+                    assertThat(simd.sum()).isEqualTo(exact.sum());
+                    assertThat(simd.longSum()).isEqualTo(exact.longSum());
+                } else {
+                    assertThat(simd.sum()).isCloseTo(exact.sum(), within(1e-9 * Math.max(1, Math.abs(exact.sum()))));
+                }
+            }
+        }
+    }
+
+    @Test
+    void countValuesAboveThreshold() {
+        SessionTable table = SessionTable.of(RandomSessions.of(5000, 42));
+
+        for (double threshold : new double[]{500, 500.5, 499.9, -1, 1e12, -1e12, Double.NaN}) {
+            for (Metric metric : List.of(Metric.CALORIES_BURNED, Metric.SESSION_DURATION_HOURS)) {
+                long expected = table.toSessions().stream().map(metric::read)
+                        .filter(value -> value != null && value.doubleValue() > threshold).count();
+
+                assertThat(scalar.countGreaterThan(table, metric, threshold)).isEqualTo(expected);
+                assertThat(vector.countGreaterThan(table, metric, threshold)).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void serviceTableOverloadsMatchAggregate() {
+        FitnessAnalyticsService service = new FitnessAnalyticsService();
+        List<ActivitySession> sessions = new CsvLoaderService().loadSessionsFromCsv("fitness_data.csv");
+        SessionTable table = SessionTable.of(sessions);
+
+        assertThat(service.getTotalCalories(table)).isEqualTo(service.getTotalCalories(sessions));
+        assertThat(service.getCaloriesBurned(table)).isEqualTo(service.getCaloriesBurned(sessions));
+        assertThat(service.calculateTotalWoDuration(table)).isCloseTo(service.calculateTotalWoDuration(sessions), within(1e-9));
+        assertThat(service.getAverageWoDuration(table)).isCloseTo(service.getAverageWoDuration(sessions), within(1e-12));
+    }
+
+    // Past Integer.MAX_VALUE kcal every overload wraps the same way and the
+    // long overloads stay exact
+    @Test
+    void totalCaloriesAgreeBeyondIntRange() {
+        FitnessAnalyticsService service = new FitnessAnalyticsService();
+        List<ActivitySession> sessions = new ArrayList<>();
+        for (int i = 0; i < 67; i++) {
+            sessions.add(ActivitySession.builder().caloriesBurned(1_000_000_000 + i).build());
+        }
+        long exact = sessions.stream().mapToLong(ActivitySession::getCaloriesBurned).sum();
+        SessionTable table = SessionTable.of(sessions);
+
+        assertThat(service.getTotalCaloriesLong(table)).isEqualTo(exact);
+        assertThat(service.getTotalCaloriesLong(service.aggregate(sessions))).isEqualTo(exact);
+        assertThat(vector.stats(table, Metric.CALORIES_BURNED).longSum()).isEqualTo(exact);
+        int wrapped = sessions.stream().mapToInt(ActivitySession::getCaloriesBurned).sum();
+        assertThat(service.getTotalCalories(table)).isEqualTo(wrapped);
+        assertThat(service.getTotalCalories(sessions)).isEqualTo(wrapped);
+    }
+}
@@ -0,0 +1,100 @@
+package com.byusluer.fitnessanalyticsapp1.aggregation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NumericKeyIndexTests {
+
+    @Test
+    void assignsIndexesInFirstAppearanceOrder() {
+        NumericKeyIndex index = NumericKeyIndex.forDoubles();
+
+        assertThat(index.add(2.0)).isEqualTo(0);
+        assertThat(index.add(1.5)).isEqualTo(1);
+        assertThat(index.add(1000.0)).isEqualTo(2);
+        assertThat(index.add(2.0)).isEqualTo(0);
+        assertThat(index.add(1.5)).isEqualTo(1);
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.doubleKey(2)).isEqualTo(1000.0);
+        assertThat(index.indexOf(3.0)).isEqualTo(-1);
+    }
+
+    // Same equality as Double.equals: -0.0 and 0.0 differ, NaN equals NaN
+
+    @Test
+    void comparesDoubleKeysByBitPattern() {
+        NumericKeyIndex index = NumericKeyIndex.forDoubles();
+
+        int zero = index.add(0.0);
+        int negativeZero = index.add(-0.0);
+        int nan = index.add(Double.NaN);
+
+        assertThat(negativeZero).isNotEqualTo(zero);
+        assertThat(index.add(Double.NaN)).isEqualTo(nan);
+        assertThat(index.indexOf(-0.0)).isEqualTo(negativeZero);
+        assertThat(Double.doubleToLongBits(index.doubleKey(negativeZero)))
+                .isEqualTo(Double.doubleToLongBits(-0.0));
+    }
+
+    @Test
+    void keepsSparseKeysAcrossResizes() {
+        NumericKeyIndex ints = NumericKeyIndex.forInts();
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(ints.add(i * 7919 - 5_000)).isEqualTo(i);
+        }
+
+        assertThat(ints.size()).isEqualTo(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(ints.indexOf(i * 7919 - 5_000)).isEqualTo(i);
+            assertThat(ints.intKey(i)).isEqualTo(i * 7919 - 5_000);
+        }
+        assertThat(ints.indexOf(1)).isEqualTo(-1);
+    }
+
+    @Test
+    void copyIsIndependent() {
+        NumericKeyIndex index = NumericKeyIndex.forInts();
+        index.add(3);
+        index.add(-1);
+
+        NumericKeyIndex copy = index.copy();
+        copy.add(100);
+
+        assertThat(index.indexOf(100)).isEqualTo(-1);
+        assertThat(copy.indexOf(-1)).isEqualTo(1);
+        assertThat(copy.indexOf(100)).isEqualTo(2);
+    }
+
+    @Test
+    void mapViewSkipsNullValuesAndIsReadOnly() {
+        NumericKeyIndex index = NumericKeyIndex.forDoubles();
+        List<String> values = List.of("beginner", "", "expert");
+        index.add(1.0);
+        index.add(2.5);
+        index.add(3.0);
+
+        NumericKeyMap<Double, String> view = new NumericKeyMap<>(index, i -> values.get(i).isEmpty() ? null : values.get(i));
+
+        Map<Double, String> expected = new LinkedHashMap<>();
+        expected.put(1.0, "beginner");
+        expected.put(3.0, "expert");
+        assertThat(view).isEqualTo(expected);
+        assertThat(view.keySet()).containsExactly(1.0, 3.0);
+        assertThat(view.get(2.5)).isNull();
+        assertThat(view.get(3)).isNull();
+        assertThat(view.mapValues(String::length)).containsExactly(Map.entry(1.0, 8), Map.entry(3.0, 6));
+        assertThatThrownBy(() -> view.put(4.0, "x")).isInstanceOf(UnsupportedOperationException.class);
+
+        Map<Double, String> snapshot = view.snapshot();
+        index.add(4.0);
+        assertThat(snapshot).isEqualTo(expected);
+        assertThat(snapshot.keySet()).containsExactly(1.0, 3.0);
+    }
+}
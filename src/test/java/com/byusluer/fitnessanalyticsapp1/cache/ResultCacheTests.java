@@ -0,0 +1,63 @@
+package com.byusluer.fitnessanalyticsapp1.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultCacheTests {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        ResultCache<String, Integer> cache = new ResultCache<>(2, Duration.ofMinutes(1), now::get);
+
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("a", this::load);
+        cache.get("c", this::load);
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+
+        assertThat(loads).hasValue(4);
+        assertThat(cache.stats()).isEqualTo(new CacheStats(2, 4, 2, 2));
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        ResultCache<String, Integer> cache = new ResultCache<>(10, Duration.ofSeconds(5), now::get);
+
+        assertThat(cache.get("a", this::load)).isEqualTo(1);
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(cache.get("a", this::load)).isEqualTo(1);
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertThat(cache.get("a", this::load)).isEqualTo(2);
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(2);
+        assertThat(stats.getEvictions()).isEqualTo(1);
+        assertThat(stats.getHitRate()).isEqualTo(1 / 3.0);
+    }
+
+    @Test
+    void invalidateAllDropsEveryEntry() {
+        ResultCache<String, Integer> cache = new ResultCache<>(10, Duration.ofMinutes(1), now::get);
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+
+        cache.invalidateAll();
+
+        assertThat(cache.stats().getSize()).isZero();
+        assertThat(cache.get("a", this::load)).isEqualTo(3);
+    }
+
+    private Integer load() {
+        return loads.incrementAndGet();
+    }
+}
@@ -0,0 +1,148 @@
+package com.byusluer.fitnessanalyticsapp1.controller;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.ingest.IngestionService;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.service.AnalyticsQueryService;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AnalyticsControllerTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    AnalyticsQueryService queries;
+
+    @Autowired
+    IngestionService ingestion;
+
+    private final FitnessAnalyticsService analytics = new FitnessAnalyticsService();
+    private final List<ActivitySession> sessions = new CsvLoaderService().loadSessionsFromCsv("fitness_data.csv");
+
+    @Test
+    void servesFilteredMetricsAndCachesThem() throws Exception {
+        List<ActivitySession> matching = sessions.stream()
+                .filter(s -> "Yoga".equals(s.getWorkoutType()) && s.getAge() != null && s.getAge() >= 30)
+                .toList();
+        long missesBefore = queries.cacheStats().getMisses();
+        long hitsBefore = queries.cacheStats().getHits();
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/api/analytics/total-calories").param("workoutType", "yoga").param("minAge", "30"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$").value(analytics.getTotalCalories(matching)));
+        }
+
+        assertThat(queries.cacheStats().getMisses()).isEqualTo(missesBefore + 1);
+        assertThat(queries.cacheStats().getHits()).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void reloadInvalidatesCache() throws Exception {
+        mvc.perform(get("/api/analytics/high-calorie-sessions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(analytics.getCaloriesBurned(sessions)));
+
+        mvc.perform(post("/api/analytics/reload"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sessions").value(sessions.size()));
+
+        assertThat(queries.cacheStats().getSize()).isZero();
+    }
+
+    @Test
+    void servesQuantilesAndRejectsUntrackedMetrics() throws Exception {
+        mvc.perform(get("/api/analytics/quantiles-by-workout-type").param("metric", "AVG_BPM"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.Yoga.count").value(analytics.getQuantilesByWoType(sessions, Metric.AVG_BPM)
+                        .get("Yoga").count()));
+
+        mvc.perform(get("/api/analytics/quantiles-by-experience").param("metric", "BMI"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void servesCubeRollups() throws Exception {
+        mvc.perform(get("/api/analytics/cube").param("metric", "CALORIES_BURNED")
+                        .param("groupBy", "WORKOUT_TYPE").param("workoutType", "Yoga"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].coordinates.WORKOUT_TYPE").value("Yoga"))
+                .andExpect(jsonPath("$[0].sum").value((double) analytics.getTotalCaloriesByWoType(sessions).get("Yoga")));
+
+        mvc.perform(get("/api/analytics/cube").param("metric", "BMI").param("gender", "Unknown"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void servesAdHocQueriesAndReports() throws Exception {
+        long expected = sessions.stream()
+                .filter(s -> "Female".equals(s.getGender()) && s.getAvgBpm() != null && s.getAvgBpm() > 140)
+                .count();
+
+        mvc.perform(get("/api/analytics/query").param("where", "avgBpm > 140 and gender = 'female'"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matchedSessions").value(expected))
+                .andExpect(jsonPath("$.rows[0].values.count").value(expected));
+
+        mvc.perform(get("/api/analytics/query").param("groupBy", "GENDER").param("select", "count", "max(age)"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows.length()").value(sessions.stream().map(ActivitySession::getGender)
+                        .distinct().count()))
+                .andExpect(jsonPath("$.rows[0].values['max(AGE)']").isNumber());
+
+        mvc.perform(get("/api/analytics/query").param("where", "avgBpm >"))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/api/analytics/report").param("format", "JSON"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCalories").value(analytics.getTotalCalories(sessions)));
+    }
+
+    @Test
+    void ingestsSessionsIntoTheServedDataset() throws Exception {
+        String csv = "41,Male,80.5,1.8,185,150,60,1.5,900,Boxing,18.2,3.1,4,2,24.8\n"
+                + "29,Female,61,1.65,190,160,55,2.1,1100,HIIT,22,2.5,5,3,22.4\n";
+        String ndjson = "{\"age\":35,\"gender\":\"Female\",\"caloriesBurned\":640,\"workoutType\":\"Boxing\","
+                + "\"bmi\":22.6}\n{\"age\":40,\"caloriesBurned\":700}\n";
+        try {
+            mvc.perform(post("/api/sessions").contentType("text/csv").content(csv))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.records").value(2));
+            mvc.perform(post("/api/sessions").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.records").value(2));
+            mvc.perform(post("/api/sessions").contentType(MediaType.APPLICATION_NDJSON).content("[1]"))
+                    .andExpect(status().isBadRequest());
+            assertThat(ingestion.awaitIdle(Duration.ofSeconds(10))).isTrue();
+
+            mvc.perform(get("/api/analytics/total-calories"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$").value(analytics.getTotalCalories(sessions) + 900 + 1100 + 640));
+            mvc.perform(get("/api/analytics/total-calories").param("workoutType", "Boxing"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$").value(1540));
+        } finally {
+            mvc.perform(post("/api/analytics/reload")).andExpect(status().isOk());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.byusluer.fitnessanalyticsapp1.csv;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionCsvParserTests {
+
+    private static final String HEADER = "Age,Gender,Weight (kg),Height (m),Max_BPM,Avg_BPM,Resting_BPM,"
+            + "Session_Duration (hours),Calories_Burned,Workout_Type,Fat_Percentage,Water_Intake (liters),"
+            + "Workout_Frequency (days/week),Experience_Level,BMI";
+
+    @Test
+    void matchesLegacyLoaderOnBundledDataset() throws IOException {
+        byte[] csv;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("fitness_data.csv")) {
+            csv = in.readAllBytes();
+        }
+
+        assertMatchesLegacy(csv);
+    }
+
+    @Test
+    void matchesLegacyLoaderOnDirtyRows() {
+        String csv = HEADER + "\r\n"
+                + "34.0,Female,86.7,1.86,174,152.0,74.0,1.12,712.0,Strength,12.8,2.4,5.0,2.0,14.31\r\n"
+                + " 41 yrs,Male,\"90,1\",1.80,abc,150.5,-,1.2.3,-0.0,\\tYoga\\n ,x,3.,4,.5,\n"
+                + "29,,70,1.7,180,140,60,1.0,500,\t\\r\t,20,2,3,1,\r"
+                + "52,Female,70,1.6,170,130,55,2.0,900,HIIT,25,3,4,3\n"
+                + "52,Female,70,1.6,170,130,55,2.0,900,HIIT,25,3,4,,\n"
+                + "\n"
+                + "1,2,3\n"
+                + "33,Male,80.123456789012345678,1.75,190,160,70,0.000000000000000000000001,"
+                + "2147483648,Cardio,18,2.5,5,2,26.12345678901234567\n"
+                + "60,Männlich,75,1.7,160,120,65,1.5,400,Ausdauer Ω,30,2,2,1,25";
+
+        assertMatchesLegacy(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void skipsRowsWithMoreColumnsThanTheSchema() throws IOException {
+        String csv = HEADER + "\n"
+                + "34,Female,86.7,1.86,174,152,74,1.12,712,Strength,12.8,2.4,5,2,14.31,extra\n"
+                + "34,Female,86.7,1.86,174,152,74,1.12,712,Strength,12.8,2.4,5,2,14.31,,\n";
+        SessionCsvParser parser = new SessionCsvParser();
+        List<ActivitySession> sessions = new ArrayList<>();
+
+        parser.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), row -> sessions.add(row.toSession()));
+
+        assertThat(sessions).hasSize(1);
+        assertThat(parser.getLineCount()).isEqualTo(3);
+        assertThat(parser.getSkippedCount()).isEqualTo(1);
+    }
+
+    private void assertMatchesLegacy(byte[] csv) {
+        LegacyCsvLoader legacy = new LegacyCsvLoader();
+        List<ActivitySession> expected = legacy.load(new ByteArrayInputStream(csv));
+
+        // Tiny buffer reads force lines and \r\n pairs to straddle refills
+        SessionCsvParser parser = new SessionCsvParser();
+        List<ActivitySession> actual = new ArrayList<>();
+        try {
+            InputStream in = new ByteArrayInputStream(csv);
+            parser.read((target, offset, length) -> in.read(target, offset, Math.min(length, 7)), true,
+                    row -> actual.add(row.toSession()));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(parser.getLineCount()).isEqualTo(legacy.totalCount);
+        assertThat(parser.getSkippedCount()).isEqualTo(legacy.skippedCount);
+        assertThat(parser.getAcceptedCount()).isEqualTo(expected.size());
+    }
+}
@@ -0,0 +1,132 @@
+package com.byusluer.fitnessanalyticsapp1.cube;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SessionCubeTests {
+
+    private final FitnessAnalyticsService service = new FitnessAnalyticsService();
+    private final List<ActivitySession> sessions = new CsvLoaderService().loadSessionsFromCsv("fitness_data.csv");
+    private final SessionCube cube = SessionCube.of(SessionTable.of(sessions));
+
+    @Test
+    void rollupsMatchSingleDimensionAnalytics() {
+        Map<Object, Long> calories = new HashMap<>();
+        for (CubeCell cell : cube.rollup(Dimension.WORKOUT_TYPE).cells(Metric.CALORIES_BURNED)) {
+            calories.put(cell.coordinates().get(Dimension.WORKOUT_TYPE), (long) cell.sum());
+        }
+        Map<Object, Long> expectedCalories = new HashMap<>();
+        service.getTotalCaloriesByWoType(sessions).forEach((type, sum) -> expectedCalories.put(type, (long) sum));
+        assertThat(calories).isEqualTo(expectedCalories);
+
+        Map<Object, Long> sessionsByLevel = new HashMap<>();
+        Map<Object, Double> fatByLevel = new HashMap<>();
+        for (CubeCell cell : cube.rollup(Dimension.EXPERIENCE_LEVEL).cells(Metric.FAT_PERCENTAGE)) {
+            sessionsByLevel.put(cell.coordinates().get(Dimension.EXPERIENCE_LEVEL), cell.sessions());
+            fatByLevel.put(cell.coordinates().get(Dimension.EXPERIENCE_LEVEL), cell.average());
+        }
+        // The null member holds the sessions without an experience level
+        Map<Object, Long> expectedSessions = new HashMap<>(service.getExperienceLevelPerSession(sessions));
+        expectedSessions.put(null, sessions.stream().filter(s -> s.getExperienceLevel() == null).count());
+        assertThat(sessionsByLevel).isEqualTo(expectedSessions);
+        service.getAverageFatPercentageByExperience(sessions)
+                .forEach((level, average) -> assertThat(fatByLevel.get(level)).isCloseTo(average, within(1e-9)));
+
+        CubeCell total = cube.total(Metric.CALORIES_BURNED);
+        assertThat(total.coordinates()).isEmpty();
+        assertThat(total.sessions()).isEqualTo(sessions.size());
+        assertThat((long) total.sum()).isEqualTo(service.getTotalCalories(sessions).longValue());
+    }
+
+    @Test
+    void sliceAndDiceMatchFilteredSessions() {
+        Predicate<ActivitySession> matching = s -> "Yoga".equals(s.getWorkoutType())
+                && s.getAge() != null && s.getAge() >= 30 && s.getAge() < 50;
+        SessionCube diced = cube.dice(Dimension.AGE_BAND, List.of("30-39", "40-49"))
+                .slice(Dimension.WORKOUT_TYPE, "yoga");
+
+        assertThat(diced.dimensions())
+                .containsExactly(Dimension.GENDER, Dimension.EXPERIENCE_LEVEL, Dimension.AGE_BAND);
+        for (CubeCell cell : diced.rollup(Dimension.GENDER, Dimension.EXPERIENCE_LEVEL).cells(Metric.MAX_BPM)) {
+            Object gender = cell.coordinates().get(Dimension.GENDER);
+            Object level = cell.coordinates().get(Dimension.EXPERIENCE_LEVEL);
+            List<ActivitySession> expected = sessions.stream().filter(matching)
+                    .filter(s -> Objects.equals(s.getGender(), gender) && Objects.equals(s.getExperienceLevel(), level))
+                    .toList();
+
+            assertThat(cell.sessions()).isEqualTo(expected.size());
+            List<Integer> maxBpm = expected.stream().map(ActivitySession::getMaxBpm).filter(Objects::nonNull).toList();
+            assertThat(cell.count()).isEqualTo(maxBpm.size());
+            if (!maxBpm.isEmpty()) {
+                assertThat(cell.max()).isEqualTo(maxBpm.stream().mapToDouble(Integer::doubleValue).max().orElseThrow());
+                assertThat(cell.min()).isEqualTo(maxBpm.stream().mapToDouble(Integer::doubleValue).min().orElseThrow());
+            }
+        }
+        assertThat(diced.total(Metric.MAX_BPM).sessions()).isEqualTo(sessions.stream().filter(matching).count());
+        assertThat(cube.slice(Dimension.EXPERIENCE_LEVEL, "2").total(Metric.AGE).sessions())
+                .isEqualTo(sessions.stream().filter(s -> Objects.equals(s.getExperienceLevel(), 2.0)).count());
+    }
+
+    @Test
+    void keepsSessionsWithMissingDimensions() {
+        SessionCube sparse = SessionCube.of(SessionTable.of(List.of(
+                ActivitySession.builder().workoutType("Yoga").age(34).caloriesBurned(300).experienceLevel(1.0).build(),
+                ActivitySession.builder().gender("Male").age(95).sessionDurationHours(2.25).build(),
+                ActivitySession.builder().experienceLevel(7.5).build())));
+
+        assertThat(sparse.members(Dimension.EXPERIENCE_LEVEL)).containsExactly(null, 1.0, 7.5);
+        assertThat(sparse.total(Metric.CALORIES_BURNED).sessions()).isEqualTo(3);
+        List<CubeCell> bands = sparse.rollup(Dimension.AGE_BAND).cells(Metric.CALORIES_BURNED);
+        assertThat(bands).extracting(cell -> cell.coordinates().get(Dimension.AGE_BAND))
+                .containsExactly(null, "30-39", "90+");
+        assertThat(bands.get(0).average()).isNull();
+        assertThat(bands.get(1).average()).isEqualTo(300.0);
+
+        assertThatThrownBy(() -> sparse.dice(Dimension.GENDER, List.of("Female")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sparse.rollup(Dimension.GENDER).rollup(Dimension.AGE_BAND))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Merging the cube of appended sessions gives the cube of the concatenated table
+    @Test
+    void mergesLikeTheConcatenatedTable() {
+        SessionTable head = SessionTable.of(sessions.subList(0, 1000));
+        SessionTable tail = SessionTable.of(List.of(
+                ActivitySession.builder().workoutType("Boxing").gender("Other").age(41).caloriesBurned(900)
+                        .experienceLevel(4.0).fatPercentage(18.2).build(),
+                sessions.get(1500)));
+        SessionCube merged = SessionCube.of(head).merge(SessionCube.of(tail));
+        SessionCube expected = SessionCube.of(SessionTable.concat(List.of(head, tail)));
+
+        for (Dimension dimension : Dimension.VALUES) {
+            assertThat(merged.members(dimension)).isEqualTo(expected.members(dimension));
+        }
+        assertThat(merged.cellCount()).isEqualTo(expected.cellCount());
+        assertThat(merged.cells(Metric.CALORIES_BURNED)).isEqualTo(expected.cells(Metric.CALORIES_BURNED));
+        List<CubeCell> fat = merged.cells(Metric.FAT_PERCENTAGE);
+        List<CubeCell> expectedFat = expected.cells(Metric.FAT_PERCENTAGE);
+        for (int i = 0; i < expectedFat.size(); i++) {
+            assertThat(fat.get(i).coordinates()).isEqualTo(expectedFat.get(i).coordinates());
+            assertThat(fat.get(i).count()).isEqualTo(expectedFat.get(i).count());
+            assertThat(fat.get(i).sum()).isCloseTo(expectedFat.get(i).sum(), within(1e-9));
+        }
+
+        assertThatThrownBy(() -> merged.rollup(Dimension.GENDER).merge(merged))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
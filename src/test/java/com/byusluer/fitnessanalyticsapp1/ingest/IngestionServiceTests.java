@@ -0,0 +1,195 @@
+package com.byusluer.fitnessanalyticsapp1.ingest;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.cube.SessionCube;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+import com.byusluer.fitnessanalyticsapp1.query.ZoneMap;
+import com.byusluer.fitnessanalyticsapp1.report.AnalyticsReport;
+import com.byusluer.fitnessanalyticsapp1.report.ReportRenderer;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.DatasetReloadedEvent;
+import com.byusluer.fitnessanalyticsapp1.service.DatasetService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.service.SnapshotService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IngestionServiceTests {
+
+    private final CsvLoaderService loader = new CsvLoaderService();
+    private final FitnessAnalyticsService analytics = new FitnessAnalyticsService();
+    private final FitnessAnalyticsProperties properties = new FitnessAnalyticsProperties();
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final DatasetService datasets = new DatasetService(loader, new SnapshotService(loader, properties),
+            analytics, properties, events::add);
+    private IngestionService ingestion;
+
+    @AfterEach
+    void stopWorker() {
+        if (ingestion != null) {
+            ingestion.stop();
+        }
+    }
+
+    @Test
+    void foldsQueuedBatchesIntoTheServedDataset() throws Exception {
+        List<ActivitySession> expected = new ArrayList<>(loader.loadSessionsFromCsv("fitness_data.csv"));
+        Dataset initial = datasets.current();
+        ingestion = start(properties);
+
+        String csv = "Age,Gender,Weight (kg),Height (m),Max_BPM,Avg_BPM,Resting_BPM,Session_Duration (hours),"
+                + "Calories_Burned,Workout_Type,Fat_Percentage,Water_Intake (liters),"
+                + "Workout_Frequency (days/week),Experience_Level,BMI\r\n"
+                + "41,Male,80.5,1.8,185,150,60,1.5,900,Boxing,18.2,3.1,4,2,24.8\r\n"
+                + "not,enough,columns\r\n"
+                + "29,Female,61,1.65,190,160,55,2.1,1100,HIIT,22,2.5,5,3,22.4";
+        String ndjson = """
+                {"age":35,"gender":"Female","weightKg":65.2,"heightM":1.7,"maxBpm":178,"avgBpm":141,"restingBpm":62,\
+                "sessionDurationHours":1.2,"caloriesBurned":640,"workoutType":"Yoga","fatPercentage":25.1,\
+                "waterIntakeLiters":2.2,"workoutFrequencyPerWeek":3,"experienceLevel":1,"bmi":22.6}
+
+                {"age":52,"gender":null,"weightKg":90,"heightM":1.85,"maxBpm":170,"avgBpm":130,"restingBpm":70,\
+                "sessionDurationHours":0.75,"caloriesBurned":450,"workoutType":"Boxing","fatPercentage":28,\
+                "waterIntakeLiters":3,"workoutFrequencyPerWeek":2,"experienceLevel":1,"bmi":26.3,"device":"x"}
+                """;
+        IngestBatch csvBatch = IngestBatch.ofCsv(csv.getBytes(StandardCharsets.UTF_8));
+        IngestBatch ndjsonBatch = IngestBatch.ofNdjson(ndjson.getBytes(StandardCharsets.UTF_8), new ObjectMapper());
+        assertThat(csvBatch.header()).isTrue();
+        assertThat(csvBatch.records()).isEqualTo(3);
+        assertThat(ndjsonBatch.records()).isEqualTo(2);
+
+        assertThat(ingestion.submit(csvBatch).records()).isEqualTo(3);
+        assertThat(ingestion.submit(ndjsonBatch).records()).isEqualTo(2);
+        assertThat(ingestion.awaitIdle(Duration.ofSeconds(10))).isTrue();
+
+        expected.add(session(41, "Male", 80.5, 1.8, 185, 150, 60, 1.5, 900, "Boxing", 18.2, 3.1, 4, 2.0, 24.8));
+        expected.add(session(29, "Female", 61.0, 1.65, 190, 160, 55, 2.1, 1100, "HIIT", 22.0, 2.5, 5, 3.0, 22.4));
+        expected.add(session(35, "Female", 65.2, 1.7, 178, 141, 62, 1.2, 640, "Yoga", 25.1, 2.2, 3, 1.0, 22.6));
+        expected.add(session(52, "", 90.0, 1.85, 170, 130, 70, 0.75, 450, "Boxing", 28.0, 3.0, 2, 1.0, 26.3));
+
+        Dataset dataset = datasets.current();
+        assertThat(dataset.getVersion()).isGreaterThan(initial.getVersion());
+        assertThat(dataset.getTable().toSessions()).isEqualTo(expected);
+        assertThat(initial.getTable().toSessions()).isEqualTo(expected.subList(0, initial.getTable().size()));
+        assertThat(dataset.getZones().blocks()).isEqualTo(ZoneMap.of(dataset.getTable()).blocks());
+        assertThat(report(dataset.getAggregate())).isEqualTo(report(SessionAggregate.of(expected)));
+        assertThat(dataset.getCube().cells(Metric.CALORIES_BURNED))
+                .isEqualTo(SessionCube.of(dataset.getTable()).cells(Metric.CALORIES_BURNED));
+
+        List<SessionsIngestedEvent> ingested = events.stream()
+                .filter(SessionsIngestedEvent.class::isInstance).map(SessionsIngestedEvent.class::cast).toList();
+        assertThat(ingested.stream().mapToInt(SessionsIngestedEvent::sessions).sum()).isEqualTo(4);
+        assertThat(ingested.stream().mapToLong(SessionsIngestedEvent::skippedRecords).sum()).isEqualTo(1);
+        assertThat(ingested.stream().mapToInt(event -> event.latencies().size()).sum()).isEqualTo(2);
+        assertThat(ingestion.ingestedSessions()).isEqualTo(4);
+        assertThat(ingestion.skippedRecords()).isEqualTo(1);
+        assertThat(ingestion.queuedRecords()).isZero();
+    }
+
+    @Test
+    void refusesBatchesThatDoNotFitTheQueue() throws Exception {
+        properties.getIngest().setQueueCapacity(10);
+        properties.getIngest().setBlockTimeout(Duration.ofMillis(20));
+        ingestion = new IngestionService(datasets, events::add, properties); // worker not started yet
+        byte[] line = "41,Male,80.5,1.8,185,150,60,1.5,900,Boxing,18.2,3.1,4,2,24.8\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(ingestion.submit(IngestBatch.ofCsv(repeat(line, 6))).queuedRecords()).isEqualTo(6);
+        assertThatThrownBy(() -> ingestion.submit(IngestBatch.ofCsv(repeat(line, 5))))
+                .isInstanceOf(QueueFullException.class);
+        assertThatThrownBy(() -> ingestion.submit(IngestBatch.ofCsv(repeat(line, 11))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(ingestion.rejectedRecords()).isEqualTo(5);
+        assertThat(ingestion.queuedRecords()).isEqualTo(6);
+
+        ingestion.start();
+        assertThat(ingestion.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        assertThat(ingestion.submit(IngestBatch.ofCsv(repeat(line, 10))).records()).isEqualTo(10);
+        assertThat(ingestion.awaitIdle(Duration.ofSeconds(10))).isTrue();
+        assertThat(ingestion.acceptedRecords()).isEqualTo(16);
+        assertThat(datasets.current().getAggregate().getByWorkoutType().get("Boxing").sessions()).isEqualTo(16);
+    }
+
+    // Requests racing the startup load share one load instead of each
+    // reloading
+    @Test
+    void concurrentFirstReadsLoadOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Future<Dataset>> reads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                reads.add(pool.submit(() -> {
+                    ready.await();
+                    return datasets.current();
+                }));
+            }
+            ready.countDown();
+            for (Future<Dataset> read : reads) {
+                assertThat(read.get()).isSameAs(datasets.current());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(events).filteredOn(DatasetReloadedEvent.class::isInstance).hasSize(1);
+    }
+
+    @Test
+    void rejectsMalformedNdjson() {
+        ObjectMapper mapper = new ObjectMapper();
+        for (String body : List.of("{\"age\":1}\n[1,2]", "{\"age\":", "{\"workoutType\":\"Box,ing\"}")) {
+            assertThatThrownBy(() -> IngestBatch.ofNdjson(body.getBytes(StandardCharsets.UTF_8), mapper))
+                    .as(body).isInstanceOf(IllegalArgumentException.class);
+        }
+        IngestBatch noHeader = IngestBatch.ofCsv("1,Male\n\n2,Female\r3".getBytes(StandardCharsets.UTF_8));
+        assertThat(noHeader.header()).isFalse();
+        assertThat(noHeader.records()).isEqualTo(4);
+        assertThat(IngestBatch.ofCsv(new byte[0]).records()).isZero();
+    }
+
+    private IngestionService start(FitnessAnalyticsProperties settings) {
+        IngestionService service = new IngestionService(datasets, events::add, settings);
+        service.start();
+        return service;
+    }
+
+    // Parsed so that the order of hash-keyed groups doesn't matter
+    private JsonNode report(SessionAggregate aggregate) throws Exception {
+        return new ObjectMapper().readTree(ReportRenderer.render(AnalyticsReport.of(analytics, aggregate),
+                ReportRenderer.Format.JSON));
+    }
+
+    private static byte[] repeat(byte[] line, int times) {
+        byte[] result = new byte[line.length * times];
+        for (int i = 0; i < times; i++) {
+            System.arraycopy(line, 0, result, i * line.length, line.length);
+        }
+        return result;
+    }
+
+    private static ActivitySession session(int age, String gender, double weight, double height, int maxBpm,
+                                           int avgBpm, int restingBpm, double hours, int calories, String type,
+                                           double fat, double water, int frequency, double level, double bmi) {
+        return ActivitySession.builder().age(age).gender(gender).weightKg(weight).heightM(height).maxBpm(maxBpm)
+                .avgBpm(avgBpm).restingBpm(restingBpm).sessionDurationHours(hours).caloriesBurned(calories)
+                .workoutType(type).fatPercentage(fat).waterIntakeLiters(water).workoutFrequencyPerWeek(frequency)
+                .experienceLevel(level).bmi(bmi).build();
+    }
+}
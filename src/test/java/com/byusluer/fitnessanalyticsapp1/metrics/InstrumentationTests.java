@@ -0,0 +1,67 @@
+package com.byusluer.fitnessanalyticsapp1.metrics;
+
+import com.byusluer.fitnessanalyticsapp1.csv.SkipReason;
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+import com.byusluer.fitnessanalyticsapp1.service.DatasetService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class InstrumentationTests {
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    FitnessAnalyticsService analytics;
+
+    @Autowired
+    DatasetService datasetService;
+
+    @Test
+    void timesEveryAnalyticsCallWithItsAllocations() {
+        Dataset dataset = datasetService.current();
+        long callsBefore = callTimer("getTotalCalories", "SessionAggregate").count();
+
+        analytics.getTotalCalories(dataset.getAggregate());
+        analytics.getTotalCalories(dataset.getAggregate());
+        analytics.getTotalCalories(dataset.getTable().toSessions());
+
+        assertThat(callTimer("getTotalCalories", "SessionAggregate").count()).isEqualTo(callsBefore + 2);
+        DistributionSummary allocated = registry.get(AnalyticsMetricsAspect.ALLOCATION_SUMMARY)
+                .tag("method", "getTotalCalories").tag("input", "List").summary();
+        assertThat(allocated.count()).isPositive();
+        assertThat(allocated.max()).isPositive();
+        assertThat(registry.find(AnalyticsMetricsAspect.CALL_TIMER).tag("method", "shutdown").timer()).isNull();
+    }
+
+    @Test
+    void publishesLoaderCountersAndThroughput() {
+        double acceptedBefore = registry.get("fitness.loader.rows").tag("outcome", "accepted").functionCounter().count();
+
+        Dataset dataset = datasetService.reload();
+
+        assertThat(registry.get("fitness.loader.rows").tag("outcome", "accepted").functionCounter().count())
+                .isEqualTo(acceptedBefore + dataset.getTable().size());
+        assertThat(registry.get("fitness.loader.bytes").functionCounter().count()).isPositive();
+        assertThat(registry.get("fitness.loader.parse").functionTimer().count()).isPositive();
+        assertThat(registry.get("fitness.loader.last.rows.per.second").gauge().value()).isPositive();
+        for (SkipReason reason : SkipReason.values()) {
+            assertThat(registry.get("fitness.loader.rows.skipped").tag("reason", reason.name().toLowerCase())
+                    .functionCounter().count()).isNotNegative();
+        }
+    }
+
+    private Timer callTimer(String method, String input) {
+        Timer timer = registry.find(AnalyticsMetricsAspect.CALL_TIMER).tag("method", method).tag("input", input).timer();
+        return timer != null ? timer : Timer.builder(AnalyticsMetricsAspect.CALL_TIMER)
+                .tag("method", method).tag("input", input).register(registry);
+    }
+}
@@ -0,0 +1,48 @@
+package com.byusluer.fitnessanalyticsapp1.model;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Seeded session generator shared by the tests. Every field is null now and
+// then, workout types and genders come from small fixed sets, durations are
+// whole quarter hours and calories can be negative, so groups, ties and
+// sign handling all get exercised. The same seed gives the same sessions.
+
+@UtilityClass
+public class RandomSessions {
+
+    private static final String[] WORKOUT_TYPES = {"Yoga", "HIIT", "Cardio", "Strength"};
+    private static final String[] GENDERS = {"Male", "Female"};
+
+    public static List<ActivitySession> of(int size, long seed) {
+        Random random = new Random(seed);
+        List<ActivitySession> sessions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sessions.add(next(random));
+        }
+        return sessions;
+    }
+
+    public static ActivitySession next(Random random) {
+        return ActivitySession.builder()
+                .age(random.nextInt(5) == 0 ? null : 18 + random.nextInt(50))
+                .gender(random.nextInt(10) == 0 ? null : GENDERS[random.nextInt(GENDERS.length)])
+                .weightKg(random.nextInt(7) == 0 ? null : 50 + random.nextDouble() * 70)
+                .heightM(1.5 + random.nextDouble() * 0.5)
+                .maxBpm(random.nextBoolean() ? null : 150 + random.nextInt(50))
+                .avgBpm(120 + random.nextInt(60))
+                .restingBpm(random.nextInt(3) == 0 ? null : 50 + random.nextInt(25))
+                .sessionDurationHours(random.nextInt(4) == 0 ? null : 0.5 + random.nextInt(7) * 0.25)
+                .caloriesBurned(random.nextInt(6) == 0 ? null : random.nextInt(1500) - 100)
+                .workoutType(random.nextInt(12) == 0 ? null : WORKOUT_TYPES[random.nextInt(WORKOUT_TYPES.length)])
+                .fatPercentage(random.nextDouble() * 35)
+                .waterIntakeLiters(random.nextInt(9) == 0 ? null : 1.5 + random.nextDouble() * 2)
+                .workoutFrequencyPerWeek(random.nextInt(2) == 0 ? null : 2 + random.nextInt(4))
+                .experienceLevel(random.nextInt(15) == 0 ? null : (double) (1 + random.nextInt(3)))
+                .bmi(random.nextInt(10) == 0 ? null : 18 + random.nextDouble() * 20)
+                .build();
+    }
+}
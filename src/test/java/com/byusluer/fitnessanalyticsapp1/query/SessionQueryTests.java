@@ -0,0 +1,229 @@
+package com.byusluer.fitnessanalyticsapp1.query;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.cube.Dimension;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.model.RandomSessions;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.StringDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.byusluer.fitnessanalyticsapp1.query.Comparison.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SessionQueryTests {
+
+    private final FitnessAnalyticsService analytics = new FitnessAnalyticsService();
+
+    // Compiled bitmaps must agree with the per-session interpretation,
+    // including nulls, negation, text inequality and infinite / NaN operands
+    @Test
+    void compiledConditionsMatchPerSessionEvaluation() {
+        List<ActivitySession> sessions = RandomSessions.of(10_000, 7);
+        sessions.get(5).setWeightKg(Double.NaN);
+        sessions.get(9_000).setWeightKg(Double.NaN);
+        SessionTable table = SessionTable.of(sessions);
+        ZoneMap zones = ZoneMap.of(table);
+
+        List<Condition> conditions = new ArrayList<>(List.of(
+                Condition.ALL,
+                Condition.or(),
+                QueryParser.parseCondition("avgBpm > 160 and sessionDurationHours > 1.5 and gender = 'female'"),
+                QueryParser.parseCondition("not (workoutType = Yoga or workoutType = HIIT) and age >= 40"),
+                QueryParser.parseCondition("gender != Male or caloriesBurned <= 250.5"),
+                QueryParser.parseCondition("!(maxBpm != 170) || bmi < 20"),
+                Condition.compare(Metric.WEIGHT_KG, GT, Double.POSITIVE_INFINITY),
+                Condition.compare(Metric.WEIGHT_KG, GE, Double.NEGATIVE_INFINITY),
+                Condition.compare(Metric.AGE, LT, Double.NEGATIVE_INFINITY),
+                Condition.compare(Metric.CALORIES_BURNED, NE, Double.NaN),
+                Condition.compare(Metric.CALORIES_BURNED, GE, 3e9)));
+        for (Metric metric : Metric.VALUES) {
+            for (Comparison op : Comparison.values()) {
+                conditions.add(Condition.compare(metric, op, metric.read(sessions.get(3)) == null
+                        ? 1.5 : metric.read(sessions.get(3)).doubleValue()));
+            }
+        }
+
+        for (Condition condition : conditions) {
+            for (Condition tested : List.of(condition, Condition.not(condition))) {
+                long expected = sessions.stream().filter(tested::matches).count();
+                QueryResult result = analytics.query(table, zones, SessionQuery.count(tested));
+
+                assertThat(result.matchedSessions()).as("%s", tested).isEqualTo(expected);
+                assertThat(result.rows().get(0).get(Selection.COUNT)).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void zoneMapSkipsBlocksThatCannotMatch() {
+        List<ActivitySession> sessions = RandomSessions.of(5 * ZoneMap.BLOCK_ROWS + 100, 11);
+        for (int i = 0; i < sessions.size(); i++) {
+            sessions.get(i).setAge(i < 3 * ZoneMap.BLOCK_ROWS ? 20 + i % 10 : 50 + i % 10);
+        }
+        SessionTable table = SessionTable.of(sessions);
+
+        QueryResult older = analytics.query(table, SessionQuery.count(QueryParser.parseCondition("age >= 50")));
+        QueryResult none = analytics.query(table, SessionQuery.count(QueryParser.parseCondition("age > 100")));
+        QueryResult unknownType = analytics.query(table,
+                SessionQuery.count(Condition.text(TextField.WORKOUT_TYPE, EQ, "Pilates")));
+
+        assertThat(older.matchedSessions()).isEqualTo(2 * ZoneMap.BLOCK_ROWS + 100);
+        assertThat(older.blocksSkipped()).isEqualTo(3);
+        assertThat(older.blocksScanned()).isEqualTo(3);
+        assertThat(none.blocksScanned()).isZero();
+        assertThat(none.rows()).singleElement()
+                .satisfies(row -> assertThat(row.get(Selection.COUNT)).isEqualTo(0L));
+        assertThat(unknownType.blocksSkipped()).isEqualTo(6);
+    }
+
+    @Test
+    void groupsAndAggregatesMatchingSessions() {
+        List<ActivitySession> sessions = new CsvLoaderService().loadSessionsFromCsv("fitness_data.csv");
+        SessionTable table = SessionTable.of(sessions);
+        Condition where = QueryParser.parseCondition("avgBpm > 140 and not gender = female");
+        List<Selection> select = QueryParser.parseSelections(List.of("count", "avg(caloriesBurned)",
+                "max(SESSION_DURATION_HOURS)", "count(maxBpm)", "sum(bmi)"));
+
+        QueryResult result = analytics.query(table,
+                new SessionQuery(where, List.of(Dimension.WORKOUT_TYPE, Dimension.EXPERIENCE_LEVEL), select));
+
+        Map<List<Object>, List<ActivitySession>> expected = new HashMap<>();
+        sessions.stream().filter(where::matches).forEach(session -> expected
+                .computeIfAbsent(Arrays.asList(session.getWorkoutType(), session.getExperienceLevel()),
+                        key -> new ArrayList<>())
+                .add(session));
+
+        assertThat(result.rows()).hasSize(expected.size());
+        for (QueryResult.Row row : result.rows()) {
+            List<ActivitySession> group = expected.get(Arrays.asList(
+                    row.groups().get(Dimension.WORKOUT_TYPE), row.groups().get(Dimension.EXPERIENCE_LEVEL)));
+            assertThat(group).isNotNull();
+            assertThat(row.get(select.get(0))).isEqualTo((long) group.size());
+            assertThat(row.get(select.get(1)).doubleValue()).isCloseTo(group.stream()
+                    .filter(s -> s.getCaloriesBurned() != null)
+                    .mapToInt(ActivitySession::getCaloriesBurned).average().orElseThrow(), within(1e-9));
+            assertThat(row.get(select.get(2))).isEqualTo(group.stream()
+                    .filter(s -> s.getSessionDurationHours() != null)
+                    .mapToDouble(ActivitySession::getSessionDurationHours).max().orElseThrow());
+            assertThat(row.get(select.get(3))).isEqualTo(group.stream().filter(s -> s.getMaxBpm() != null).count());
+            assertThat(row.get(select.get(4)).doubleValue()).isCloseTo(group.stream()
+                    .filter(s -> s.getBmi() != null)
+                    .mapToDouble(ActivitySession::getBmi).sum(), within(1e-6));
+        }
+
+        long highCalorie = analytics.query(table, SessionQuery.count(Condition.compare(Metric.CALORIES_BURNED, GT,
+                500))).matchedSessions();
+        assertThat(highCalorie).isEqualTo(analytics.getCaloriesBurned(sessions));
+    }
+
+    // Growing a table through builder views and extending the zone map gives
+    // what concatenating and rebuilding gives, and leaves the earlier tables
+    // and zone maps as they were
+    @Test
+    void extendedZoneMapMatchesRebuiltOne() {
+        SessionTable.Builder builder = new SessionTable.Builder(64);
+        List<SessionTable> batches = new ArrayList<>();
+        List<SessionTable> views = new ArrayList<>();
+        List<ZoneMap> zoneMaps = new ArrayList<>();
+        ZoneMap zones = ZoneMap.of(builder.view());
+        int seed = 0;
+        for (int size : new int[]{1000, 5000, 3, 2189, 9000, 64}) {
+            List<ActivitySession> batch = RandomSessions.of(size, ++seed);
+            batch.get(0).setWorkoutType("Rowing " + seed);
+            batches.add(SessionTable.of(batch));
+            SessionTable view = builder.addAll(batches.get(batches.size() - 1)).view();
+            zones = zones.extend(view);
+            views.add(view);
+            zoneMaps.add(zones);
+        }
+
+        // Bare metric conditions read whole validity words, also the one the
+        // next batch continues
+        List<Condition> conditions = List.of(QueryParser.parseCondition("heightM > 0"),
+                QueryParser.parseCondition("avgBpm != 150"),
+                QueryParser.parseCondition("workoutType != Yoga and age < 40"));
+        for (int i = 0; i < views.size(); i++) {
+            List<ActivitySession> expected = SessionTable.concat(batches.subList(0, i + 1)).toSessions();
+            assertThat(views.get(i).toSessions()).isEqualTo(expected);
+            assertSameZones(zoneMaps.get(i), ZoneMap.of(SessionTable.of(expected)));
+            for (Condition condition : conditions) {
+                assertThat(analytics.query(views.get(i), zoneMaps.get(i), SessionQuery.count(condition))
+                        .matchedSessions()).isEqualTo(expected.stream().filter(condition::matches).count());
+            }
+        }
+        // Extending a zone map a second time doesn't touch the first extension
+        assertSameZones(zoneMaps.get(2).extend(views.get(4)), zoneMaps.get(4));
+        assertSameZones(zoneMaps.get(3), ZoneMap.of(views.get(3)));
+    }
+
+    // Free-text workout types far past 16 bits of codes still group, next to
+    // every other dimension
+    @Test
+    void groupsByHighCardinalityText() {
+        List<ActivitySession> sessions = RandomSessions.of(100_000, 13);
+        for (int i = 0; i < sessions.size(); i++) {
+            sessions.get(i).setWorkoutType(i % 9 == 0 ? null : "Type " + i % 70_000);
+        }
+        SessionTable table = SessionTable.of(sessions);
+        List<Dimension> groupBy = List.of(Dimension.EXPERIENCE_LEVEL, Dimension.WORKOUT_TYPE, Dimension.GENDER,
+                Dimension.AGE_BAND);
+
+        QueryResult result = analytics.query(table, new SessionQuery(Condition.ALL, groupBy,
+                QueryParser.parseSelections(List.of("count"))));
+
+        Map<List<Object>, Long> expected = new HashMap<>();
+        sessions.forEach(session -> expected.merge(Arrays.asList(session.getExperienceLevel(),
+                session.getWorkoutType(), session.getGender(), session.getAge() == null ? null
+                        : Dimension.ageBandLabels().get(Dimension.ageBand(session.getAge()))), 1L, Long::sum));
+        Map<List<Object>, Object> actual = new HashMap<>();
+        result.rows().forEach(row -> actual.put(groupBy.stream().map(row.groups()::get).toList(),
+                row.get(Selection.COUNT)));
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void parserRejectsMalformedInput() {
+        for (String malformed : List.of("age >", "age >> 3", "(age > 3", "age > 3)", "height > 2",
+                "gender > 'Male'", "age > 'x", "age > three", "age > 3 nonsense")) {
+            assertThatThrownBy(() -> QueryParser.parseCondition(malformed))
+                    .as(malformed).isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> QueryParser.parseSelection("median(age)"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> QueryParser.parseSelection("avg()"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(QueryParser.parseCondition("  ")).isEqualTo(Condition.ALL);
+        assertThat(QueryParser.parseCondition("AVG_BPM >= 1e2 and workout_type == \"Yoga\""))
+                .isEqualTo(Condition.and(Condition.compare(Metric.AVG_BPM, GE, 100),
+                        Condition.text(TextField.WORKOUT_TYPE, EQ, "Yoga")));
+    }
+
+    private static void assertSameZones(ZoneMap actual, ZoneMap expected) {
+        assertThat(actual.rows()).isEqualTo(expected.rows());
+        assertThat(actual.blocks()).isEqualTo(expected.blocks());
+        for (int block = 0; block < expected.blocks(); block++) {
+            for (Metric metric : Metric.VALUES) {
+                assertThat(actual.min(metric, block)).isEqualTo(expected.min(metric, block));
+                assertThat(actual.max(metric, block)).isEqualTo(expected.max(metric, block));
+                assertThat(actual.count(metric, block)).isEqualTo(expected.count(metric, block));
+            }
+            for (TextField field : TextField.values()) {
+                for (int code = StringDictionary.NULL_CODE; code < 70; code++) {
+                    assertThat(actual.containsCode(field, block, code))
+                            .isEqualTo(expected.containsCode(field, block, code));
+                }
+            }
+        }
+    }
+}
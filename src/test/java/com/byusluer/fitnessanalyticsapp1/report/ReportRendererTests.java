@@ -0,0 +1,106 @@
+package com.byusluer.fitnessanalyticsapp1.report;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.util.NumberFormatter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportRendererTests {
+
+    private final FitnessAnalyticsService analytics = new FitnessAnalyticsService();
+    private final List<ActivitySession> sessions = new CsvLoaderService().loadSessionsFromCsv("fitness_data.csv");
+    private final AnalyticsReport report = AnalyticsReport.of(analytics, SessionAggregate.of(sessions));
+
+    // Random values of every magnitude plus exact ties (x.xx5 in binary) and
+    // the values that are just off a tie
+    @Test
+    void formatsLikeDecimalFormat() {
+        DecimalFormat reference = new DecimalFormat("#.##", DecimalFormatSymbols.getInstance(Locale.ROOT));
+        List<Double> values = new ArrayList<>(List.of(0.0, -0.0, 0.5, -0.001, 0.005, 0.125, 0.135, 2.675,
+                1.005, 123456.785, 1e13, 1e20, Math.pow(2, 60), Double.MIN_VALUE, Double.MAX_VALUE,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY));
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 200_000; i++) {
+            values.add(random.nextDouble(-1000, 1000));
+            values.add((random.nextLong(-1_000_000_000L, 1_000_000_000L) + 0.5) / 100);
+            values.add(random.nextDouble() * Math.pow(10, random.nextInt(-8, 22)));
+            values.add(Double.longBitsToDouble(random.nextLong()));
+        }
+
+        StringBuilder buffer = new StringBuilder();
+        for (double value : values) {
+            buffer.setLength(0);
+            assertThat(NumberFormatter.appendTwoDecimals(buffer, value).toString())
+                    .as("%s", value).isEqualTo(reference.format(value));
+        }
+        assertThat(NumberFormatter.formatDouble(null)).isEqualTo("0.00");
+        assertThat(NumberFormatter.formatDouble(1234.5678)).isEqualTo("1234.57");
+        assertThat(NumberFormatter.appendJsonNumber(new StringBuilder(), -0.001).toString()).isEqualTo("0");
+        assertThat(NumberFormatter.appendJsonNumber(new StringBuilder(), Double.NaN).toString()).isEqualTo("null");
+    }
+
+    @Test
+    void rendersReportAsTextAndJson() throws Exception {
+        String text = ReportRenderer.render(report, ReportRenderer.Format.TEXT);
+        assertThat(text).contains("[1] Total calories burned: " + analytics.getTotalCalories(sessions) + " kcal\n");
+        assertThat(text).contains("[16] Sessions burning > 500 kcal: " + analytics.getCaloriesBurned(sessions));
+        assertThat(text.lines().filter(line -> line.startsWith("🔥 [")).count()).isEqualTo(18);
+
+        JsonNode json = new ObjectMapper().readTree(ReportRenderer.render(report, ReportRenderer.Format.JSON));
+        assertThat(json.get("totalCalories").asInt()).isEqualTo(analytics.getTotalCalories(sessions));
+        assertThat(json.get("averageDurationHours").asDouble())
+                .isEqualTo(Math.round(analytics.getAverageWoDuration(sessions) * 100) / 100.0);
+        assertThat(json.get("topWorkoutTypes")).hasSize(analytics.getTopWoTypes(sessions).size());
+        assertThat(json.get("caloriesByWorkoutType").get("Yoga").asInt())
+                .isEqualTo(analytics.getTotalCaloriesByWoType(sessions).get("Yoga"));
+        assertThat(json.get("longestSessionByExperience")).hasSize(
+                analytics.getMaxDurationPerExpLevel(sessions).size());
+
+        StringWriter out = new StringWriter();
+        ReportRenderer.write(report, ReportRenderer.Format.TEXT, new StringBuilder("stale"), out);
+        assertThat(out.toString()).isEqualTo(text);
+    }
+
+    @Test
+    void rendersConcurrentlyOnVirtualThreads() throws Exception {
+        String text = ReportRenderer.render(report, ReportRenderer.Format.TEXT);
+        String json = ReportRenderer.render(report, ReportRenderer.Format.JSON);
+
+        List<Future<Boolean>> renders = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2_000; i++) {
+                ReportRenderer.Format format = ReportRenderer.Format.values()[i % 2];
+                renders.add(executor.submit(() -> {
+                    StringBuilder buffer = new StringBuilder();
+                    boolean same = true;
+                    for (int round = 0; round < 5; round++) {
+                        buffer.setLength(0);
+                        String rendered = ReportRenderer.render(report, format, buffer).toString();
+                        same &= rendered.equals(format == ReportRenderer.Format.TEXT ? text : json);
+                    }
+                    return same;
+                }));
+            }
+        }
+        for (Future<Boolean> render : renders) {
+            assertThat(render.get()).isTrue();
+        }
+    }
+}
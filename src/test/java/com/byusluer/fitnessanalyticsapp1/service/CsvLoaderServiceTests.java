@@ -0,0 +1,153 @@
+package com.byusluer.fitnessanalyticsapp1.service;
+
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.cube.Dimension;
+import com.byusluer.fitnessanalyticsapp1.csv.LoadReport;
+import com.byusluer.fitnessanalyticsapp1.csv.LoadResult;
+import com.byusluer.fitnessanalyticsapp1.csv.SkipReason;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.query.QueryParser;
+import com.byusluer.fitnessanalyticsapp1.query.QueryResult;
+import com.byusluer.fitnessanalyticsapp1.query.Selection;
+import com.byusluer.fitnessanalyticsapp1.query.SessionQuery;
+import com.byusluer.fitnessanalyticsapp1.table.OffHeapSessionTable;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvLoaderServiceTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void chunkedFileLoadMatchesClasspathLoad() throws IOException {
+        LoadResult<List<ActivitySession>> classpathLoad = new CsvLoaderService().loadSessions("fitness_data.csv");
+        List<ActivitySession> expected = classpathLoad.getData();
+
+        Path lf = write("lf.csv", bundledCsv().replace("\r\n", "\n"));
+        Path crlf = write("crlf.csv", bundledCsv());
+
+        for (Path file : List.of(lf, crlf)) {
+            for (int threads : new int[]{1, 4}) {
+                LoadResult<List<ActivitySession>> fileLoad = smallChunkLoader().loadSessions(file, threads);
+
+                assertThat(fileLoad.getData()).isEqualTo(expected);
+                assertThat(fileLoad.getReport().getRowsRead()).isEqualTo(classpathLoad.getReport().getRowsRead());
+                assertThat(fileLoad.getReport().getRowsSkipped()).isEqualTo(classpathLoad.getReport().getRowsSkipped());
+                assertThat(fileLoad.getReport().getBytesProcessed()).isEqualTo(Files.size(file));
+                assertThat(smallChunkLoader().loadTableFromPath(file, threads).toSessions()).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void chunkedFileLoadHandlesEmptyAndHeaderOnlyFiles() throws IOException {
+        CsvLoaderService loader = smallChunkLoader();
+
+        assertThat(loader.loadSessionsFromPath(write("empty.csv", ""), 4)).isEmpty();
+        LoadResult<List<ActivitySession>> headerOnly = loader.loadSessions(write("header.csv", "Age,Gender\r"), 4);
+
+        assertThat(headerOnly.getData()).isEmpty();
+        assertThat(headerOnly.getReport().getRowsRead()).isEqualTo(1);
+        assertThat(headerOnly.getReport().getRowsSkippedTotal()).isZero();
+    }
+
+    @Test
+    void concurrentLoadsReportPerFileAndAddUpTotals() throws IOException {
+        String csv = bundledCsv() + "1,2,3\r\n";
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            files.add(write("part-" + i + ".csv", csv));
+        }
+        CsvLoaderService loader = smallChunkLoader();
+
+        List<LoadResult<List<ActivitySession>>> results = loader.loadSessionsConcurrently(files);
+
+        LoadReport first = results.get(0).getReport();
+        assertThat(results).allSatisfy(result -> {
+            assertThat(result.getReport().getRowsRead()).isEqualTo(first.getRowsRead());
+            assertThat(result.getReport().getRowsSkipped()).containsEntry(SkipReason.NOT_ENOUGH_COLUMNS, 1L);
+            assertThat(result.getData()).hasSize((int) result.getReport().getRowsAccepted());
+        });
+        LoadReport totals = loader.getTotals();
+        assertThat(totals.getRowsRead()).isEqualTo(8 * first.getRowsRead());
+        assertThat(totals.getRowsAccepted()).isEqualTo(8 * first.getRowsAccepted());
+        assertThat(totals.getRowsSkipped()).containsEntry(SkipReason.NOT_ENOUGH_COLUMNS, 8L);
+        assertThat(totals.getBytesProcessed()).isEqualTo(8 * first.getBytesProcessed());
+    }
+
+    // Dictionary codes are not limited to a byte: 300 workout types and 270
+    // genders survive chunked, off-heap and snapshot loads, grouping and
+    // filtering
+    @Test
+    void loadsMoreThan255DistinctTextValues() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            csv.append(20 + i % 40).append(",G").append(i % 270).append(",70,1.8,180,150,60,1.0,")
+                    .append(100 + i).append(",Type ").append(i % 300).append(",15,2,3,1,21.6\r\n");
+        }
+        Path file = write("types.csv", csv.toString());
+        List<ActivitySession> expected = new CsvLoaderService().loadSessionsFromPath(file);
+        FitnessAnalyticsService analytics = new FitnessAnalyticsService();
+
+        SessionTable table = smallChunkLoader().loadTableFromPath(file, 4);
+        assertThat(table.toSessions()).isEqualTo(expected);
+        assertThat(table.workoutTypes().size()).isEqualTo(300);
+        assertThat(table.genders().size()).isEqualTo(270);
+        assertThat(analytics.getTotalCaloriesByWoType(analytics.aggregate(table)))
+                .hasSize(300)
+                .isEqualTo(analytics.getTotalCaloriesByWoType(expected));
+
+        SnapshotService snapshots = new SnapshotService(smallChunkLoader(), new FitnessAnalyticsProperties());
+        snapshots.loadTable(file);
+        LoadResult<SessionTable> snapshot = snapshots.loadTable(file);
+        assertThat(snapshot.getReport().getSource()).endsWith(SnapshotService.SUFFIX);
+        assertThat(snapshot.getData().toSessions()).isEqualTo(expected);
+
+        try (OffHeapSessionTable offHeap = smallChunkLoader().loadOffHeapTable(file, null).getData()) {
+            assertThat(offHeap.toSession(offHeap.size() - 1)).isEqualTo(expected.get(expected.size() - 1));
+            assertThat(analytics.getTotalCaloriesByWoType(analytics.aggregate(offHeap)))
+                    .isEqualTo(analytics.getTotalCaloriesByWoType(expected));
+        }
+
+        QueryResult result = analytics.query(table, new SessionQuery(
+                QueryParser.parseCondition("workoutType = 'Type 299' or gender = G269"),
+                List.of(Dimension.WORKOUT_TYPE), QueryParser.parseSelections(List.of("count"))));
+        Map<Object, Long> counts = new HashMap<>();
+        expected.stream()
+                .filter(session -> session.getWorkoutType().equals("Type 299") || session.getGender().equals("G269"))
+                .forEach(session -> counts.merge(session.getWorkoutType(), 1L, Long::sum));
+        Map<Object, Object> actual = new HashMap<>();
+        result.rows().forEach(row -> actual.put(row.groups().get(Dimension.WORKOUT_TYPE), row.get(Selection.COUNT)));
+        assertThat(actual).isEqualTo(counts);
+    }
+
+    private CsvLoaderService smallChunkLoader() {
+        FitnessAnalyticsProperties properties = new FitnessAnalyticsProperties();
+        properties.getLoader().setChunkSizeBytes(4096);
+        return new CsvLoaderService(properties);
+    }
+
+    private String bundledCsv() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("fitness_data.csv")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+}
@@ -0,0 +1,92 @@
+package com.byusluer.fitnessanalyticsapp1.service;
+
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatasetWatcherTests {
+
+    private static final String HEADER = "Age,Gender,Weight (kg),Height (m),Max_BPM,Avg_BPM,Resting_BPM,"
+            + "Session_Duration (hours),Calories_Burned,Workout_Type,Fat_Percentage,Water_Intake (liters),"
+            + "Workout_Frequency (days/week),Experience_Level,BMI\n";
+    private static final String ROW = "22,Male,70,1.8,180,150,60,1.0,400,Boxing,15,2,3,1,21.6\n";
+
+    @TempDir
+    Path directory;
+
+    private final List<DatasetReloadedEvent> events = new CopyOnWriteArrayList<>();
+    private DatasetService datasetService;
+    private DatasetWatcher watcher;
+
+    @BeforeEach
+    void start() throws IOException {
+        FitnessAnalyticsProperties properties = new FitnessAnalyticsProperties();
+        properties.getWatch().setDirectory(directory);
+        properties.getWatch().setDebounce(Duration.ofMillis(50));
+        CsvLoaderService loader = new CsvLoaderService(properties);
+        datasetService = new DatasetService(loader, new SnapshotService(loader, properties),
+                new FitnessAnalyticsService(properties), properties, event -> events.add((DatasetReloadedEvent) event));
+        datasetService.reload();
+        watcher = new DatasetWatcher(datasetService, properties);
+        watcher.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        watcher.stop();
+    }
+
+    @Test
+    void swapsInNewAndChangedFiles() throws Exception {
+        Path csv = directory.resolve("export.csv");
+        Files.writeString(csv, HEADER + ROW);
+        Dataset first = awaitDataset(d -> d.getTable().size() == 1);
+
+        Files.writeString(csv, HEADER + ROW + ROW + ROW);
+        Dataset second = awaitDataset(d -> d.getTable().size() == 3);
+
+        assertThat(second.getVersion()).isGreaterThan(first.getVersion());
+        assertThat(second.getAggregate().getOverall().sessions()).isEqualTo(3);
+        assertThat(second.getReloadTime()).isPositive();
+        assertThat(events).extracting(DatasetReloadedEvent::dataset).contains(first, second);
+
+        // Explicit reloads now re-read the watched file
+        assertThat(datasetService.reload().getTable().size()).isEqualTo(3);
+    }
+
+    @Test
+    void ignoresOtherFilesAndKeepsServingOnFailure() throws Exception {
+        long version = datasetService.current().getVersion();
+
+        Files.writeString(directory.resolve("notes.txt"), ROW);
+        Files.createDirectory(directory.resolve("unreadable.csv"));
+        Thread.sleep(300);
+
+        assertThat(datasetService.current().getVersion()).isEqualTo(version);
+    }
+
+    private Dataset awaitDataset(Predicate<Dataset> ready) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            Dataset dataset = datasetService.current();
+            if (ready.test(dataset)) {
+                return dataset;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Dataset was not reloaded");
+    }
+}
@@ -0,0 +1,267 @@
+package com.byusluer.fitnessanalyticsapp1.service;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.ParallelAggregator;
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.model.AnalyticsFilter;
+import com.byusluer.fitnessanalyticsapp1.model.Dataset;
+import com.byusluer.fitnessanalyticsapp1.model.RandomSessions;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FitnessAnalyticsServiceTests {
+
+    private final FitnessAnalyticsService service = new FitnessAnalyticsService();
+    private final StreamAnalyticsReference reference = new StreamAnalyticsReference();
+
+    @Test
+    void fusedAggregateMatchesStreamsOnBundledDataset() {
+        List<ActivitySession> sessions = new CsvLoaderService().loadSessionsFromCsv("fitness_data.csv");
+
+        assertMatchesReference(service.aggregate(sessions), sessions);
+    }
+
+    @Test
+    void fusedAggregateMatchesStreamsWithMissingValues() {
+        List<ActivitySession> sessions = new ArrayList<>();
+        sessions.add(ActivitySession.builder().workoutType("Yoga").gender("Female")
+                .caloriesBurned(300).sessionDurationHours(1.5).experienceLevel(1.0).build());
+        sessions.add(ActivitySession.builder().workoutType("Yoga").waterIntakeLiters(2.1).bmi(22.4)
+                .sessionDurationHours(1.5).experienceLevel(1.0).fatPercentage(18.2).build());
+        sessions.add(ActivitySession.builder().gender("Male").caloriesBurned(900)
+                .sessionDurationHours(2.25).workoutFrequencyPerWeek(4).build());
+        sessions.add(ActivitySession.builder().workoutType("HIIT").caloriesBurned(501)
+                .experienceLevel(3.0).workoutFrequencyPerWeek(4).build());
+        sessions.add(ActivitySession.builder().build());
+
+        assertMatchesReference(service.aggregate(sessions), sessions);
+    }
+
+    @Test
+    void emptyInputFallsBackToDefaults() {
+        List<ActivitySession> sessions = List.of();
+
+        assertMatchesReference(service.aggregate(sessions), sessions);
+        assertMatchesReference(service.aggregate(SessionTable.of(sessions)), sessions);
+    }
+
+    @Test
+    void columnarTableMatchesStreamsOnBundledDataset() {
+        CsvLoaderService loader = new CsvLoaderService();
+        List<ActivitySession> sessions = loader.loadSessionsFromCsv("fitness_data.csv");
+        SessionTable table = loader.loadTableFromCsv("fitness_data.csv");
+
+        assertThat(table.toSessions()).isEqualTo(sessions);
+        assertMatchesReference(service.aggregate(table), sessions);
+    }
+
+    @Test
+    void columnarTableKeepsMissingValues() {
+        List<ActivitySession> sessions = List.of(
+                ActivitySession.builder().workoutType("Yoga").caloriesBurned(300).experienceLevel(1.0).build(),
+                ActivitySession.builder().gender("Male").sessionDurationHours(2.25).workoutFrequencyPerWeek(4).build(),
+                ActivitySession.builder().build());
+        SessionTable table = SessionTable.of(sessions);
+
+        assertThat(table.toSessions()).isEqualTo(sessions);
+        assertMatchesReference(service.aggregate(table), sessions);
+    }
+
+    // Appending merges each batch's aggregate into a copy of the served one;
+    // after every batch that must match a full pass over all sessions so far
+    @Test
+    void appendedBatchesMatchFullRecompute() {
+        CsvLoaderService loader = new CsvLoaderService();
+        FitnessAnalyticsProperties properties = new FitnessAnalyticsProperties();
+        DatasetService datasets = new DatasetService(loader, new SnapshotService(loader, properties), service,
+                properties, event -> { });
+        List<ActivitySession> all = new ArrayList<>(loader.loadSessionsFromCsv("fitness_data.csv"));
+        Random random = new Random(42);
+
+        for (int batch = 0; batch < 25; batch++) {
+            List<ActivitySession> sessions = new ArrayList<>();
+            int size = random.nextInt(200);
+            for (int i = 0; i < size; i++) {
+                sessions.add(RandomSessions.next(random));
+            }
+            Dataset before = datasets.current();
+
+            Dataset after = datasets.append(SessionTable.of(sessions));
+            all.addAll(sessions);
+
+            assertThat(after.getTable().size()).isEqualTo(all.size());
+            assertMergedMatchesReference(after.getAggregate(), all);
+            assertThat(before.getAggregate().getOverall().sessions()).isEqualTo(all.size() - sessions.size());
+        }
+    }
+
+    @Test
+    void filteredTableAggregateMatchesFilteredSessions() {
+        CsvLoaderService loader = new CsvLoaderService();
+        List<ActivitySession> sessions = loader.loadSessionsFromCsv("fitness_data.csv");
+        SessionTable table = loader.loadTableFromCsv("fitness_data.csv");
+
+        for (AnalyticsFilter filter : List.of(new AnalyticsFilter("yoga", null, 30, null),
+                new AnalyticsFilter(null, "FEMALE", null, 40), new AnalyticsFilter("Strength", "Male", 20, 50),
+                new AnalyticsFilter("Boxing", null, null, null))) {
+            List<ActivitySession> matching = sessions.stream().filter(filter::matches).toList();
+            assertMatchesReference(SessionAggregate.of(table, filter.rows(table)), matching);
+        }
+    }
+
+    // Results read from an aggregate keep their values when it is merged into later
+    @Test
+    void numericKeyedResultsDoNotFollowLaterMerges() {
+        List<ActivitySession> sessions = new CsvLoaderService().loadSessionsFromCsv("fitness_data.csv");
+        SessionAggregate aggregate = service.aggregate(sessions);
+        Map<Double, Long> levels = service.getExperienceLevelPerSession(aggregate);
+        Map<Integer, Long> frequencies = service.getWorkOutFrequency(aggregate);
+        Map<Double, Double> fat = service.getAverageFatPercentageByExperience(aggregate);
+        Map<Double, ActivitySession> longest = service.getMaxDurationPerExpLevel(aggregate);
+        Map<Double, Long> levelsBefore = Map.copyOf(levels);
+        Map<Integer, Long> frequenciesBefore = Map.copyOf(frequencies);
+        Map<Double, Double> fatBefore = Map.copyOf(fat);
+        Map<Double, ActivitySession> longestBefore = Map.copyOf(longest);
+
+        aggregate.merge(service.aggregate(List.of(ActivitySession.builder().experienceLevel(9.0)
+                .workoutFrequencyPerWeek(4).fatPercentage(50.0).sessionDurationHours(30.0).build())));
+
+        assertThat(levels).isEqualTo(levelsBefore).doesNotContainKey(9.0);
+        assertThat(frequencies).isEqualTo(frequenciesBefore);
+        assertThat(fat).isEqualTo(fatBefore);
+        assertThat(longest).isEqualTo(longestBefore);
+        assertThat(service.getExperienceLevelPerSession(aggregate)).containsEntry(9.0, 1L);
+    }
+
+    @Test
+    void parallelAggregateIsDeterministicForAnyPoolSize() {
+        Random random = new Random(7);
+        List<ActivitySession> sessions = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            sessions.add(RandomSessions.next(random));
+        }
+        SessionTable table = SessionTable.of(sessions);
+
+        List<Object> expected = null;
+        for (int threads : new int[]{1, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                ParallelAggregator aggregator = new ParallelAggregator(pool, 1_000);
+                for (int run = 0; run < 3; run++) {
+                    List<Object> fromList = views(aggregator.aggregate(sessions));
+                    if (expected == null) expected = fromList;
+                    assertThat(fromList).isEqualTo(expected);
+                    assertThat(views(aggregator.aggregate(table))).isEqualTo(expected);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        assertMergedMatchesReference(
+                new ParallelAggregator(ForkJoinPool.commonPool(), 1_000).aggregate(sessions), sessions);
+    }
+
+    @Test
+    void parallelModeStaysSequentialBelowThreshold() {
+        FitnessAnalyticsProperties properties = new FitnessAnalyticsProperties();
+        properties.getAggregation().setParallel(true);
+        properties.getAggregation().setParallelThreshold(5_000);
+        properties.getAggregation().setLeafSize(500);
+        FitnessAnalyticsService parallelService = new FitnessAnalyticsService(properties);
+        List<ActivitySession> sessions = new CsvLoaderService().loadSessionsFromCsv("fitness_data.csv");
+        List<ActivitySession> scaled = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            scaled.addAll(sessions);
+        }
+
+        try {
+            assertMatchesReference(parallelService.aggregate(sessions), sessions);
+            assertThat(views(parallelService.aggregate(scaled)))
+                    .isEqualTo(views(new ParallelAggregator(ForkJoinPool.commonPool(), 500).aggregate(scaled)));
+        } finally {
+            parallelService.shutdown();
+        }
+    }
+
+    private List<Object> views(SessionAggregate aggregate) {
+        return List.of(service.getTotalCalories(aggregate), service.getAverageCaloriesBurned(aggregate),
+                service.getTotalCaloriesByWoType(aggregate), service.getTopWoTypes(aggregate),
+                service.calculateTotalWoDuration(aggregate), service.getAverageWoDuration(aggregate),
+                service.getAveWoDurationByType(aggregate), service.getMostFrequentWo(aggregate),
+                service.getWorkOutFrequency(aggregate), service.getWorkoutTypeWithMaxTotalDuration(aggregate),
+                service.getLongestWoSession(aggregate), service.getTotalWaterIntakeByWoType(aggregate),
+                service.getTotalCaloriesByGender(aggregate), service.getAverageFatPercentageByExperience(aggregate),
+                service.getAverageBMIbyWoType(aggregate), service.getCaloriesBurned(aggregate),
+                service.getExperienceLevelPerSession(aggregate), service.getMaxDurationPerExpLevel(aggregate));
+    }
+
+    private static <K> void assertCloseTo(Map<K, Double> actual, Map<K, Double> expected) {
+        assertThat(actual).containsOnlyKeys(expected.keySet());
+        expected.forEach((key, value) -> assertThat(actual.get(key)).isCloseTo(value, within(1e-9)));
+    }
+
+    void assertMatchesReference(SessionAggregate aggregate, List<ActivitySession> sessions) {
+        assertThat(service.getTotalCalories(aggregate)).isEqualTo(reference.getTotalCalories(sessions));
+        assertThat(service.getAverageCaloriesBurned(aggregate)).isEqualTo(reference.getAverageCaloriesBurned(sessions));
+        assertThat(service.getTotalCaloriesByWoType(aggregate)).isEqualTo(reference.getTotalCaloriesByWoType(sessions));
+        assertThat(service.getTopWoTypes(aggregate)).isEqualTo(reference.getTopWoTypes(sessions));
+        assertThat(service.calculateTotalWoDuration(aggregate)).isEqualTo(reference.calculateTotalWoDuration(sessions));
+        assertThat(service.getAverageWoDuration(aggregate)).isEqualTo(reference.getAverageWoDuration(sessions));
+        assertThat(service.getAveWoDurationByType(aggregate)).isEqualTo(reference.getAveWoDurationByType(sessions));
+        assertThat(service.getMostFrequentWo(aggregate)).isEqualTo(reference.getMostFrequentWo(sessions));
+        assertThat(service.getWorkOutFrequency(aggregate)).isEqualTo(reference.getWorkOutFrequency(sessions));
+        assertThat(service.getWorkoutTypeWithMaxTotalDuration(aggregate))
+                .isEqualTo(reference.getWorkoutTypeWithMaxTotalDuration(sessions));
+        assertThat(service.getLongestWoSession(aggregate)).isEqualTo(reference.getLongestWoSession(sessions));
+        assertThat(service.getTotalWaterIntakeByWoType(aggregate))
+                .containsExactlyEntriesOf(reference.getTotalWaterIntakeByWoType(sessions));
+        assertThat(service.getTotalCaloriesByGender(aggregate)).isEqualTo(reference.getTotalCaloriesByGender(sessions));
+        assertThat(service.getAverageFatPercentageByExperience(aggregate))
+                .isEqualTo(reference.getAverageFatPercentageByExperience(sessions));
+        assertThat(service.getAverageBMIbyWoType(aggregate)).isEqualTo(reference.getAverageBMIbyWoType(sessions));
+        assertThat(service.getCaloriesBurned(aggregate)).isEqualTo(reference.getCaloriesBurned(sessions));
+        assertThat(service.getExperienceLevelPerSession(aggregate))
+                .isEqualTo(reference.getExperienceLevelPerSession(sessions));
+        assertThat(service.getMaxDurationPerExpLevel(aggregate)).isEqualTo(reference.getMaxDurationPerExpLevel(sessions));
+    }
+
+    // For aggregates merged from partial ones: only the order of the
+    // floating-point additions differs from the streams, so sums of doubles
+    // and the averages over them match up to rounding and the rest exactly
+    void assertMergedMatchesReference(SessionAggregate aggregate, List<ActivitySession> sessions) {
+        assertThat(service.getTotalCalories(aggregate)).isEqualTo(reference.getTotalCalories(sessions));
+        assertThat(service.getAverageCaloriesBurned(aggregate)).isEqualTo(reference.getAverageCaloriesBurned(sessions));
+        assertThat(service.getTotalCaloriesByWoType(aggregate)).isEqualTo(reference.getTotalCaloriesByWoType(sessions));
+        assertThat(service.getTopWoTypes(aggregate)).isEqualTo(reference.getTopWoTypes(sessions));
+        assertThat(service.getMostFrequentWo(aggregate)).isEqualTo(reference.getMostFrequentWo(sessions));
+        assertThat(service.getWorkOutFrequency(aggregate)).isEqualTo(reference.getWorkOutFrequency(sessions));
+        assertThat(service.getLongestWoSession(aggregate)).isEqualTo(reference.getLongestWoSession(sessions));
+        assertThat(service.getTotalCaloriesByGender(aggregate)).isEqualTo(reference.getTotalCaloriesByGender(sessions));
+        assertThat(service.getCaloriesBurned(aggregate)).isEqualTo(reference.getCaloriesBurned(sessions));
+        assertThat(service.getExperienceLevelPerSession(aggregate))
+                .isEqualTo(reference.getExperienceLevelPerSession(sessions));
+        assertThat(service.getMaxDurationPerExpLevel(aggregate)).isEqualTo(reference.getMaxDurationPerExpLevel(sessions));
+        assertThat(service.calculateTotalWoDuration(aggregate))
+                .isCloseTo(reference.calculateTotalWoDuration(sessions), within(1e-9));
+        assertThat(service.getAverageWoDuration(aggregate))
+                .isCloseTo(reference.getAverageWoDuration(sessions), within(1e-9));
+        assertCloseTo(service.getAveWoDurationByType(aggregate), reference.getAveWoDurationByType(sessions));
+        assertCloseTo(service.getWorkoutTypeWithMaxTotalDuration(aggregate),
+                reference.getWorkoutTypeWithMaxTotalDuration(sessions));
+        assertCloseTo(service.getTotalWaterIntakeByWoType(aggregate), reference.getTotalWaterIntakeByWoType(sessions));
+        assertCloseTo(service.getAverageFatPercentageByExperience(aggregate),
+                reference.getAverageFatPercentageByExperience(sessions));
+        assertCloseTo(service.getAverageBMIbyWoType(aggregate), reference.getAverageBMIbyWoType(sessions));
+    }
+}
@@ -0,0 +1,80 @@
+package com.byusluer.fitnessanalyticsapp1.service;
+
+import com.byusluer.fitnessanalyticsapp1.config.FitnessAnalyticsProperties;
+import com.byusluer.fitnessanalyticsapp1.csv.LoadResult;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotServiceTests {
+
+    @TempDir
+    Path directory;
+
+    private final CsvLoaderService loader = new CsvLoaderService();
+    private final SnapshotService snapshots = new SnapshotService(loader, new FitnessAnalyticsProperties());
+
+    @Test
+    void loadsFromSnapshotWhileCsvIsUnchanged() throws IOException {
+        Path csv = bundledCsvCopy();
+        List<ActivitySession> expected = loader.loadSessionsFromPath(csv);
+
+        LoadResult<SessionTable> first = snapshots.loadTable(csv);
+        LoadResult<SessionTable> second = snapshots.loadTable(csv);
+
+        assertThat(first.getReport().getSource()).isEqualTo(csv.toString());
+        assertThat(second.getReport().getSource()).endsWith(SnapshotService.SUFFIX);
+        assertThat(second.getData().toSessions()).isEqualTo(expected);
+        assertThat(second.getData().genders().size()).isEqualTo(first.getData().genders().size());
+        assertThat(second.getData().workoutTypes().size()).isEqualTo(first.getData().workoutTypes().size());
+    }
+
+    @Test
+    void reparsesWhenCsvChanges() throws IOException {
+        Path csv = bundledCsvCopy();
+        snapshots.loadTable(csv);
+
+        Files.writeString(csv, "22,Male,70,1.8,180,150,60,1.0,400,Boxing,15,2,3,1,21.6\n", StandardOpenOption.APPEND);
+        LoadResult<SessionTable> changed = snapshots.loadTable(csv);
+        LoadResult<SessionTable> again = snapshots.loadTable(csv);
+
+        assertThat(changed.getReport().getSource()).isEqualTo(csv.toString());
+        assertThat(again.getReport().getSource()).endsWith(SnapshotService.SUFFIX);
+        assertThat(again.getData().toSessions()).isEqualTo(loader.loadSessionsFromPath(csv));
+        assertThat(again.getData().toSession(again.getData().size() - 1).getWorkoutType()).isEqualTo("Boxing");
+    }
+
+    @Test
+    void fallsBackToCsvWhenSnapshotIsCorrupt() throws IOException {
+        Path csv = bundledCsvCopy();
+        snapshots.loadTable(csv);
+        Path snapshot = snapshots.snapshotPath(csv);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+
+        LoadResult<SessionTable> result = snapshots.loadTable(csv);
+
+        assertThat(result.getReport().getSource()).isEqualTo(csv.toString());
+        assertThat(result.getData().toSessions()).isEqualTo(loader.loadSessionsFromPath(csv));
+        assertThat(Files.size(snapshot)).isEqualTo(bytes.length);
+    }
+
+    private Path bundledCsvCopy() throws IOException {
+        Path csv = directory.resolve("fitness_data.csv");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("fitness_data.csv")) {
+            Files.copy(in, csv);
+        }
+        return csv;
+    }
+}
@@ -0,0 +1,148 @@
+package com.byusluer.fitnessanalyticsapp1.sketch;
+
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrequencySketchTests {
+
+    @Test
+    void matchesExactCountsOnBundledDataset() {
+        FitnessAnalyticsService service = new FitnessAnalyticsService();
+        CsvLoaderService loader = new CsvLoaderService();
+        List<ActivitySession> sessions = loader.loadSessionsFromCsv("fitness_data.csv");
+        SessionTable table = loader.loadTableFromCsv("fitness_data.csv");
+
+        for (WorkoutFrequencySketches sketches : List.of(service.sketchFrequencies(sessions),
+                service.sketchFrequencies(table))) {
+            TopK<String> top = service.getApproxTopWoTypes(sketches);
+            assertThat(top.items()).extracting(FrequencyEstimate::key)
+                    .containsExactlyElementsOf(service.getTopWoTypes(sessions));
+            assertThat(top.items()).allMatch(FrequencyEstimate::isExact);
+            assertThat(top.isGuaranteed()).isTrue();
+
+            FrequencyEstimate<String> mostFrequent = service.getApproxMostFrequentWo(sketches).items().get(0);
+            assertThat(Map.of(mostFrequent.key(), mostFrequent.count())).isEqualTo(service.getMostFrequentWo(sessions));
+
+            Map<Integer, Long> frequencies = new HashMap<>();
+            service.getApproxWorkOutFrequency(sketches).items()
+                    .forEach(estimate -> frequencies.put(estimate.key(), estimate.count()));
+            assertThat(frequencies).isEqualTo(service.getWorkOutFrequency(sessions));
+        }
+    }
+
+    @Test
+    void boundsHoldOnSkewedStreamWithManyDistinctKeys() {
+        List<String> stream = zipfStream(200_000, 20_000, new Random(11));
+        Map<String, Long> exact = exactCounts(stream);
+        FrequencySketch<String> sketch = new FrequencySketch<>(200, 0.0005, 0.01);
+        stream.forEach(sketch::add);
+
+        TopK<String> top = sketch.top(10);
+        assertThat(top.items()).extracting(FrequencyEstimate::key).containsExactlyElementsOf(exactTop(exact, 10));
+        assertBounds(top, exact);
+        for (String key : List.of("k1", "k50", "k5000", "never-seen")) {
+            FrequencyEstimate<String> estimate = sketch.estimate(key);
+            long count = exact.getOrDefault(key, 0L);
+            assertThat(count).isBetween(estimate.lowerBound(), estimate.upperBound());
+        }
+    }
+
+    @Test
+    void mergedPartitionsKeepTheBounds() {
+        Random random = new Random(3);
+        List<String> stream = zipfStream(120_000, 10_000, random);
+        Map<String, Long> exact = exactCounts(stream);
+
+        List<FrequencySketch<String>> partitions = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            partitions.add(new FrequencySketch<>(150, 0.001, 0.01));
+        }
+        for (int i = 0; i < stream.size(); i++) {
+            partitions.get(random.nextInt(partitions.size())).add(stream.get(i));
+        }
+        FrequencySketch<String> merged = partitions.get(0);
+        for (FrequencySketch<String> partition : partitions.subList(1, partitions.size())) {
+            merged.merge(partition);
+        }
+
+        TopK<String> top = merged.top(5);
+        assertThat(top.totalCount()).isEqualTo(stream.size());
+        assertThat(top.items()).extracting(FrequencyEstimate::key).containsExactlyElementsOf(exactTop(exact, 5));
+        assertBounds(top, exact);
+        exact.forEach((key, count) -> {
+            if (top.items().stream().noneMatch(item -> item.key().equals(key))) {
+                assertThat(count).isLessThanOrEqualTo(Math.max(top.unmonitoredBound(), top.items().get(4).upperBound()));
+            }
+        });
+    }
+
+    @Test
+    void countMinNeverUndercounts() {
+        List<String> stream = zipfStream(50_000, 5_000, new Random(5));
+        CountMinSketch sketch = CountMinSketch.withError(0.01, 0.01);
+        stream.forEach(key -> sketch.add(key, 1));
+
+        int withinBound = 0;
+        Map<String, Long> exact = exactCounts(stream);
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() <= sketch.errorBound()) withinBound++;
+        }
+        assertThat((double) withinBound / exact.size()).isGreaterThanOrEqualTo(sketch.confidence());
+    }
+
+    private static void assertBounds(TopK<String> top, Map<String, Long> exact) {
+        for (FrequencyEstimate<String> item : top.items()) {
+            assertThat(exact.get(item.key())).isBetween(item.lowerBound(), item.upperBound());
+        }
+    }
+
+    // Key k<i> with probability proportional to 1 / i
+    private static List<String> zipfStream(int length, int keys, Random random) {
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        List<String> stream = new ArrayList<>(length);
+        for (int n = 0; n < length; n++) {
+            double target = random.nextDouble() * sum;
+            int low = 0;
+            int high = keys - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < target) low = mid + 1;
+                else high = mid;
+            }
+            stream.add("k" + (low + 1));
+        }
+        return stream;
+    }
+
+    private static Map<String, Long> exactCounts(List<String> stream) {
+        Map<String, Long> counts = new HashMap<>();
+        stream.forEach(key -> counts.merge(key, 1L, Long::sum));
+        return counts;
+    }
+
+    private static List<String> exactTop(Map<String, Long> counts, int k) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(k)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
@@ -0,0 +1,164 @@
+package com.byusluer.fitnessanalyticsapp1.sketch;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.aggregation.QuantileSummary;
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import com.byusluer.fitnessanalyticsapp1.table.SessionTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuantileSketchTests {
+
+    private static final double[] QUANTILES = {0.01, 0.25, 0.5, 0.9, 0.99};
+
+    @Test
+    void exactUpToK() {
+        KllSketch sketch = new KllSketch(200);
+        double[] values = new Random(1).doubles(200, 0, 100).toArray();
+        Arrays.stream(values).forEach(sketch::add);
+        Arrays.sort(values);
+
+        assertThat(sketch.isExact()).isTrue();
+        for (double q : QUANTILES) {
+            assertThat(sketch.quantile(q)).isEqualTo(values[(int) Math.ceil(q * values.length) - 1]);
+        }
+    }
+
+    @Test
+    void rankErrorStaysWithinBoundOnLargeStreams() {
+        Random random = new Random(2);
+        double[] values = new double[500_000];
+        KllSketch sketch = new KllSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 15 + 140;
+            sketch.add(values[i]);
+        }
+
+        assertThat(sketch.isExact()).isFalse();
+        assertRankError(sketch, values);
+        assertThat(sketch.count()).isEqualTo(values.length);
+        assertThat(sketch.min()).isEqualTo(Arrays.stream(values).min().orElseThrow());
+        assertThat(sketch.max()).isEqualTo(Arrays.stream(values).max().orElseThrow());
+    }
+
+    @Test
+    void mergedSketchesAreDeterministicAndAccurate() {
+        double[] values = new Random(3).doubles(200_000, 0, 2_000).toArray();
+        KllSketch first = mergeOfParts(values, 8);
+        KllSketch second = mergeOfParts(values, 8);
+
+        for (double q : QUANTILES) {
+            assertThat(first.quantile(q)).isEqualTo(second.quantile(q));
+        }
+        assertRankError(first, values);
+    }
+
+    @Test
+    void histogramCountsEveryValueOnce() {
+        FixedHistogram histogram = new FixedHistogram(0, 10, 5);
+        for (double value : new double[]{-1, 0, 9.99, 10, 49.9, 50, 1e9}) {
+            histogram.add(value);
+        }
+        FixedHistogram other = histogram.copy();
+        histogram.merge(other);
+
+        assertThat(histogram.buckets()).extracting(FixedHistogram.Bucket::count)
+                .containsExactly(2L, 4L, 2L, 0L, 0L, 2L, 4L);
+        assertThat(histogram.buckets().get(1)).isEqualTo(new FixedHistogram.Bucket(0, 10, 4));
+    }
+
+    @Test
+    void groupQuantilesAreFilledInTheAggregationPass() {
+        FitnessAnalyticsService service = new FitnessAnalyticsService();
+        CsvLoaderService loader = new CsvLoaderService();
+        List<ActivitySession> sessions = loader.loadSessionsFromCsv("fitness_data.csv");
+        SessionTable table = loader.loadTableFromCsv("fitness_data.csv");
+        SessionAggregate aggregate = service.aggregate(sessions);
+
+        for (Metric metric : List.of(Metric.AVG_BPM, Metric.MAX_BPM, Metric.SESSION_DURATION_HOURS,
+                Metric.CALORIES_BURNED)) {
+            Map<String, QuantileSummary> byType = service.getQuantilesByWoType(aggregate, metric);
+            assertThat(byType).isEqualTo(service.getQuantilesByWoType(service.aggregate(table), metric));
+            assertThat(service.getQuantilesByExperience(aggregate, metric))
+                    .isEqualTo(service.getQuantilesByExperience(service.aggregate(table), metric));
+
+            byType.forEach((type, summary) -> {
+                double[] values = sessions.stream()
+                        .filter(s -> type.equals(s.getWorkoutType()) && metric.read(s) != null)
+                        .mapToDouble(s -> metric.read(s).doubleValue())
+                        .sorted()
+                        .toArray();
+                assertThat(summary.count()).isEqualTo(values.length);
+                assertThat(summary.min()).isEqualTo(values[0]);
+                assertThat(summary.max()).isEqualTo(values[values.length - 1]);
+                assertWithinRank(summary.p50(), 0.5, values, summary.rankError());
+                assertWithinRank(summary.p90(), 0.9, values, summary.rankError());
+                assertWithinRank(summary.p99(), 0.99, values, summary.rankError());
+            });
+
+            long histogramTotal = service.getHistogramByExperience(aggregate, metric).values().stream()
+                    .flatMap(List::stream)
+                    .mapToLong(FixedHistogram.Bucket::count)
+                    .sum();
+            assertThat(histogramTotal).isEqualTo(sessions.stream()
+                    .filter(s -> s.getExperienceLevel() != null && metric.read(s) != null)
+                    .count());
+        }
+
+        assertThatThrownBy(() -> service.getQuantilesByWoType(aggregate, Metric.BMI))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static KllSketch mergeOfParts(double[] values, int parts) {
+        KllSketch merged = new KllSketch();
+        int partSize = values.length / parts;
+        for (int p = 0; p < parts; p++) {
+            KllSketch part = new KllSketch();
+            for (int i = p * partSize; i < (p + 1) * partSize; i++) {
+                part.add(values[i]);
+            }
+            merged.merge(part);
+        }
+        return merged;
+    }
+
+    private static void assertRankError(KllSketch sketch, double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            assertWithinRank(sketch.quantile(q), q, sorted, sketch.normalizedRankError());
+        }
+    }
+
+    // The estimate's rank range in the sorted values must overlap q +- 3 rank errors
+    private static void assertWithinRank(double estimate, double q, double[] sorted, double rankError) {
+        int below = lowerBound(sorted, estimate);
+        int atOrBelow = upperBound(sorted, estimate);
+        double tolerance = 3 * rankError + 1.0 / sorted.length;
+        assertThat((double) atOrBelow / sorted.length).isGreaterThanOrEqualTo(q - tolerance);
+        assertThat((double) below / sorted.length).isLessThanOrEqualTo(q + tolerance);
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) return -index - 1;
+        while (index > 0 && sorted[index - 1] == value) index--;
+        return index;
+    }
+
+    private static int upperBound(double[] sorted, double value) {
+        int index = lowerBound(sorted, value);
+        while (index < sorted.length && sorted[index] == value) index++;
+        return index;
+    }
+}
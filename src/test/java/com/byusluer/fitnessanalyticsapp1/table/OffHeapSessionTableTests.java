@@ -0,0 +1,108 @@
+package com.byusluer.fitnessanalyticsapp1.table;
+
+import com.byusluer.fitnessanalyticsapp1.aggregation.ColumnKernels;
+import com.byusluer.fitnessanalyticsapp1.aggregation.ColumnStats;
+import com.byusluer.fitnessanalyticsapp1.aggregation.Metric;
+import com.byusluer.fitnessanalyticsapp1.aggregation.SessionAggregate;
+import com.byusluer.fitnessanalyticsapp1.csv.LoadResult;
+import com.byusluer.fitnessanalyticsapp1.model.ActivitySession;
+import com.byusluer.fitnessanalyticsapp1.model.RandomSessions;
+import com.byusluer.fitnessanalyticsapp1.report.AnalyticsReport;
+import com.byusluer.fitnessanalyticsapp1.report.ReportRenderer;
+import com.byusluer.fitnessanalyticsapp1.service.CsvLoaderService;
+import com.byusluer.fitnessanalyticsapp1.service.FitnessAnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffHeapSessionTableTests {
+
+    @TempDir
+    Path directory;
+
+    private final FitnessAnalyticsService analytics = new FitnessAnalyticsService();
+
+    // Two full chunks and a partial one, in native memory and mapped from a file
+    @Test
+    void storesEveryFieldAndScansColumnsInPlace() {
+        List<ActivitySession> sessions = RandomSessions.of(2 * OffHeapSessionTable.CHUNK_ROWS + 100, 3);
+        SessionTable heap = SessionTable.of(sessions);
+
+        for (OffHeapSessionTable table : List.of(OffHeapSessionTable.of(heap),
+                OffHeapSessionTable.of(heap, directory.resolve("sessions.bin")))) {
+            try (table) {
+                assertThat(table.size()).isEqualTo(sessions.size());
+                assertThat(table.chunkCount()).isEqualTo(3);
+                assertThat(table.chunkRows(2)).isEqualTo(100);
+                for (int row = 0; row < sessions.size(); row++) {
+                    assertThat(table.toSession(row)).isEqualTo(sessions.get(row));
+                }
+                for (Metric metric : Metric.VALUES) {
+                    ColumnStats expected = ColumnKernels.scalar().stats(heap, metric);
+                    assertThat(table.stats(metric)).as("%s", metric).isEqualTo(expected);
+                    assertThat(table.countGreaterThan(metric, expected.average()))
+                            .isEqualTo(ColumnKernels.scalar().countGreaterThan(heap, metric, expected.average()));
+                }
+            }
+        }
+    }
+
+    // Chunk-by-chunk aggregation renders the same report as the heap table
+    @Test
+    void aggregatesLikeTheHeapTable() {
+        List<ActivitySession> sessions = RandomSessions.of(3 * OffHeapSessionTable.CHUNK_ROWS - 7, 5);
+        SessionTable heap = SessionTable.of(sessions);
+
+        try (OffHeapSessionTable table = OffHeapSessionTable.of(heap)) {
+            SessionAggregate expected = SessionAggregate.of(heap);
+            SessionAggregate actual = analytics.aggregate(table);
+
+            assertThat(ReportRenderer.render(AnalyticsReport.of(analytics, actual), ReportRenderer.Format.JSON))
+                    .isEqualTo(ReportRenderer.render(AnalyticsReport.of(analytics, expected),
+                            ReportRenderer.Format.JSON));
+            assertThat(actual.getLongestSession()).isEqualTo(expected.getLongestSession());
+            assertThat(analytics.getTotalCalories(table)).isEqualTo(analytics.getTotalCalories(heap));
+            assertThat(analytics.getTotalCaloriesLong(table)).isEqualTo(analytics.getTotalCaloriesLong(heap));
+            assertThat(analytics.getCaloriesBurned(table)).isEqualTo(analytics.getCaloriesBurned(sessions));
+            assertThat(analytics.getAverageWoDuration(table))
+                    .isEqualTo(ColumnKernels.scalar().stats(heap, Metric.SESSION_DURATION_HOURS).average());
+        }
+    }
+
+    @Test
+    void loadsCsvIntoFileBackedSegments() throws IOException {
+        Path csv = directory.resolve("fitness_data.csv");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("fitness_data.csv")) {
+            Files.copy(in, csv);
+        }
+        CsvLoaderService loader = new CsvLoaderService();
+        List<ActivitySession> expected = loader.loadSessionsFromPath(csv);
+        Path backing = directory.resolve("fitness_data.bin");
+
+        LoadResult<OffHeapSessionTable> load = loader.loadOffHeapTable(csv, backing);
+        OffHeapSessionTable table = load.getData();
+        try (table) {
+            assertThat(load.getReport().getRowsAccepted()).isEqualTo(expected.size());
+            List<ActivitySession> actual = new ArrayList<>();
+            for (long row = 0; row < table.size(); row++) {
+                actual.add(table.toSession(row));
+            }
+            assertThat(actual).isEqualTo(expected);
+            assertThat(Files.size(backing)).isEqualTo(OffHeapSessionTable.CHUNK_BYTES);
+            assertThat(analytics.getTotalCaloriesByWoType(analytics.aggregate(table)))
+                    .isEqualTo(analytics.getTotalCaloriesByWoType(expected));
+        }
+        assertThatThrownBy(() -> table.toSession(0)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new OffHeapSessionTable.Builder().build().toSession(0))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}